@@ -76,6 +76,44 @@ tasks.test {
     }
 }
 
+// ═══════════════════════════════════════════════════════════════════════════
+// JMH Benchmarks
+// ═══════════════════════════════════════════════════════════════════════════
+// Microbenchmarks of the per-sample hot path live in src/jmh/java. Results
+// are written as JSON, with the GC profiler's allocation rate per operation,
+// so a change in per-sample overhead shows up when two runs are compared.
+// Usage: ./gradlew jmh [-Pjmh.includes=<regex>]
+
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks, writing results to build/reports/jmh/results.json"
+    group = "verification"
+
+    javaLauncher.set(javaToolchains.launcherFor(java.toolchain))
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(results)
+    outputs.upToDateWhen { false }
+    doFirst { results.get().asFile.parentFile.mkdirs() }
+
+    args("-rf", "json", "-rff", results.get().asFile.absolutePath, "-prof", "gc")
+    (project.findProperty("jmh.includes") as String?)?.let { args(it) }
+}
+
 // ═══════════════════════════════════════════════════════════════════════════
 // Publishing
 // ═══════════════════════════════════════════════════════════════════════════
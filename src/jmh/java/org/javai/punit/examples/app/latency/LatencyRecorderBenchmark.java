@@ -0,0 +1,75 @@
+package org.javai.punit.examples.app.latency;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording a latency, alone and on four threads sharing one
+ * recorder, and of taking and reading a snapshot. Latencies are drawn from
+ * 50-200ms, the mock gateway's range, so recordings spread over many buckets
+ * as real ones would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LatencyRecorderBenchmark {
+
+    private static final long MIN_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long MAX_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private LatencyRecorder recorder;
+
+    @Setup
+    public void setUp() {
+        recorder = new LatencyRecorder();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++) {
+            recorder.record(random.nextLong(MIN_NANOS, MAX_NANOS));
+        }
+    }
+
+    /**
+     * One recording thread's source of latencies.
+     */
+    @State(Scope.Thread)
+    public static class Latencies {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        long next() {
+            return random.nextLong(MIN_NANOS, MAX_NANOS);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void record1(Latencies latencies) {
+        recorder.record(latencies.next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void record4(Latencies latencies) {
+        recorder.record(latencies.next());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long snapshotP99() {
+        return recorder.snapshot().percentile(99).toNanos();
+    }
+}
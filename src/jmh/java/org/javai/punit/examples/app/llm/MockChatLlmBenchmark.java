@@ -0,0 +1,63 @@
+package org.javai.punit.examples.app.llm;
+
+import java.util.concurrent.TimeUnit;
+import org.javai.punit.examples.usecases.ShoppingBasketUseCase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generates mock responses to the shopping-basket prompt: prompt analysis,
+ * response generation and token counting, without simulated latency.
+ *
+ * <p>The mock is a single, unsynchronised instance, so this runs on one
+ * thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class MockChatLlmBenchmark {
+
+    private static final String[] INSTRUCTIONS = {
+            "Add 2 apples",
+            "Remove the milk",
+            "Add 3 loaves of bread and a dozen eggs",
+            "Clear the basket",
+    };
+
+    @Param({"0.3", "1.0"})
+    public double temperature;
+
+    private MockChatLlm llm;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        llm = MockChatLlm.instance();
+        llm.setSeed(42);
+        llm.setSimulateLatency(false);
+        llm.setTransportFaultProfile(TransportFaultProfile.none());
+        llm.setProviderQuota(ProviderQuota.unlimited());
+    }
+
+    @Benchmark
+    public ChatResponse chatWithMetadata() throws ChatLlmException {
+        String instruction = INSTRUCTIONS[next++ & (INSTRUCTIONS.length - 1)];
+        return llm.chatWithMetadata(
+                ShoppingBasketUseCase.DEFAULT_SYSTEM_PROMPT, instruction,
+                ShoppingBasketUseCase.DEFAULT_MODEL, temperature);
+    }
+}
@@ -0,0 +1,64 @@
+package org.javai.punit.examples.app.llm;
+
+import java.util.concurrent.TimeUnit;
+import org.javai.punit.examples.usecases.ShoppingBasketUseCase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The client-side work of an OpenAI call, without the network: building the
+ * request body and parsing a Chat Completions response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenAiChatLlmBenchmark {
+
+    private static final String RESPONSE = """
+            {
+              "id": "chatcmpl-0",
+              "object": "chat.completion",
+              "created": 1700000000,
+              "model": "gpt-4o-mini",
+              "choices": [{
+                "index": 0,
+                "message": {
+                  "role": "assistant",
+                  "content": "{\\"actions\\": [{\\"context\\": \\"SHOP\\", \\"name\\": \\"add\\", \\"parameters\\": [{\\"name\\": \\"item\\", \\"value\\": \\"apples\\"}, {\\"name\\": \\"quantity\\", \\"value\\": \\"2\\"}]}]}"
+                },
+                "finish_reason": "stop"
+              }],
+              "usage": {"prompt_tokens": 212, "completion_tokens": 41, "total_tokens": 253}
+            }""";
+
+    private OpenAiChatLlm llm;
+
+    @Setup
+    public void setUp() {
+        // Never sends a request
+        llm = new OpenAiChatLlm("sk-benchmark", "https://api.openai.com/v1", 1_000);
+    }
+
+    @Benchmark
+    public String buildRequestBody() {
+        return llm.buildRequestBody(
+                ShoppingBasketUseCase.DEFAULT_SYSTEM_PROMPT, "Add 2 apples",
+                ShoppingBasketUseCase.DEFAULT_MODEL, ShoppingBasketUseCase.DEFAULT_TEMPERATURE);
+    }
+
+    @Benchmark
+    public ChatResponse parseResponse() throws Exception {
+        return llm.parseResponse(RESPONSE, ShoppingBasketUseCase.DEFAULT_MODEL);
+    }
+}
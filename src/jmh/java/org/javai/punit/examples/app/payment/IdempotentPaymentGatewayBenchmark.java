@@ -0,0 +1,89 @@
+package org.javai.punit.examples.app.payment;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Keyed charges through {@link IdempotentPaymentGateway} on four threads, at
+ * rising shares of retries. A retry repeats one of the caller's recent keys;
+ * the rest are new keys, which fill the cache and drive eviction.
+ *
+ * <p>The delegate is {@link MockPaymentGateway} on a {@link SimulatedClock},
+ * so a new key costs a draw rather than a wait.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class IdempotentPaymentGatewayBenchmark {
+
+    private static final int RECENT_KEYS = 64;
+
+    @Param({"0.0", "0.5", "0.9", "0.99"})
+    public double duplicateRate;
+
+    private IdempotentPaymentGateway gateway;
+    private final AtomicInteger callers = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        MockPaymentGateway mock = MockPaymentGateway.instance();
+        mock.setSimulatedClock(new SimulatedClock());
+        gateway = new IdempotentPaymentGateway(mock);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MockPaymentGateway.instance().setSimulatedClock(null);
+    }
+
+    /**
+     * One caller's keys: a ring of its most recent, to retry from.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+
+        private final String[] recent = new String[RECENT_KEYS];
+        private SplittableRandom random;
+        private String prefix;
+        private long issued;
+
+        @Setup
+        public void setUp(IdempotentPaymentGatewayBenchmark benchmark) {
+            int id = benchmark.callers.incrementAndGet();
+            random = new SplittableRandom(id);
+            prefix = "caller-" + id + "-";
+        }
+
+        String nextKey(double duplicateRate) {
+            if (issued > 0 && random.nextDouble() < duplicateRate) {
+                return recent[random.nextInt((int) Math.min(issued, RECENT_KEYS))];
+            }
+            String key = prefix + issued;
+            recent[(int) (issued++ % RECENT_KEYS)] = key;
+            return key;
+        }
+    }
+
+    @Benchmark
+    public PaymentResult charge(Caller caller) {
+        return gateway.charge(caller.nextKey(duplicateRate), "tok_visa_4242", 1999);
+    }
+}
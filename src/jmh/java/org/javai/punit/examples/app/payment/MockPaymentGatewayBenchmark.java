@@ -0,0 +1,70 @@
+package org.javai.punit.examples.app.payment;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Charge throughput as threads are added. Each benchmark makes the same
+ * charge on a different number of threads; with no lock on the charge path,
+ * total throughput should grow close to linearly up to the core count.
+ *
+ * <p>The gateway runs on a {@link SimulatedClock}, so what is measured is the
+ * cost of drawing a charge, not its simulated latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MockPaymentGatewayBenchmark {
+
+    private MockPaymentGateway gateway;
+
+    @Setup
+    public void setUp() {
+        gateway = MockPaymentGateway.instance();
+        gateway.setSeed(42);
+        gateway.setSimulatedClock(new SimulatedClock());
+    }
+
+    @TearDown
+    public void tearDown() {
+        gateway.setSimulatedClock(null);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PaymentResult charge1() {
+        return gateway.charge("tok_visa_4242", 1999);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public PaymentResult charge2() {
+        return gateway.charge("tok_visa_4242", 1999);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PaymentResult charge4() {
+        return gateway.charge("tok_visa_4242", 1999);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public PaymentResult charge8() {
+        return gateway.charge("tok_visa_4242", 1999);
+    }
+}
@@ -0,0 +1,69 @@
+package org.javai.punit.examples.app.payment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reconciling a million-charge soak run: the time to total a ledger of
+ * {@value #CHARGES} mock charges, which allocates nothing per record.
+ *
+ * <p>The ledger is filled once, through {@link MockPaymentGateway} on a
+ * {@link SimulatedClock} with {@link GatewayFailureProfile#clusteredOutages()},
+ * so that its failures span several error codes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionLedgerBenchmark {
+
+    private static final int CHARGES = 1_000_000;
+
+    private Path file;
+    private TransactionLedger ledger;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("ledger", ".bin");
+        Files.delete(file);
+        ledger = TransactionLedger.open(file, CHARGES);
+
+        MockPaymentGateway gateway = MockPaymentGateway.instance();
+        gateway.setSimulatedClock(new SimulatedClock());
+        gateway.setFailureProfile(GatewayFailureProfile.clusteredOutages());
+        gateway.setSeed(42);
+        gateway.setLedger(ledger);
+        for (int i = 0; i < CHARGES; i++) {
+            gateway.charge("tok_visa_4242", 1999);
+        }
+        gateway.setLedger(null);
+        gateway.setFailureProfile(GatewayFailureProfile.standard());
+        gateway.setSimulatedClock(null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ledger.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public TransactionLedger.Summary summary() {
+        return ledger.summary();
+    }
+}
@@ -0,0 +1,85 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.concurrent.TimeUnit;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses each response shape {@code MockChatLlm} emits: a valid translation
+ * and every way it deviates from one.
+ *
+ * <p>{@link #parse()} builds the {@link BasketTranslation} records;
+ * {@link #view()} is the path the use case contract takes, and
+ * {@link #evaluate()} adds the contract clauses to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShoppingActionValidatorBenchmark {
+
+    private static final String VALID = """
+            {"actions": [{"context": "SHOP", "name": "add", "parameters": [\
+            {"name": "item", "value": "apples"}, {"name": "quantity", "value": "2"}]}]}""";
+
+    /**
+     * The shapes of response the mock produces.
+     */
+    public enum Shape {
+        VALID(ShoppingActionValidatorBenchmark.VALID),
+        PROSE_PREFIX("I'd be happy to help! Here's the JSON:\n\n" + ShoppingActionValidatorBenchmark.VALID),
+        CODE_FENCE("```json\n" + ShoppingActionValidatorBenchmark.VALID + "\n```"),
+        INVALID_ACTION(ShoppingActionValidatorBenchmark.VALID.replace("\"add\"", "\"purchase\"")),
+        NEGATIVE_QUANTITY(ShoppingActionValidatorBenchmark.VALID.replace("\"2\"", "\"-1\"")),
+        ZERO_QUANTITY(ShoppingActionValidatorBenchmark.VALID.replace("\"2\"", "\"0\"")),
+        WORD_QUANTITY(ShoppingActionValidatorBenchmark.VALID.replace("\"2\"", "\"two\"")),
+        WRONG_SCHEMA("{\"operations\": [{\"action\": \"add\", \"item\": \"apples\", \"quantity\": 2}]}"),
+        REFUSAL("I'm sorry, but I can't complete that request as stated. "
+                + "Could you clarify what you'd like to do with \"Add 2 apples\"?");
+
+        private final String response;
+
+        Shape(String response) {
+            this.response = response;
+        }
+    }
+
+    @Param
+    public Shape shape;
+
+    private String response;
+
+    @Setup
+    public void setUp() {
+        // A fresh copy, so no shape is read from an interned constant
+        response = new String(shape.response);
+    }
+
+    @Benchmark
+    public Outcome<BasketTranslation> parse() {
+        return ShoppingActionValidator.parse(response);
+    }
+
+    @Benchmark
+    public Outcome<TranslationView> view() {
+        return ShoppingActionValidator.view(response);
+    }
+
+    @Benchmark
+    public ShoppingContract.Verdict evaluate() {
+        return ShoppingContract.evaluate(response);
+    }
+}
@@ -0,0 +1,88 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.javai.punit.examples.app.shopping.ShoppingAction.AppContext;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Translations applied per second by a {@link ShoppingBasketEngine} with
+ * 1, 2, 4 and 8 lanes.
+ *
+ * <p>Each invocation submits {@value #TRANSLATIONS} translations from a mix of
+ * add, remove and clear, spread across {@value #SESSIONS} sessions, and waits
+ * for all of them to be applied. The clears keep the baskets small however
+ * long the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShoppingBasketEngineBenchmark {
+
+    private static final int SESSIONS = 10_000;
+    private static final int TRANSLATIONS = 100_000;
+
+    private static final List<BasketTranslation> MIX = List.of(
+            translation(action("add", "apples", "3"), action("add", "milk", "1")),
+            translation(action("remove", "apples", "1")),
+            translation(action("add", "bread", "2"), action("remove", "milk", null)),
+            translation(action("clear", null, null)));
+
+    @Param({"1", "2", "4", "8"})
+    public int lanes;
+
+    private ShoppingBasketEngine engine;
+    private String[] sessionIds;
+
+    @Setup
+    public void setUp() {
+        engine = new ShoppingBasketEngine(lanes);
+        sessionIds = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            sessionIds[i] = "session-" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSLATIONS)
+    public void submit() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[TRANSLATIONS];
+        for (int i = 0; i < TRANSLATIONS; i++) {
+            futures[i] = engine.submit(sessionIds[i % SESSIONS], MIX.get(i % MIX.size()));
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private static BasketTranslation translation(ShoppingAction... actions) {
+        return new BasketTranslation(List.of(actions));
+    }
+
+    private static ShoppingAction action(String name, String item, String quantity) {
+        List<ShoppingActionParameter> parameters = item == null ? List.of()
+                : quantity == null ? List.of(new ShoppingActionParameter("item", item))
+                : List.of(new ShoppingActionParameter("item", item), new ShoppingActionParameter("quantity", quantity));
+        return new ShoppingAction(AppContext.SHOP, name, parameters);
+    }
+}
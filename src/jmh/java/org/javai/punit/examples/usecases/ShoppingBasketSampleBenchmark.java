@@ -0,0 +1,91 @@
+package org.javai.punit.examples.usecases;
+
+import java.util.concurrent.TimeUnit;
+import org.javai.outcome.Outcome;
+import org.javai.punit.api.TokenTracker;
+import org.javai.punit.examples.app.llm.MockChatLlm;
+import org.javai.punit.examples.app.llm.ProviderQuota;
+import org.javai.punit.examples.app.llm.TransportFaultProfile;
+import org.javai.punit.examples.app.shopping.CachingShoppingActionValidator;
+import org.javai.punit.examples.app.shopping.ShoppingContract;
+import org.javai.punit.examples.app.shopping.TranslationView;
+import org.javai.punit.examples.usecases.ShoppingBasketUseCase.LlmTuning;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * One {@link ShoppingBasketUseCase} sample against the mock LLM: the use
+ * case's own {@code invoke}, then every clause its contract declares, parsed
+ * through the use case's own caching validator.
+ *
+ * <p>The clauses are evaluated directly, as the engine would evaluate them,
+ * so the figure is the use case's own per-sample cost without the engine's
+ * bookkeeping. Tokens are reported to a tracker that discards them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class ShoppingBasketSampleBenchmark {
+
+    private static final TokenTracker DISCARD = tokens -> { };
+
+    private static final String[] INSTRUCTIONS = {
+            "Add 2 apples",
+            "Remove the milk",
+            "Add 3 loaves of bread and a dozen eggs",
+            "Clear the basket",
+    };
+
+    @Param({"0.3", "1.0"})
+    public double temperature;
+
+    private ShoppingBasketUseCase useCase;
+    private CachingShoppingActionValidator validator;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        MockChatLlm llm = MockChatLlm.instance();
+        llm.setSeed(42);
+        llm.setSimulateLatency(false);
+        llm.setTransportFaultProfile(TransportFaultProfile.none());
+        llm.setProviderQuota(ProviderQuota.unlimited());
+        useCase = new ShoppingBasketUseCase(llm, LlmTuning.DEFAULT.temperature(temperature));
+        validator = useCase.validator();
+    }
+
+    @Benchmark
+    public void sample(Blackhole blackhole) {
+        String instruction = INSTRUCTIONS[next++ & (INSTRUCTIONS.length - 1)];
+        Outcome<String> result = useCase.invoke(instruction, DISCARD);
+        if (!(result instanceof Outcome.Ok<String> invoked)) {
+            blackhole.consume(result);
+            return;
+        }
+
+        String content = invoked.value();
+        blackhole.consume(ShoppingContract.checkResponseNotEmpty(content));
+        Outcome<TranslationView> parsed = validator.view(content);
+        if (parsed instanceof Outcome.Ok<TranslationView> ok) {
+            blackhole.consume(ShoppingContract.checkActionsValidForContext(ok.value()));
+            blackhole.consume(ShoppingContract.checkQuantitiesArePositiveIntegers(ok.value()));
+        } else {
+            blackhole.consume(parsed);
+        }
+    }
+}
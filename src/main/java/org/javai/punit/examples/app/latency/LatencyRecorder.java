@@ -0,0 +1,77 @@
+package org.javai.punit.examples.app.latency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records call latencies into a fixed-size histogram with nanosecond
+ * resolution.
+ *
+ * <p>Unlike a list of every latency in milliseconds, the recorder's memory
+ * does not grow with the sample count, and sub-millisecond calls keep their
+ * differences rather than all counting as zero. Percentiles read from a
+ * {@link #snapshot()} are within 1% of the recorded latencies; see
+ * {@link LatencySnapshot} for the bucket layout.
+ *
+ * <p>Recording is lock-free: a latency increments one atomic counter, so
+ * concurrent callers never block one another. A snapshot copies the
+ * counters one by one, so latencies recorded while it is taken may or may
+ * not appear in it.
+ */
+public final class LatencyRecorder {
+
+    /** The highest latency told apart from others; longer latencies are counted as this. */
+    public static final Duration HIGHEST_TRACKABLE = Duration.ofNanos((1L << 42) - 1);
+
+    private static final long HIGHEST_TRACKABLE_NANOS = HIGHEST_TRACKABLE.toNanos();
+
+    private final AtomicLongArray counts = new AtomicLongArray(LatencySnapshot.BUCKETS);
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency in nanoseconds
+     * @throws IllegalArgumentException if {@code nanos} is negative
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("latency must not be negative, got " + nanos);
+        }
+        counts.incrementAndGet(LatencySnapshot.indexOf(Math.min(nanos, HIGHEST_TRACKABLE_NANOS)));
+    }
+
+    /**
+     * Records one latency.
+     *
+     * @param latency the latency
+     * @throws IllegalArgumentException if {@code latency} is negative
+     */
+    public void record(Duration latency) {
+        if (latency.isNegative()) {
+            throw new IllegalArgumentException("latency must not be negative, got " + latency);
+        }
+        record(latency.compareTo(HIGHEST_TRACKABLE) > 0 ? HIGHEST_TRACKABLE_NANOS : latency.toNanos());
+    }
+
+    /**
+     * Returns a copy of the latencies recorded so far.
+     *
+     * @return the snapshot
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new LatencySnapshot(copy);
+    }
+
+    /**
+     * Forgets every latency recorded so far.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+}
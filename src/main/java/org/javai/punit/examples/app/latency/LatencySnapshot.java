@@ -0,0 +1,177 @@
+package org.javai.punit.examples.app.latency;
+
+import java.time.Duration;
+
+/**
+ * An immutable copy of a {@link LatencyRecorder}'s histogram.
+ *
+ * <p>Latencies are counted in log-linear buckets: every latency below 256ns
+ * has a bucket of its own, and above that each power of two is split into
+ * {@value #SUB_BUCKETS} equal buckets. Any value read back is therefore
+ * within 1 part in {@value #SUB_BUCKETS} (under 1%) of a latency that was
+ * recorded, from nanoseconds up to {@link LatencyRecorder#HIGHEST_TRACKABLE},
+ * in a fixed {@value #BUCKETS} counters however many latencies are recorded.
+ *
+ * <p>Snapshots of the same layout merge by adding counts, so histograms
+ * recorded on separate threads, decorators or runs can be combined and
+ * read as one.
+ *
+ * <p>Percentiles report the highest latency their bucket holds, so they
+ * never understate a latency; {@link #min()} reports the lowest.
+ */
+public final class LatencySnapshot {
+
+    /** Buckets per power of two. */
+    static final int SUB_BUCKETS = 128;
+
+    /** Total number of buckets, enough to hold {@link LatencyRecorder#HIGHEST_TRACKABLE}. */
+    static final int BUCKETS = 4608;
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final LatencySnapshot EMPTY = new LatencySnapshot(new long[BUCKETS]);
+
+    private final long[] counts;
+    private final long count;
+
+    LatencySnapshot(long[] counts) {
+        this.counts = counts;
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        this.count = total;
+    }
+
+    /**
+     * Returns a snapshot with no latencies recorded.
+     *
+     * @return the empty snapshot
+     */
+    public static LatencySnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the number of latencies recorded.
+     *
+     * @return the sample count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the lowest latency recorded.
+     *
+     * @return the minimum, or zero if nothing was recorded
+     */
+    public Duration min() {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                return Duration.ofNanos(lowestAt(i));
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    /**
+     * Returns the highest latency recorded.
+     *
+     * @return the maximum, or zero if nothing was recorded
+     */
+    public Duration max() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return Duration.ofNanos(highestAt(i));
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    /**
+     * Returns the mean latency, taking each latency as the middle of its bucket.
+     *
+     * @return the mean, or zero if nothing was recorded
+     */
+    public Duration mean() {
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+        double total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                total += counts[i] * ((lowestAt(i) + highestAt(i)) / 2.0);
+            }
+        }
+        return Duration.ofNanos(Math.round(total / count));
+    }
+
+    /**
+     * Returns the latency at or below which the given share of latencies fall.
+     *
+     * @param percentile the share, from 0 to 100 (e.g. 99.9 for P99.9)
+     * @return the latency at that percentile, or zero if nothing was recorded
+     * @throws IllegalArgumentException if {@code percentile} is outside 0 to 100
+     */
+    public Duration percentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100, got " + percentile);
+        }
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(highestAt(i));
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Returns a snapshot holding the latencies of both this and another.
+     *
+     * @param other the snapshot to combine with this one
+     * @return the merged snapshot
+     */
+    public LatencySnapshot merge(LatencySnapshot other) {
+        long[] merged = counts.clone();
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] += other.counts[i];
+        }
+        return new LatencySnapshot(merged);
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot[count=%d, min=%s, p50=%s, p99=%s, max=%s]"
+                .formatted(count, min(), percentile(50), percentile(99), max());
+    }
+
+    /**
+     * Returns the bucket a latency is counted in. Below {@code 2 x SUB_BUCKETS}
+     * the bucket is the latency itself; above, each doubling of the latency
+     * shifts it one more bit to fit {@code SUB_BUCKETS} buckets per power of two.
+     */
+    static int indexOf(long nanos) {
+        int shift = Math.max(0, (63 - Long.numberOfLeadingZeros(nanos)) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (nanos >>> shift);
+    }
+
+    static long lowestAt(int index) {
+        int shift = shiftAt(index);
+        return (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+    }
+
+    static long highestAt(int index) {
+        int shift = shiftAt(index);
+        return lowestAt(index) + (1L << shift) - 1;
+    }
+
+    private static int shiftAt(int index) {
+        return index < 2 * SUB_BUCKETS ? 0 : (index >>> SUB_BUCKET_BITS) - 1;
+    }
+}
@@ -0,0 +1,261 @@
+package org.javai.punit.examples.app.llm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Byte-pair-encoding {@link Tokenizer} driven by a ranked merge table.
+ *
+ * <p>Text is first split into pieces the way GPT-style tokenizers do: a run of
+ * letters, up to three digits, or a run of punctuation, each optionally
+ * prefixed by a single space; runs of whitespace form their own pieces. Each
+ * piece then starts as one symbol per character and the highest-priority
+ * adjacent pair from the merge table is merged repeatedly until no listed pair
+ * remains. The number of symbols left is the piece's token count.
+ *
+ * <h2>Merge Table</h2>
+ * <p>The table is a text file with one {@code left right} pair per line,
+ * highest priority first, in the format of GPT-2's {@code merges.txt}. Lines
+ * starting with {@code #} are comments. Space, newline, tab and carriage
+ * return are written as U+0120, U+010A, U+0109 and U+010D.
+ *
+ * <p>The table exposed via {@link #bundled()} is {@code bpe-merges.txt}: 30,000
+ * merges learned from English documentation prose and JSON documents, which is
+ * what prompts and responses contain. Every merge was learned within a single
+ * piece, so each can fire. Its vocabulary is far smaller than a
+ * provider's, so it counts somewhat more tokens: about 8% more than OpenAI's
+ * {@code cl100k_base} for {@code ShoppingBasketUseCase}'s system prompt, and
+ * more again for everyday words the training text rarely uses. For exact
+ * counts, {@link #load(InputStream) load} the provider's own merge table.
+ *
+ * <h2>Performance</h2>
+ * <p>Prompts repeat the same words constantly, so per-piece counts are
+ * memoised in a bounded concurrent map. After warm-up a count costs one scan
+ * over the text plus a map lookup per piece.
+ *
+ * @see Tokenizer#standard()
+ */
+public final class BpeTokenizer implements Tokenizer {
+
+    private static final String BUNDLED_MERGES = "bpe-merges.txt";
+    private static final int MAX_CACHED_PIECES = 50_000;
+    private static final int MAX_DIGITS_PER_PIECE = 3;
+    private static final long NO_MERGE = -1L;
+
+    private final Map<String, Integer> symbolIds;
+    private final Map<Long, Long> merges;
+    private final Map<String, Integer> pieceCache = new ConcurrentHashMap<>();
+
+    private BpeTokenizer(Map<String, Integer> symbolIds, Map<Long, Long> merges) {
+        this.symbolIds = symbolIds;
+        this.merges = merges;
+    }
+
+    /**
+     * Returns the tokenizer for the merge table bundled with this class.
+     *
+     * @return the shared bundled tokenizer
+     * @throws LlmConfigurationException if the bundled merge table cannot be loaded
+     */
+    public static BpeTokenizer bundled() {
+        return BundledHolder.INSTANCE;
+    }
+
+    /**
+     * Loads a tokenizer from a merge table.
+     *
+     * @param mergeTable the merge table, UTF-8 encoded
+     * @return a tokenizer using the table's merges
+     * @throws IOException if the table cannot be read
+     * @throws IllegalArgumentException if a line is not a {@code left right} pair
+     */
+    public static BpeTokenizer load(InputStream mergeTable) throws IOException {
+        Map<String, Integer> symbolIds = new HashMap<>();
+        Map<Long, Long> merges = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(mergeTable, StandardCharsets.UTF_8));
+        String line;
+        int rank = 0;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separator = line.indexOf(' ');
+            if (separator <= 0 || separator == line.length() - 1 || line.indexOf(' ', separator + 1) >= 0) {
+                throw new IllegalArgumentException("Malformed merge at rank %d: '%s'".formatted(rank, line));
+            }
+            String left = decode(line.substring(0, separator));
+            String right = decode(line.substring(separator + 1));
+            int leftId = idOf(symbolIds, left);
+            int rightId = idOf(symbolIds, right);
+            int mergedId = idOf(symbolIds, left + right);
+            merges.putIfAbsent(pairKey(leftId, rightId), ((long) rank << 32) | mergedId);
+            rank++;
+        }
+        return new BpeTokenizer(Map.copyOf(symbolIds), Map.copyOf(merges));
+    }
+
+    @Override
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int tokens = 0;
+        int start = 0;
+        int length = text.length();
+        while (start < length) {
+            int end = pieceEnd(text, start);
+            tokens += countPiece(text.substring(start, end));
+            start = end;
+        }
+        return tokens;
+    }
+
+    private int countPiece(String piece) {
+        Integer cached = pieceCache.get(piece);
+        if (cached != null) {
+            return cached;
+        }
+        int tokens = encode(piece);
+        if (pieceCache.size() < MAX_CACHED_PIECES) {
+            pieceCache.put(piece, tokens);
+        }
+        return tokens;
+    }
+
+    /**
+     * Applies the merge table to a single piece and returns the number of
+     * symbols that remain. Characters absent from the table become symbols
+     * that never merge, so unfamiliar text degrades towards one token per
+     * character rather than failing.
+     */
+    private int encode(String piece) {
+        int size = piece.length();
+        int[] symbols = new int[size];
+        for (int i = 0; i < size; i++) {
+            symbols[i] = symbolIds.getOrDefault(String.valueOf(piece.charAt(i)), -1);
+        }
+        while (size > 1) {
+            long best = NO_MERGE;
+            for (int i = 0; i + 1 < size; i++) {
+                long merge = mergeOf(symbols[i], symbols[i + 1]);
+                if (merge != NO_MERGE && (best == NO_MERGE || merge < best)) {
+                    best = merge;
+                }
+            }
+            if (best == NO_MERGE) {
+                break;
+            }
+            size = applyMerge(symbols, size, best);
+        }
+        return size;
+    }
+
+    /**
+     * Replaces every left-to-right occurrence of the pair that produced
+     * {@code merge} with the merged symbol, compacting in place.
+     */
+    private int applyMerge(int[] symbols, int size, long merge) {
+        int mergedId = (int) merge;
+        int written = 0;
+        for (int read = 0; read < size; read++) {
+            if (read + 1 < size && mergeOf(symbols[read], symbols[read + 1]) == merge) {
+                symbols[written++] = mergedId;
+                read++;
+            } else {
+                symbols[written++] = symbols[read];
+            }
+        }
+        return written;
+    }
+
+    private long mergeOf(int left, int right) {
+        if (left < 0 || right < 0) {
+            return NO_MERGE;
+        }
+        Long merge = merges.get(pairKey(left, right));
+        return merge != null ? merge : NO_MERGE;
+    }
+
+    /**
+     * Returns the end (exclusive) of the piece starting at {@code start}.
+     */
+    static int pieceEnd(String text, int start) {
+        int length = text.length();
+        int i = start;
+        char c = text.charAt(i);
+        if (c == ' ' && i + 1 < length && !Character.isWhitespace(text.charAt(i + 1))) {
+            c = text.charAt(++i);
+        }
+        if (Character.isLetter(c)) {
+            while (i < length && Character.isLetter(text.charAt(i))) {
+                i++;
+            }
+        } else if (Character.isDigit(c)) {
+            int digits = 0;
+            while (i < length && digits < MAX_DIGITS_PER_PIECE && Character.isDigit(text.charAt(i))) {
+                i++;
+                digits++;
+            }
+        } else if (Character.isWhitespace(c)) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            // Leave a trailing space to prefix the next word, as GPT tokenizers do
+            if (i - start > 1 && i < length && text.charAt(i - 1) == ' ') {
+                i--;
+            }
+        } else {
+            while (i < length && isPunctuation(text.charAt(i))) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isPunctuation(char c) {
+        return !Character.isLetter(c) && !Character.isDigit(c) && !Character.isWhitespace(c);
+    }
+
+    private static int idOf(Map<String, Integer> symbolIds, String symbol) {
+        return symbolIds.computeIfAbsent(symbol, s -> symbolIds.size());
+    }
+
+    /**
+     * Packs a pair into one key. Multiplying by an odd constant keeps keys
+     * distinct while spreading them over {@link Long#hashCode()}, which would
+     * otherwise reduce every pair to {@code left ^ right} and collide heavily.
+     */
+    private static long pairKey(int left, int right) {
+        return (((long) left << 32) | (right & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+    }
+
+    private static String decode(String symbol) {
+        return symbol.replace('\u0120', ' ')
+                .replace('\u010A', '\n')
+                .replace('\u0109', '\t')
+                .replace('\u010D', '\r');
+    }
+
+    private static final class BundledHolder {
+        private static final BpeTokenizer INSTANCE = loadBundled();
+
+        private static BpeTokenizer loadBundled() {
+            try (InputStream in = BpeTokenizer.class.getResourceAsStream(BUNDLED_MERGES)) {
+                if (in == null) {
+                    throw new LlmConfigurationException(
+                            "Bundled BPE merge table '%s' not found on the classpath".formatted(BUNDLED_MERGES));
+                }
+                return load(in);
+            } catch (IOException e) {
+                throw new LlmConfigurationException(
+                        "Failed to read bundled BPE merge table '%s'".formatted(BUNDLED_MERGES), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.javai.punit.examples.app.llm;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link Tokenizer} decorator that memoises whole-text token counts.
+ *
+ * <p>System prompts are sent verbatim with every sample of a run, so counting
+ * them once and reusing the result removes the dominant share of tokenization
+ * work from a sampling loop. The cache is a bounded LRU map keyed by the text
+ * itself; a repeated prompt is usually the same {@code String} instance, so a
+ * lookup costs a cached hash code and an identity comparison.
+ *
+ * <p>Hit and miss counts are exposed so that callers can confirm the cache is
+ * doing useful work.
+ */
+public final class CachingTokenizer implements Tokenizer {
+
+    private final Tokenizer delegate;
+    private final Map<String, Integer> cache;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a caching tokenizer.
+     *
+     * @param delegate the tokenizer whose counts are memoised
+     * @param maxEntries the maximum number of distinct texts to remember
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public CachingTokenizer(Tokenizer delegate, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive, got " + maxEntries);
+        }
+        this.delegate = delegate;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        synchronized (cache) {
+            Integer cached = cache.get(text);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+        }
+        // Count outside the lock; a concurrent miss on the same text merely
+        // computes the same value twice.
+        int tokens = delegate.countTokens(text);
+        synchronized (cache) {
+            misses++;
+            cache.put(text, tokens);
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the cache hit count
+     */
+    public long hitCount() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    /**
+     * Returns the number of lookups that had to be counted by the delegate.
+     *
+     * @return the cache miss count
+     */
+    public long missCount() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+}
@@ -74,6 +74,24 @@ public interface ChatLlm {
     ChatResponse chatWithMetadata(String systemMessage, String userMessage, String model, double temperature)
             throws ChatLlmException;
 
+    /**
+     * Estimates the prompt tokens a call would consume, without making it.
+     *
+     * <p>Use this for pre-flight budget checks - for example, to decide whether
+     * a remaining token budget can absorb another sample before paying for it.
+     * The default implementation counts the system and user messages with
+     * {@link Tokenizer#standard()}; the estimate approximates, but will not
+     * exactly match, the provider's own tokenizer.
+     *
+     * @param systemMessage the system prompt establishing context and instructions
+     * @param userMessage the user's request
+     * @return the estimated prompt token count
+     */
+    default int estimatePromptTokens(String systemMessage, String userMessage) {
+        Tokenizer tokenizer = Tokenizer.standard();
+        return tokenizer.countTokens(systemMessage) + tokenizer.countTokens(userMessage);
+    }
+
     /**
      * Returns the total number of tokens used across all calls since the last reset.
      *
@@ -1,5 +1,6 @@
 package org.javai.punit.examples.app.llm;
 
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -31,20 +32,49 @@ import java.util.Random;
  *   <li><b>Missing fields</b> - Omitted required fields</li>
  * </ul>
  *
+ * <h2>Model Profiles</h2>
+ * <p>The {@code model} argument selects a {@link ModelProfile} from the installed
+ * {@link ModelProfiles} (the bundled profiles by default). A profile scales the
+ * deviation chance - so {@code gpt-4o} follows instructions more faithfully than
+ * {@code gpt-4o-mini} - and the token counts, and defines a response latency.
+ * Latency is only simulated when enabled via {@link #setSimulateLatency(boolean)},
+ * keeping ordinary test runs fast. The temperature figures above describe the
+ * baseline profile ({@code deviationScale = 1.0}).
+ *
+ * <h2>Transport Faults</h2>
+ * <p>By default the mock never throws: every failure above is content-level.
+ * Install a {@link TransportFaultProfile} via
+ * {@link #setTransportFaultProfile(TransportFaultProfile)} to also inject the
+ * failures a real provider surfaces as {@link ChatLlmException} - 429s (steady
+ * or bursty), timeouts, connection resets and outage windows. Fault draws use
+ * their own random stream, derived from the seed, so enabling a profile leaves
+ * the generated content of surviving calls unchanged.
+ *
+ * <h2>Provider Quota</h2>
+ * <p>A {@link ProviderQuota} installed via {@link #setProviderQuota(ProviderQuota)}
+ * simulates the provider's requests-per-minute and tokens-per-minute limits.
+ * Calls over quota fail with a 429-equivalent {@link ChatLlmException}, and
+ * {@link #getQuotaUsage()} reports admitted calls, rejections and tokens
+ * consumed, so achieved throughput and wasted calls can be measured for a
+ * given pacing configuration.
+ *
  * <h2>Token Tracking</h2>
  * <p>The mock tracks token usage to simulate real LLM costs:
  * <ul>
- *   <li>Prompt tokens: ~4 tokens per word in system + user messages</li>
- *   <li>Completion tokens: ~4 tokens per word in response</li>
+ *   <li>Prompt tokens: system + user messages counted by a {@link Tokenizer}</li>
+ *   <li>Completion tokens: the response counted by the same tokenizer</li>
  *   <li>Cumulative tracking via {@link #getTotalTokensUsed()}</li>
  *   <li>Reset between tests via {@link #resetTokenCount()}</li>
  * </ul>
+ * <p>The tokenizer defaults to {@link Tokenizer#standard()} and can be swapped
+ * via {@link #setTokenizer(Tokenizer)}. System prompts repeat verbatim across
+ * samples, so their counts are memoised by a {@link CachingTokenizer}.
  *
  * <h2>Usage</h2>
  * <pre>{@code
  * ChatLlm llm = MockChatLlm.instance();
  *
- * // Simple usage - model parameter is accepted but ignored
+ * // Simple usage - the model selects a behaviour profile
  * String response = llm.chat(systemPrompt, userMessage, "gpt-4o-mini", 0.3);
  *
  * // With token tracking
@@ -63,17 +93,33 @@ public final class MockChatLlm implements ChatLlm {
 
     private static final MockChatLlm INSTANCE = new MockChatLlm();
 
-    /** Approximate tokens per word (GPT-style tokenization) */
-    private static final double TOKENS_PER_WORD = 1.3;
+    /** Decorrelates the latency stream from the content stream */
+    private static final long LATENCY_STREAM_SALT = 0x632BE59BD9B4E019L;
+
+    /** Distinct system prompts whose token counts are memoised */
+    private static final int SYSTEM_PROMPT_CACHE_SIZE = 32;
 
     private final Random random;
+    private final Random latencyRandom;
     private long seed;
     private long totalTokensUsed;
+    private Tokenizer tokenizer;
+    private Tokenizer systemPromptTokenizer;
+    private TransportFaultProfile transportFaultProfile;
+    private TransportFaultInjector transportFaults;
+    private ProviderQuotaLimiter quota;
+    private ModelProfiles modelProfiles;
+    private boolean simulateLatency;
 
     private MockChatLlm() {
         this.seed = System.currentTimeMillis();
         this.random = new Random(seed);
+        this.latencyRandom = new Random(seed ^ LATENCY_STREAM_SALT);
         this.totalTokensUsed = 0;
+        this.modelProfiles = ModelProfiles.bundled();
+        setTokenizer(Tokenizer.standard());
+        setTransportFaultProfile(TransportFaultProfile.none());
+        setProviderQuota(ProviderQuota.unlimited());
     }
 
     /**
@@ -93,6 +139,8 @@ public final class MockChatLlm implements ChatLlm {
     public void setSeed(long seed) {
         this.seed = seed;
         this.random.setSeed(seed);
+        this.latencyRandom.setSeed(seed ^ LATENCY_STREAM_SALT);
+        this.transportFaults = new TransportFaultInjector(transportFaultProfile, seed);
     }
 
     /**
@@ -104,6 +152,106 @@ public final class MockChatLlm implements ChatLlm {
         return seed;
     }
 
+    /**
+     * Replaces the tokenizer used to count prompt and completion tokens.
+     *
+     * <p>System prompt counts are memoised in front of the given tokenizer;
+     * the memo is discarded on each call.
+     *
+     * @param tokenizer the tokenizer to use
+     */
+    public void setTokenizer(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+        this.systemPromptTokenizer = new CachingTokenizer(tokenizer, SYSTEM_PROMPT_CACHE_SIZE);
+    }
+
+    /**
+     * Installs the per-model behaviour profiles.
+     *
+     * <p>Pass {@link ModelProfiles#baseline()} to make every model behave
+     * identically, as the mock did before profiles existed.
+     *
+     * @param modelProfiles the profiles to select from by model name
+     */
+    public void setModelProfiles(ModelProfiles modelProfiles) {
+        this.modelProfiles = modelProfiles;
+    }
+
+    /**
+     * Returns the installed per-model behaviour profiles.
+     *
+     * @return the current profiles
+     */
+    public ModelProfiles getModelProfiles() {
+        return modelProfiles;
+    }
+
+    /**
+     * Enables or disables simulated response latency. When enabled, each call
+     * blocks for a latency drawn from its model's profile.
+     *
+     * @param simulateLatency true to sleep for the profiled latency
+     */
+    public void setSimulateLatency(boolean simulateLatency) {
+        this.simulateLatency = simulateLatency;
+    }
+
+    /**
+     * Installs a transport fault profile, replacing any previous one and
+     * resetting its call count, burst state and fault counters.
+     *
+     * <p>Pass {@link TransportFaultProfile#none()} to stop injecting faults.
+     *
+     * @param profile the faults to inject before each call
+     */
+    public void setTransportFaultProfile(TransportFaultProfile profile) {
+        this.transportFaultProfile = profile;
+        this.transportFaults = new TransportFaultInjector(profile, seed);
+    }
+
+    /**
+     * Returns the installed transport fault profile.
+     *
+     * @return the current profile
+     */
+    public TransportFaultProfile getTransportFaultProfile() {
+        return transportFaultProfile;
+    }
+
+    /**
+     * Returns how many transport faults of each kind have been injected since
+     * the profile was installed or the seed was last set.
+     *
+     * @return per-kind fault counts; kinds never injected are absent
+     */
+    public Map<TransportFaultProfile.Fault, Long> getInjectedFaultCounts() {
+        return transportFaults.injectedCounts();
+    }
+
+    /**
+     * Installs a simulated provider quota, replacing any previous one with
+     * full buckets and zeroed counters.
+     *
+     * <p>The quota is shared by every caller of this instance, as a real
+     * provider's quota is shared by every client of an API key. Pass
+     * {@link ProviderQuota#unlimited()} to remove it.
+     *
+     * @param quota the request and token limits to enforce
+     */
+    public void setProviderQuota(ProviderQuota quota) {
+        this.quota = new ProviderQuotaLimiter(quota);
+    }
+
+    /**
+     * Returns the counters of the installed provider quota: calls admitted,
+     * calls rejected with a 429 for each limit, and tokens consumed.
+     *
+     * @return a snapshot of the quota counters
+     */
+    public QuotaUsage getQuotaUsage() {
+        return quota.usage();
+    }
+
     @Override
     public String chat(String systemMessage, String userMessage, String model, double temperature)
             throws ChatLlmException {
@@ -113,22 +261,32 @@ public final class MockChatLlm implements ChatLlm {
     @Override
     public ChatResponse chatWithMetadata(String systemMessage, String userMessage, String model, double temperature)
             throws ChatLlmException {
-        // Note: model parameter is accepted for interface compatibility but ignored.
-        // Mock behavior is determined solely by temperature and prompt content.
+        transportFaults.beforeCall();
+
+        // The model selects a profile that scales deviation, tokens and latency
+        ModelProfile profile = modelProfiles.forModel(model);
+
+        // Admission against the provider quota needs the prompt size up front
+        int promptTokens = profile.scaleTokens(estimatePromptTokens(systemMessage, userMessage));
+        quota.admit(promptTokens);
+
         // Analyze what the prompt specifies - this determines response quality
         PromptRequirements requirements = analyzePromptRequirements(systemMessage);
 
         // Generate response based on what the prompt asks for
         // If the prompt is vague, the response will have issues that fail validation
-        String response = generateResponse(userMessage, requirements, temperature);
+        String response = generateResponse(userMessage, requirements, temperature, profile);
 
-        // Calculate token usage
-        int promptTokens = estimateTokens(systemMessage) + estimateTokens(userMessage);
-        int completionTokens = estimateTokens(response);
+        int completionTokens = profile.scaleTokens(tokenizer.countTokens(response));
+        quota.charge(completionTokens);
 
         // Track cumulative usage
         totalTokensUsed += promptTokens + completionTokens;
 
+        if (simulateLatency) {
+            simulateLatency(profile);
+        }
+
         return new ChatResponse(response, promptTokens, completionTokens);
     }
 
@@ -142,22 +300,9 @@ public final class MockChatLlm implements ChatLlm {
         totalTokensUsed = 0;
     }
 
-    /**
-     * Estimates token count for a string using approximate word-based tokenization.
-     *
-     * <p>Real tokenizers (tiktoken, etc.) produce ~1.3 tokens per word on average
-     * for English text. This mock uses that approximation.
-     *
-     * @param text the text to estimate tokens for
-     * @return estimated token count
-     */
-    private int estimateTokens(String text) {
-        if (text == null || text.isBlank()) {
-            return 0;
-        }
-        // Count words (split on whitespace)
-        String[] words = text.trim().split("\\s+");
-        return (int) Math.ceil(words.length * TOKENS_PER_WORD);
+    @Override
+    public int estimatePromptTokens(String systemMessage, String userMessage) {
+        return systemPromptTokenizer.countTokens(systemMessage) + tokenizer.countTokens(userMessage);
     }
 
     /**
@@ -205,7 +350,8 @@ public final class MockChatLlm implements ChatLlm {
      * Generates a response based on what the prompt specifies and the temperature.
      *
      * <p>Temperature affects the likelihood of deviation from the prompt's instructions.
-     * The per-aspect deviation chance is {@code temperature² * 0.1}, so:
+     * The per-aspect deviation chance is {@code temperature² * 0.1} times the
+     * model profile's {@code deviationScale}, so at the baseline scale:
      * <ul>
      *   <li>{@code 0.0}: Follows prompt faithfully (0% per-aspect deviation)</li>
      *   <li>{@code 0.3}: ~1% per aspect, ~3% joint failure rate</li>
@@ -216,12 +362,13 @@ public final class MockChatLlm implements ChatLlm {
      * <p>This models real LLM behavior where higher temperature increases creativity
      * but also increases the chance of not following structured output requirements.
      */
-    private String generateResponse(String userMessage, PromptRequirements req, double temperature) {
+    private String generateResponse(
+            String userMessage, PromptRequirements req, double temperature, ModelProfile profile) {
         // Per-aspect deviation probability, calibrated so the joint
         // failure rate over the ~four independent deviation paths
         // tracks the class docstring: ~3% at temp=0.3, ~10% at temp=0.5,
-        // ~30% at temp=1.0.
-        double deviationChance = temperature * temperature * 0.1;
+        // ~30% at temp=1.0. The model profile scales it from there.
+        double deviationChance = profile.deviationChance(temperature * temperature * 0.1);
 
         StringBuilder response = new StringBuilder();
 
@@ -275,6 +422,15 @@ public final class MockChatLlm implements ChatLlm {
         return response.toString();
     }
 
+    private void simulateLatency(ModelProfile profile) throws ChatLlmException {
+        try {
+            Thread.sleep(profile.sampleLatencyMillis(latencyRandom));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChatLlmException("Request interrupted", e);
+        }
+    }
+
     private String randomAction() {
         // 70% chance of valid SHOP actions, 30% chance of invalid/hallucinated actions
         if (random.nextDouble() < 0.7) {
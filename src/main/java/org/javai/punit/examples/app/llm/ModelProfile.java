@@ -0,0 +1,95 @@
+package org.javai.punit.examples.app.llm;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Random;
+
+/**
+ * How {@link MockChatLlm} behaves when asked to impersonate a particular model.
+ *
+ * <p>Real models differ in how faithfully they follow structured-output
+ * instructions, how quickly they answer, and how their tokenizers split text.
+ * A profile captures those differences relative to the mock's baseline
+ * behaviour so that experiments comparing models produce distinguishable
+ * results offline.
+ *
+ * @param deviationScale multiplier on the mock's per-aspect deviation chance
+ *                       (1.0 = baseline, lower = more instruction-faithful)
+ * @param meanLatencyMillis mean simulated response latency
+ * @param latencyJitterMillis maximum deviation from the mean, drawn uniformly
+ * @param tokenScale multiplier on the standard tokenizer's counts, modelling a
+ *                   vocabulary that splits text more or less finely
+ * @see ModelProfiles
+ */
+public record ModelProfile(
+        @JsonProperty("deviationScale") double deviationScale,
+        @JsonProperty("meanLatencyMillis") int meanLatencyMillis,
+        @JsonProperty("latencyJitterMillis") int latencyJitterMillis,
+        @JsonProperty("tokenScale") double tokenScale
+) {
+
+    /** The mock's baseline behaviour: unscaled deviation and tokens, no latency. */
+    public static final ModelProfile BASELINE = new ModelProfile(1.0, 0, 0, 1.0);
+
+    /**
+     * Compact constructor that validates the profile.
+     */
+    public ModelProfile {
+        if (deviationScale < 0) {
+            throw new IllegalArgumentException("deviationScale must not be negative, got " + deviationScale);
+        }
+        if (meanLatencyMillis < 0 || latencyJitterMillis < 0 || latencyJitterMillis > meanLatencyMillis) {
+            throw new IllegalArgumentException(
+                    "Latency must satisfy 0 <= jitter <= mean, got mean=%d, jitter=%d"
+                            .formatted(meanLatencyMillis, latencyJitterMillis));
+        }
+        if (!(tokenScale > 0)) {
+            throw new IllegalArgumentException("tokenScale must be positive, got " + tokenScale);
+        }
+    }
+
+    /**
+     * JSON deserialization constructor.
+     */
+    @JsonCreator
+    public static ModelProfile fromJson(
+            @JsonProperty("deviationScale") double deviationScale,
+            @JsonProperty("meanLatencyMillis") int meanLatencyMillis,
+            @JsonProperty("latencyJitterMillis") int latencyJitterMillis,
+            @JsonProperty("tokenScale") double tokenScale) {
+        return new ModelProfile(deviationScale, meanLatencyMillis, latencyJitterMillis, tokenScale);
+    }
+
+    /**
+     * Scales a per-aspect deviation chance by this profile, capped at 1.
+     *
+     * @param baseChance the mock's baseline deviation chance
+     * @return the chance for this model
+     */
+    public double deviationChance(double baseChance) {
+        return Math.min(1.0, baseChance * deviationScale);
+    }
+
+    /**
+     * Scales a standard tokenizer count by this profile.
+     *
+     * @param tokens the standard token count
+     * @return the token count for this model
+     */
+    public int scaleTokens(int tokens) {
+        return (int) Math.round(tokens * tokenScale);
+    }
+
+    /**
+     * Draws a response latency from this profile.
+     *
+     * @param random the source of randomness
+     * @return a latency in milliseconds within {@code mean ± jitter}
+     */
+    public long sampleLatencyMillis(Random random) {
+        if (latencyJitterMillis == 0) {
+            return meanLatencyMillis;
+        }
+        return meanLatencyMillis - latencyJitterMillis + random.nextInt(2 * latencyJitterMillis + 1);
+    }
+}
@@ -0,0 +1,139 @@
+package org.javai.punit.examples.app.llm;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of {@link ModelProfile}s keyed by model name.
+ *
+ * <p>Profiles are loaded from JSON of the form:
+ * <pre>{@code
+ * {
+ *   "default": {"deviationScale": 1.0, "meanLatencyMillis": 0, "latencyJitterMillis": 0, "tokenScale": 1.0},
+ *   "models": {
+ *     "gpt-4o-mini": {...},
+ *     "claude-haiku-*": {...}
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>A model name resolves to the exactly matching entry if there is one,
+ * otherwise to the entry with the longest matching {@code prefix*} pattern,
+ * otherwise to the default profile. Profiles for the models used by the
+ * examples are bundled as {@code model-profiles.json} and exposed via
+ * {@link #bundled()}.
+ *
+ * @see MockChatLlm#setModelProfiles(ModelProfiles)
+ */
+public final class ModelProfiles {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String BUNDLED_PROFILES = "model-profiles.json";
+    private static final String WILDCARD = "*";
+
+    private static final ModelProfiles BASELINE = new ModelProfiles(ModelProfile.BASELINE, Map.of());
+
+    private final ModelProfile defaultProfile;
+    private final Map<String, ModelProfile> exact;
+    private final List<Map.Entry<String, ModelProfile>> prefixes;
+
+    private ModelProfiles(ModelProfile defaultProfile, Map<String, ModelProfile> models) {
+        this.defaultProfile = defaultProfile;
+        Map<String, ModelProfile> exact = new LinkedHashMap<>();
+        List<Map.Entry<String, ModelProfile>> prefixes = new ArrayList<>();
+        models.forEach((pattern, profile) -> {
+            if (pattern.endsWith(WILDCARD)) {
+                prefixes.add(Map.entry(pattern.substring(0, pattern.length() - 1), profile));
+            } else {
+                exact.put(pattern, profile);
+            }
+        });
+        prefixes.sort(Comparator.comparingInt((Map.Entry<String, ModelProfile> e) -> e.getKey().length()).reversed());
+        this.exact = Map.copyOf(exact);
+        this.prefixes = List.copyOf(prefixes);
+    }
+
+    /**
+     * Returns a registry that maps every model to {@link ModelProfile#BASELINE}.
+     *
+     * @return the baseline registry
+     */
+    public static ModelProfiles baseline() {
+        return BASELINE;
+    }
+
+    /**
+     * Returns the profiles bundled with this class.
+     *
+     * @return the bundled registry
+     * @throws LlmConfigurationException if the bundled profiles cannot be loaded
+     */
+    public static ModelProfiles bundled() {
+        return BundledHolder.INSTANCE;
+    }
+
+    /**
+     * Loads profiles from JSON.
+     *
+     * @param json the profile document, UTF-8 encoded
+     * @return the loaded registry
+     * @throws IOException if the document cannot be read or parsed
+     */
+    public static ModelProfiles load(InputStream json) throws IOException {
+        ProfileDocument document = MAPPER.readValue(json, ProfileDocument.class);
+        return new ModelProfiles(
+                document.defaults() != null ? document.defaults() : ModelProfile.BASELINE,
+                document.models() != null ? document.models() : Map.of());
+    }
+
+    /**
+     * Returns the profile for a model.
+     *
+     * @param model the model identifier (may be null)
+     * @return the matching profile, or the default profile
+     */
+    public ModelProfile forModel(String model) {
+        if (model == null) {
+            return defaultProfile;
+        }
+        ModelProfile profile = exact.get(model);
+        if (profile != null) {
+            return profile;
+        }
+        for (Map.Entry<String, ModelProfile> prefix : prefixes) {
+            if (model.startsWith(prefix.getKey())) {
+                return prefix.getValue();
+            }
+        }
+        return defaultProfile;
+    }
+
+    private record ProfileDocument(
+            @JsonProperty("default") ModelProfile defaults,
+            @JsonProperty("models") Map<String, ModelProfile> models
+    ) {}
+
+    private static final class BundledHolder {
+        private static final ModelProfiles INSTANCE = loadBundled();
+
+        private static ModelProfiles loadBundled() {
+            try (InputStream in = ModelProfiles.class.getResourceAsStream(BUNDLED_PROFILES)) {
+                if (in == null) {
+                    throw new LlmConfigurationException(
+                            "Bundled model profiles '%s' not found on the classpath".formatted(BUNDLED_PROFILES));
+                }
+                return load(in);
+            } catch (IOException e) {
+                throw new LlmConfigurationException(
+                        "Failed to read bundled model profiles '%s'".formatted(BUNDLED_PROFILES), e);
+            }
+        }
+    }
+}
@@ -146,7 +146,8 @@ public final class OpenAiChatLlm implements ChatLlm {
                 .build();
     }
 
-    private String buildRequestBody(String systemMessage, String userMessage, String model, double temperature) {
+    // Package-private for the JMH benchmarks
+    String buildRequestBody(String systemMessage, String userMessage, String model, double temperature) {
         return """
                 {
                   "model": "%s",
@@ -219,7 +220,8 @@ public final class OpenAiChatLlm implements ChatLlm {
         );
     }
 
-    private ChatResponse parseResponse(String json, String model) throws Exception {
+    // Package-private for the JMH benchmarks
+    ChatResponse parseResponse(String json, String model) throws Exception {
         JsonNode root = MAPPER.readTree(json);
 
         String content = root.at("/choices/0/message/content").asText();
@@ -0,0 +1,76 @@
+package org.javai.punit.examples.app.llm;
+
+/**
+ * A provider-side request and token quota simulated by {@link MockChatLlm}.
+ *
+ * <p>Real LLM providers enforce per-minute limits on both requests (RPM) and
+ * tokens (TPM), shared by every client using the same API key, and reject
+ * calls over quota with HTTP 429. Installing a quota on the mock makes it push
+ * back the same way, so that pacing configurations can be sized by measurement
+ * rather than guesswork.
+ *
+ * <p>Each limit is modelled as a token bucket holding one minute's allowance
+ * and refilling continuously. A call is admitted when the request bucket holds
+ * at least one request and the token bucket holds at least the call's prompt
+ * tokens; completion tokens are charged after the response is generated and
+ * may leave the token bucket in debt, delaying later calls - as with real
+ * providers, which only learn a response's length after producing it.
+ *
+ * @param requestsPerMinute requests admitted per minute (0 for no limit)
+ * @param tokensPerMinute prompt + completion tokens admitted per minute (0 for no limit)
+ * @see MockChatLlm#setProviderQuota(ProviderQuota)
+ * @see QuotaUsage
+ */
+public record ProviderQuota(int requestsPerMinute, int tokensPerMinute) {
+
+    private static final ProviderQuota UNLIMITED = new ProviderQuota(0, 0);
+
+    /**
+     * Compact constructor that validates the limits.
+     */
+    public ProviderQuota {
+        if (requestsPerMinute < 0 || tokensPerMinute < 0) {
+            throw new IllegalArgumentException(
+                    "Quota limits must be zero (unlimited) or positive, got RPM=%d, TPM=%d"
+                            .formatted(requestsPerMinute, tokensPerMinute));
+        }
+    }
+
+    /**
+     * Returns a quota that admits every call.
+     *
+     * @return the unlimited quota
+     */
+    public static ProviderQuota unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Returns a quota limiting requests only.
+     *
+     * @param requestsPerMinute requests admitted per minute
+     * @return a request-only quota
+     */
+    public static ProviderQuota requestsPerMinute(int requestsPerMinute) {
+        return new ProviderQuota(requestsPerMinute, 0);
+    }
+
+    /**
+     * Returns a copy of this quota with the given token limit.
+     *
+     * @param tokensPerMinute tokens admitted per minute
+     * @return the adjusted quota
+     */
+    public ProviderQuota tokensPerMinute(int tokensPerMinute) {
+        return new ProviderQuota(this.requestsPerMinute, tokensPerMinute);
+    }
+
+    /**
+     * Returns true if neither requests nor tokens are limited.
+     *
+     * @return true for an unlimited quota
+     */
+    public boolean isUnlimited() {
+        return requestsPerMinute == 0 && tokensPerMinute == 0;
+    }
+}
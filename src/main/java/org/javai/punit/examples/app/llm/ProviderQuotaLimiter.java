@@ -0,0 +1,91 @@
+package org.javai.punit.examples.app.llm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Stateful enforcement of a {@link ProviderQuota}: a pair of continuously
+ * refilling token buckets plus usage counters, shared by every caller.
+ */
+final class ProviderQuotaLimiter {
+
+    private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final ProviderQuota quota;
+    private final LongSupplier nanoClock;
+    private double requestAllowance;
+    private double tokenAllowance;
+    private long lastRefillNanos;
+    private long admitted;
+    private long rejectedForRequests;
+    private long rejectedForTokens;
+    private long tokensConsumed;
+
+    ProviderQuotaLimiter(ProviderQuota quota) {
+        this(quota, System::nanoTime);
+    }
+
+    ProviderQuotaLimiter(ProviderQuota quota, LongSupplier nanoClock) {
+        this.quota = quota;
+        this.nanoClock = nanoClock;
+        this.requestAllowance = quota.requestsPerMinute();
+        this.tokenAllowance = quota.tokensPerMinute();
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Admits a call carrying the given prompt tokens, or rejects it as a 429.
+     *
+     * @param promptTokens the call's prompt tokens
+     * @throws ChatLlmException if either limit is exhausted
+     */
+    synchronized void admit(int promptTokens) throws ChatLlmException {
+        if (quota.isUnlimited()) {
+            admitted++;
+            tokensConsumed += promptTokens;
+            return;
+        }
+        refill();
+        if (quota.requestsPerMinute() > 0 && requestAllowance < 1) {
+            rejectedForRequests++;
+            throw new ChatLlmException(
+                    "Mock API error [HTTP 429]: Rate limit reached for requests per minute (limit %d)"
+                            .formatted(quota.requestsPerMinute()));
+        }
+        if (quota.tokensPerMinute() > 0 && tokenAllowance < promptTokens) {
+            rejectedForTokens++;
+            throw new ChatLlmException(
+                    "Mock API error [HTTP 429]: Rate limit reached for tokens per minute (limit %d, requested %d)"
+                            .formatted(quota.tokensPerMinute(), promptTokens));
+        }
+        requestAllowance -= 1;
+        tokenAllowance -= promptTokens;
+        admitted++;
+        tokensConsumed += promptTokens;
+    }
+
+    /**
+     * Charges completion tokens to an admitted call. The token bucket may go
+     * into debt.
+     *
+     * @param completionTokens the call's completion tokens
+     */
+    synchronized void charge(int completionTokens) {
+        tokenAllowance -= completionTokens;
+        tokensConsumed += completionTokens;
+    }
+
+    synchronized QuotaUsage usage() {
+        return new QuotaUsage(admitted, rejectedForRequests, rejectedForTokens, tokensConsumed);
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        double elapsedMinutes = (now - lastRefillNanos) / NANOS_PER_MINUTE;
+        lastRefillNanos = now;
+        requestAllowance = Math.min(quota.requestsPerMinute(),
+                requestAllowance + elapsedMinutes * quota.requestsPerMinute());
+        tokenAllowance = Math.min(quota.tokensPerMinute(),
+                tokenAllowance + elapsedMinutes * quota.tokensPerMinute());
+    }
+}
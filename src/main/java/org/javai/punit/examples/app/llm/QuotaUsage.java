@@ -0,0 +1,30 @@
+package org.javai.punit.examples.app.llm;
+
+/**
+ * Snapshot of the counters kept by a simulated {@link ProviderQuota}.
+ *
+ * <p>Comparing {@link #admitted()} against {@link #rejected()} over a run shows
+ * how much of a pacing configuration's request volume was wasted on 429s, and
+ * {@link #tokensConsumed()} divided by the run's duration gives the achieved
+ * token throughput.
+ *
+ * @param admitted calls admitted within quota
+ * @param rejectedForRequests calls rejected because the request quota was exhausted
+ * @param rejectedForTokens calls rejected because the token quota was exhausted
+ * @param tokensConsumed prompt and completion tokens charged to admitted calls
+ */
+public record QuotaUsage(
+        long admitted,
+        long rejectedForRequests,
+        long rejectedForTokens,
+        long tokensConsumed
+) {
+    /**
+     * Returns the total number of rejected calls.
+     *
+     * @return calls rejected for either limit
+     */
+    public long rejected() {
+        return rejectedForRequests + rejectedForTokens;
+    }
+}
@@ -0,0 +1,96 @@
+package org.javai.punit.examples.app.llm;
+
+import java.util.function.LongSupplier;
+import org.javai.punit.examples.app.latency.LatencyRecorder;
+import org.javai.punit.examples.app.latency.LatencySnapshot;
+
+/**
+ * {@link ChatLlm} decorator that records how long each chat call takes in a
+ * {@link LatencyRecorder}.
+ *
+ * <p>Every call that returns a response is recorded; a call that throws a
+ * {@link ChatLlmException} is not, as it produced no response to time.
+ * Token estimates and counts pass straight through to the delegate.
+ */
+public final class TimedChatLlm implements ChatLlm {
+
+    private final ChatLlm delegate;
+    private final LatencyRecorder recorder;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Creates a timed LLM recording into a recorder of its own.
+     *
+     * @param delegate the LLM that answers the calls
+     */
+    public TimedChatLlm(ChatLlm delegate) {
+        this(delegate, new LatencyRecorder());
+    }
+
+    /**
+     * Creates a timed LLM.
+     *
+     * @param delegate the LLM that answers the calls
+     * @param recorder where latencies are recorded; may be shared
+     */
+    public TimedChatLlm(ChatLlm delegate, LatencyRecorder recorder) {
+        this(delegate, recorder, System::nanoTime);
+    }
+
+    TimedChatLlm(ChatLlm delegate, LatencyRecorder recorder, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public String chat(String systemMessage, String userMessage, String model, double temperature)
+            throws ChatLlmException {
+        long start = nanoClock.getAsLong();
+        String content = delegate.chat(systemMessage, userMessage, model, temperature);
+        recorder.record(nanoClock.getAsLong() - start);
+        return content;
+    }
+
+    @Override
+    public ChatResponse chatWithMetadata(String systemMessage, String userMessage, String model, double temperature)
+            throws ChatLlmException {
+        long start = nanoClock.getAsLong();
+        ChatResponse response = delegate.chatWithMetadata(systemMessage, userMessage, model, temperature);
+        recorder.record(nanoClock.getAsLong() - start);
+        return response;
+    }
+
+    @Override
+    public int estimatePromptTokens(String systemMessage, String userMessage) {
+        return delegate.estimatePromptTokens(systemMessage, userMessage);
+    }
+
+    @Override
+    public long getTotalTokensUsed() {
+        return delegate.getTotalTokensUsed();
+    }
+
+    @Override
+    public void resetTokenCount() {
+        delegate.resetTokenCount();
+    }
+
+    /**
+     * Returns the recorder this LLM's latencies go to.
+     *
+     * @return the recorder
+     */
+    public LatencyRecorder recorder() {
+        return recorder;
+    }
+
+    /**
+     * Returns a copy of the latencies recorded so far.
+     *
+     * @return the snapshot
+     */
+    public LatencySnapshot snapshot() {
+        return recorder.snapshot();
+    }
+}
@@ -0,0 +1,46 @@
+package org.javai.punit.examples.app.llm;
+
+/**
+ * Counts the tokens a piece of text occupies in an LLM's context window.
+ *
+ * <p>Token counts drive both the simulated usage reported by {@link MockChatLlm}
+ * and pre-flight budget estimation against real providers (see
+ * {@link ChatLlm#estimatePromptTokens(String, String)}). Keeping the counting
+ * strategy behind an interface lets callers trade accuracy for speed:
+ * <ul>
+ *   <li>{@link BpeTokenizer} - byte-pair encoding over a merge table; the
+ *       {@link #standard() standard} one uses a bundled table that
+ *       approximates a provider's counts for English and JSON</li>
+ *   <li>{@link WhitespaceTokenizer} - allocation-free word count scaled by a
+ *       tokens-per-word ratio; a cheap fallback when no vocabulary is available</li>
+ *   <li>{@link CachingTokenizer} - memoises whole-text counts of another
+ *       tokenizer, for text that repeats verbatim such as system prompts</li>
+ * </ul>
+ *
+ * <p>Implementations must be thread-safe.
+ *
+ * @see BpeTokenizer
+ * @see WhitespaceTokenizer
+ * @see CachingTokenizer
+ */
+public interface Tokenizer {
+
+    /**
+     * Counts the tokens in the given text.
+     *
+     * @param text the text to tokenize (may be null)
+     * @return the token count, or 0 for null or empty text
+     */
+    int countTokens(String text);
+
+    /**
+     * Returns the standard tokenizer: a {@link BpeTokenizer} loaded from the
+     * bundled merge table.
+     *
+     * @return the shared standard tokenizer
+     * @throws LlmConfigurationException if the bundled merge table cannot be loaded
+     */
+    static Tokenizer standard() {
+        return BpeTokenizer.bundled();
+    }
+}
@@ -0,0 +1,110 @@
+package org.javai.punit.examples.app.llm;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Stateful executor of a {@link TransportFaultProfile}.
+ *
+ * <p>Tracks the call count for outage windows and the burst state for bursty
+ * rate limiting, draws from its own {@link Random} so that enabling faults does
+ * not perturb the content the mock generates, and counts every fault injected.
+ */
+final class TransportFaultInjector {
+
+    /** Decorrelates the fault stream from a content stream seeded with the same value */
+    private static final long STREAM_SALT = 0x9E3779B97F4A7C15L;
+
+    private final TransportFaultProfile profile;
+    private final Random random;
+    private final Map<TransportFaultProfile.Fault, Long> injected =
+            new EnumMap<>(TransportFaultProfile.Fault.class);
+    private long calls;
+    private boolean inBurst;
+
+    TransportFaultInjector(TransportFaultProfile profile, long seed) {
+        this.profile = profile;
+        this.random = new Random(seed ^ STREAM_SALT);
+    }
+
+    /**
+     * Decides whether the next call fails and, if so, throws the fault. An
+     * injected timeout blocks only the failing call, not other callers.
+     *
+     * @throws ChatLlmException if a fault is injected
+     */
+    void beforeCall() throws ChatLlmException {
+        if (!profile.injectsFaults()) {
+            return;
+        }
+        TransportFaultProfile.Fault fault = nextFault();
+        if (fault == null) {
+            return;
+        }
+        if (fault == TransportFaultProfile.Fault.TIMEOUT) {
+            awaitTimeout();
+        }
+        throw toException(fault);
+    }
+
+    /**
+     * Returns how many faults of each kind have been injected.
+     *
+     * @return an immutable snapshot of the per-kind counts
+     */
+    synchronized Map<TransportFaultProfile.Fault, Long> injectedCounts() {
+        return Map.copyOf(injected);
+    }
+
+    private synchronized TransportFaultProfile.Fault nextFault() {
+        TransportFaultProfile.Fault fault = draw(calls++);
+        if (fault != null) {
+            injected.merge(fault, 1L, Long::sum);
+        }
+        return fault;
+    }
+
+    private TransportFaultProfile.Fault draw(long call) {
+        if (profile.outagePeriod() > 0
+                && call % profile.outagePeriod() >= profile.outagePeriod() - profile.outageLength()) {
+            return TransportFaultProfile.Fault.OUTAGE;
+        }
+        if (inBurst) {
+            inBurst = random.nextDouble() >= profile.burstExitRate();
+        } else {
+            inBurst = random.nextDouble() < profile.burstEntryRate();
+        }
+        double rateLimitRate = inBurst ? profile.burstRateLimitRate() : profile.rateLimitRate();
+        if (random.nextDouble() < rateLimitRate) {
+            return TransportFaultProfile.Fault.RATE_LIMITED;
+        }
+        if (random.nextDouble() < profile.timeoutRate()) {
+            return TransportFaultProfile.Fault.TIMEOUT;
+        }
+        if (random.nextDouble() < profile.connectionResetRate()) {
+            return TransportFaultProfile.Fault.CONNECTION_RESET;
+        }
+        return null;
+    }
+
+    private void awaitTimeout() throws ChatLlmException {
+        try {
+            Thread.sleep(profile.timeoutDelay());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChatLlmException("Request interrupted", e);
+        }
+    }
+
+    private ChatLlmException toException(TransportFaultProfile.Fault fault) {
+        return switch (fault) {
+            case RATE_LIMITED -> new ChatLlmException(
+                    "Mock API error [HTTP 429]: Rate limit exceeded, retry after backoff");
+            case TIMEOUT -> new ChatLlmException(
+                    "Request timed out after " + profile.timeoutDelay().toMillis() + " ms");
+            case CONNECTION_RESET -> new ChatLlmException("Network error: Connection reset");
+            case OUTAGE -> new ChatLlmException("Mock API error [HTTP 503]: Service unavailable");
+        };
+    }
+}
@@ -0,0 +1,257 @@
+package org.javai.punit.examples.app.llm;
+
+import java.time.Duration;
+
+/**
+ * Describes the transport-level faults {@link MockChatLlm} injects before
+ * answering a call.
+ *
+ * <p>Content-level failures (malformed JSON, wrong schema, prose) are part of
+ * the mock's normal behaviour. A transport fault profile adds the failures a
+ * real provider surfaces as {@link ChatLlmException}, so that the
+ * {@code llm-error} path of a use case, exception policies, retries, budgets
+ * and early termination can be exercised without a network:
+ * <ul>
+ *   <li><b>Rate limiting</b> - HTTP 429, either independently per call
+ *       (Bernoulli) or in bursts driven by a two-state Markov chain</li>
+ *   <li><b>Timeouts</b> - the call blocks for a configurable delay, then fails</li>
+ *   <li><b>Connection resets</b> - the call fails immediately with a network error</li>
+ *   <li><b>Outage windows</b> - every call in a recurring window of calls
+ *       fails with HTTP 503</li>
+ * </ul>
+ *
+ * <p>Outage windows are checked first, then an active or newly entered 429
+ * burst, then the independent faults in the order listed above.
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * TransportFaultProfile profile = TransportFaultProfile.builder()
+ *         .rateLimitRate(0.02)
+ *         .rateLimitBursts(0.01, 0.2, 0.9)
+ *         .timeouts(0.005, Duration.ofMillis(200))
+ *         .outages(500, 25)
+ *         .build();
+ *
+ * MockChatLlm.instance().setTransportFaultProfile(profile);
+ * }</pre>
+ *
+ * @param rateLimitRate probability that a call outside a burst is rate limited
+ * @param burstEntryRate probability that a call outside a burst starts one
+ * @param burstExitRate probability that a call inside a burst ends it
+ * @param burstRateLimitRate probability that a call inside a burst is rate limited
+ * @param timeoutRate probability that a call times out
+ * @param timeoutDelay how long a timing-out call blocks before failing
+ * @param connectionResetRate probability that a call's connection is reset
+ * @param outagePeriod length of the outage cycle in calls (0 disables outages)
+ * @param outageLength number of calls at the end of each cycle that fail
+ * @see MockChatLlm#setTransportFaultProfile(TransportFaultProfile)
+ */
+public record TransportFaultProfile(
+        double rateLimitRate,
+        double burstEntryRate,
+        double burstExitRate,
+        double burstRateLimitRate,
+        double timeoutRate,
+        Duration timeoutDelay,
+        double connectionResetRate,
+        int outagePeriod,
+        int outageLength
+) {
+
+    private static final TransportFaultProfile NONE = builder().build();
+
+    /**
+     * The kinds of transport fault a profile can inject.
+     */
+    public enum Fault {
+        /** HTTP 429 - the provider refused the request. */
+        RATE_LIMITED,
+        /** The request did not complete within the client timeout. */
+        TIMEOUT,
+        /** The connection dropped before a response arrived. */
+        CONNECTION_RESET,
+        /** HTTP 503 - the provider is unavailable. */
+        OUTAGE
+    }
+
+    /**
+     * Compact constructor that validates rates and windows.
+     */
+    public TransportFaultProfile {
+        requireProbability("rateLimitRate", rateLimitRate);
+        requireProbability("burstEntryRate", burstEntryRate);
+        requireProbability("burstExitRate", burstExitRate);
+        requireProbability("burstRateLimitRate", burstRateLimitRate);
+        requireProbability("timeoutRate", timeoutRate);
+        requireProbability("connectionResetRate", connectionResetRate);
+        if (timeoutDelay == null || timeoutDelay.isNegative()) {
+            throw new IllegalArgumentException("timeoutDelay must be zero or positive");
+        }
+        if (outagePeriod < 0 || outageLength < 0 || outageLength > outagePeriod) {
+            throw new IllegalArgumentException(
+                    "Outage window must satisfy 0 <= outageLength <= outagePeriod, got %d of %d"
+                            .formatted(outageLength, outagePeriod));
+        }
+    }
+
+    /**
+     * Returns a profile that injects no faults.
+     *
+     * @return the fault-free profile
+     */
+    public static TransportFaultProfile none() {
+        return NONE;
+    }
+
+    /**
+     * Returns a profile resembling a busy shared endpoint: occasional 429s,
+     * punctuated by bursts in which most calls are rejected.
+     *
+     * @return a bursty rate-limiting profile
+     */
+    public static TransportFaultProfile rateLimitStorm() {
+        return builder()
+                .rateLimitRate(0.01)
+                .rateLimitBursts(0.02, 0.25, 0.8)
+                .build();
+    }
+
+    /**
+     * Returns a profile resembling an unreliable network path: rare
+     * connection resets and timeouts, and a brief outage every thousand calls.
+     *
+     * @return a flaky-network profile
+     */
+    public static TransportFaultProfile flakyNetwork() {
+        return builder()
+                .timeouts(0.002, Duration.ofMillis(100))
+                .connectionResetRate(0.003)
+                .outages(1000, 10)
+                .build();
+    }
+
+    /**
+     * Returns a new builder with every fault disabled.
+     *
+     * @return a profile builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns true if this profile can inject any fault.
+     *
+     * @return true unless every rate is zero and outages are disabled
+     */
+    public boolean injectsFaults() {
+        return rateLimitRate > 0 || burstEntryRate > 0 || timeoutRate > 0
+                || connectionResetRate > 0 || outageLength > 0;
+    }
+
+    private static void requireProbability(String name, double value) {
+        if (!(value >= 0.0 && value <= 1.0)) {
+            throw new IllegalArgumentException(name + " must be in [0, 1], got " + value);
+        }
+    }
+
+    /**
+     * Builder for {@link TransportFaultProfile}.
+     */
+    public static final class Builder {
+
+        private double rateLimitRate;
+        private double burstEntryRate;
+        private double burstExitRate = 1.0;
+        private double burstRateLimitRate;
+        private double timeoutRate;
+        private Duration timeoutDelay = Duration.ZERO;
+        private double connectionResetRate;
+        private int outagePeriod;
+        private int outageLength;
+
+        private Builder() {
+        }
+
+        /**
+         * Rate-limits each call independently with the given probability.
+         *
+         * @param rate probability of a 429 per call
+         * @return this builder
+         */
+        public Builder rateLimitRate(double rate) {
+            this.rateLimitRate = rate;
+            return this;
+        }
+
+        /**
+         * Adds bursty rate limiting. Each call outside a burst starts one with
+         * probability {@code entryRate}; each call inside a burst ends it with
+         * probability {@code exitRate}, so bursts last {@code 1 / exitRate}
+         * calls on average. Calls inside a burst are rate-limited with
+         * probability {@code rateInBurst}.
+         *
+         * @param entryRate probability of entering a burst
+         * @param exitRate probability of leaving a burst
+         * @param rateInBurst probability of a 429 while in a burst
+         * @return this builder
+         */
+        public Builder rateLimitBursts(double entryRate, double exitRate, double rateInBurst) {
+            this.burstEntryRate = entryRate;
+            this.burstExitRate = exitRate;
+            this.burstRateLimitRate = rateInBurst;
+            return this;
+        }
+
+        /**
+         * Times out calls with the given probability, after blocking for
+         * {@code delay}.
+         *
+         * @param rate probability of a timeout per call
+         * @param delay how long the call blocks before failing
+         * @return this builder
+         */
+        public Builder timeouts(double rate, Duration delay) {
+            this.timeoutRate = rate;
+            this.timeoutDelay = delay;
+            return this;
+        }
+
+        /**
+         * Resets the connection of each call with the given probability.
+         *
+         * @param rate probability of a connection reset per call
+         * @return this builder
+         */
+        public Builder connectionResetRate(double rate) {
+            this.connectionResetRate = rate;
+            return this;
+        }
+
+        /**
+         * Adds recurring outage windows: of every {@code period} calls, the
+         * last {@code length} fail with HTTP 503.
+         *
+         * @param period length of the outage cycle in calls
+         * @param length number of failing calls per cycle
+         * @return this builder
+         */
+        public Builder outages(int period, int length) {
+            this.outagePeriod = period;
+            this.outageLength = length;
+            return this;
+        }
+
+        /**
+         * Builds the profile.
+         *
+         * @return the configured profile
+         * @throws IllegalArgumentException if a rate or window is out of range
+         */
+        public TransportFaultProfile build() {
+            return new TransportFaultProfile(
+                    rateLimitRate, burstEntryRate, burstExitRate, burstRateLimitRate,
+                    timeoutRate, timeoutDelay, connectionResetRate, outagePeriod, outageLength);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.javai.punit.examples.app.llm;
+
+/**
+ * {@link Tokenizer} that approximates token counts from the number of
+ * whitespace-separated words.
+ *
+ * <p>Real tokenizers (tiktoken, etc.) produce ~1.3 tokens per word on average
+ * for English text. This tokenizer counts words in a single scan over the
+ * characters - no regex, no intermediate arrays - and scales by a configurable
+ * tokens-per-word ratio. It is the fallback when accuracy matters less than
+ * cost, or when no BPE vocabulary is available.
+ *
+ * @see BpeTokenizer
+ */
+public final class WhitespaceTokenizer implements Tokenizer {
+
+    /** Approximate tokens per word (GPT-style tokenization) */
+    public static final double DEFAULT_TOKENS_PER_WORD = 1.3;
+
+    private final double tokensPerWord;
+
+    /**
+     * Creates a tokenizer using {@link #DEFAULT_TOKENS_PER_WORD}.
+     */
+    public WhitespaceTokenizer() {
+        this(DEFAULT_TOKENS_PER_WORD);
+    }
+
+    /**
+     * Creates a tokenizer with the given tokens-per-word ratio.
+     *
+     * @param tokensPerWord the number of tokens each word is assumed to occupy
+     * @throws IllegalArgumentException if the ratio is not positive
+     */
+    public WhitespaceTokenizer(double tokensPerWord) {
+        if (!(tokensPerWord > 0)) {
+            throw new IllegalArgumentException("tokensPerWord must be positive, got " + tokensPerWord);
+        }
+        this.tokensPerWord = tokensPerWord;
+    }
+
+    @Override
+    public int countTokens(String text) {
+        int words = countWords(text);
+        return words == 0 ? 0 : (int) Math.ceil(words * tokensPerWord);
+    }
+
+    /**
+     * Counts whitespace-separated words without allocating.
+     *
+     * @param text the text to scan (may be null)
+     * @return the number of words
+     */
+    static int countWords(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            boolean whitespace = Character.isWhitespace(text.charAt(i));
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+        }
+        return words;
+    }
+}
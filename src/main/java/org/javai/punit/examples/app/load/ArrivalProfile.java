@@ -0,0 +1,160 @@
+package org.javai.punit.examples.app.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The arrival rate an {@link OpenLoopDriver} issues requests at, over time.
+ *
+ * <p>A profile is a sequence of stages, each holding its rate constant or
+ * ramping it linearly from one rate to another. Stages are joined with
+ * {@link #then(ArrivalProfile)}:
+ *
+ * <pre>{@code
+ * ArrivalProfile profile = ArrivalProfile.ramp(0, 200, Duration.ofSeconds(10))
+ *         .then(ArrivalProfile.constant(200, Duration.ofSeconds(60)));
+ * }</pre>
+ *
+ * <p>Arrivals are spaced so that by any moment the number issued matches the
+ * area under the rate curve so far; the <i>n</i>th arrival is due when that
+ * area first reaches <i>n</i>. The schedule is fixed in advance and does not
+ * depend on how quickly requests complete.
+ */
+public final class ArrivalProfile {
+
+    private final List<Stage> stages;
+
+    private ArrivalProfile(List<Stage> stages) {
+        this.stages = List.copyOf(stages);
+    }
+
+    /**
+     * Returns a profile holding one rate for a time.
+     *
+     * @param perSecond the arrival rate, in requests per second
+     * @param duration how long to hold it
+     * @return the profile
+     * @throws IllegalArgumentException if the rate is negative or the duration not positive
+     */
+    public static ArrivalProfile constant(double perSecond, Duration duration) {
+        return ramp(perSecond, perSecond, duration);
+    }
+
+    /**
+     * Returns a profile moving linearly from one rate to another.
+     *
+     * @param fromPerSecond the arrival rate at the start, in requests per second
+     * @param toPerSecond the arrival rate at the end, in requests per second
+     * @param duration how long the ramp takes
+     * @return the profile
+     * @throws IllegalArgumentException if a rate is negative or the duration not positive
+     */
+    public static ArrivalProfile ramp(double fromPerSecond, double toPerSecond, Duration duration) {
+        if (!(fromPerSecond >= 0) || !(toPerSecond >= 0)) {
+            throw new IllegalArgumentException(
+                    "rates must not be negative, got " + fromPerSecond + " and " + toPerSecond);
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("duration must be positive, got " + duration);
+        }
+        return new ArrivalProfile(List.of(new Stage(fromPerSecond, toPerSecond, duration.toNanos() / 1e9)));
+    }
+
+    /**
+     * Returns a profile that runs this one and then another.
+     *
+     * @param next the profile to run once this one ends
+     * @return the combined profile
+     */
+    public ArrivalProfile then(ArrivalProfile next) {
+        List<Stage> combined = new ArrayList<>(stages);
+        combined.addAll(next.stages);
+        return new ArrivalProfile(combined);
+    }
+
+    /**
+     * Returns how long the profile runs.
+     *
+     * @return the total duration
+     */
+    public Duration duration() {
+        double seconds = 0;
+        for (Stage stage : stages) {
+            seconds += stage.seconds();
+        }
+        return Duration.ofNanos(Math.round(seconds * 1e9));
+    }
+
+    /**
+     * Returns the number of requests the profile issues.
+     *
+     * @return the arrival count
+     */
+    public long arrivals() {
+        return (long) Math.floor(expectedArrivals());
+    }
+
+    /**
+     * Returns the mean arrival rate over the whole profile.
+     *
+     * @return requests per second
+     */
+    public double meanRate() {
+        double seconds = duration().toNanos() / 1e9;
+        return expectedArrivals() / seconds;
+    }
+
+    /**
+     * Returns when the given arrival is due, measured from the start of the
+     * profile.
+     *
+     * @param arrival the arrival, counting from 1
+     * @return its offset in nanoseconds, or -1 if the profile ends first
+     */
+    long offsetNanos(long arrival) {
+        double before = 0;
+        double start = 0;
+        for (Stage stage : stages) {
+            double within = arrival - before;
+            if (within <= stage.arrivals()) {
+                return Math.round((start + stage.timeOf(within)) * 1e9);
+            }
+            before += stage.arrivals();
+            start += stage.seconds();
+        }
+        return -1;
+    }
+
+    private double expectedArrivals() {
+        double arrivals = 0;
+        for (Stage stage : stages) {
+            arrivals += stage.arrivals();
+        }
+        return arrivals;
+    }
+
+    /**
+     * A stretch of time over which the rate moves linearly.
+     */
+    private record Stage(double fromPerSecond, double toPerSecond, double seconds) {
+
+        double arrivals() {
+            return (fromPerSecond + toPerSecond) / 2 * seconds;
+        }
+
+        /**
+         * Solves {@code from t + slope t^2 / 2 = n} for the time {@code t} at
+         * which the {@code n}th arrival of the stage is due.
+         */
+        double timeOf(double n) {
+            double slope = (toPerSecond - fromPerSecond) / seconds;
+            if (slope == 0) {
+                return n / fromPerSecond;
+            }
+            // Clamped, as rounding can take a falling ramp's last arrival just below zero
+            double root = Math.sqrt(Math.max(0, fromPerSecond * fromPerSecond + 2 * slope * n));
+            return (root - fromPerSecond) / slope;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.javai.punit.examples.app.load;
+
+import java.time.Duration;
+import org.javai.punit.examples.app.latency.LatencySnapshot;
+
+/**
+ * What an {@link OpenLoopDriver} run issued and observed.
+ *
+ * <p>{@link #latency()} is measured from each request's intended start, so
+ * it includes any time the request spent waiting to be issued or queued
+ * behind others - the delay a user arriving on schedule would see.
+ * {@link #serviceTime()} is measured from when the request was actually
+ * issued; the gap between the two is the queueing delay a closed-loop
+ * measurement would omit.
+ *
+ * @param targetRate the profile's mean arrival rate, in requests per second
+ * @param achievedRate the rate requests were actually issued at, in requests per second
+ * @param issued requests issued
+ * @param completed requests that completed normally
+ * @param failed requests that completed exceptionally
+ * @param maxIssueLag the longest any request was issued after its intended start
+ * @param latency completion latency from intended start, for completed requests
+ * @param serviceTime completion latency from actual issue, for completed requests
+ */
+public record LoadReport(
+        double targetRate,
+        double achievedRate,
+        long issued,
+        long completed,
+        long failed,
+        Duration maxIssueLag,
+        LatencySnapshot latency,
+        LatencySnapshot serviceTime
+) {
+    /**
+     * Returns whether the driver issued requests as fast as the profile
+     * asked, to within the given fraction.
+     *
+     * @param tolerance the shortfall allowed, e.g. 0.05 for 5%
+     * @return true if the achieved rate is within tolerance of the target
+     */
+    public boolean keptPace(double tolerance) {
+        return achievedRate >= targetRate * (1 - tolerance);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport[target=%.1f/s, achieved=%.1f/s, issued=%d, completed=%d, failed=%d, maxIssueLag=%s, latency=%s, serviceTime=%s]"
+                .formatted(targetRate, achievedRate, issued, completed, failed, maxIssueLag, latency, serviceTime);
+    }
+}
@@ -0,0 +1,124 @@
+package org.javai.punit.examples.app.load;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+import org.javai.punit.examples.app.latency.LatencyRecorder;
+
+/**
+ * Issues requests at the rate an {@link ArrivalProfile} sets, whether or not
+ * earlier requests have completed.
+ *
+ * <p>A closed loop - one request after another - slows down when the system
+ * does, so it never sees the queue a slow system builds in front of users
+ * who keep arriving; and it measures each request from when it was sent, so
+ * the time it spent waiting to be sent is omitted. The open loop here keeps
+ * to its schedule instead, and times each request from when it was due. If
+ * the driver itself falls behind, the lag counts against the requests it
+ * delays, and shows in {@link LoadReport#achievedRate()} and
+ * {@link LoadReport#maxIssueLag()}.
+ *
+ * <p>Requests are issued from the calling thread, so each must return at
+ * once with a future that completes later; a blocking call should be
+ * wrapped to run elsewhere. {@link #run} returns once the profile has ended
+ * and every request issued has completed. The driver runs in real time.
+ *
+ * <pre>{@code
+ * LoadReport report = new OpenLoopDriver(ArrivalProfile.constant(200, Duration.ofSeconds(30)))
+ *         .run(n -> gateway.chargeAsync("tok_visa_4242", 1999));
+ * Duration p99 = report.latency().percentile(99);
+ * }</pre>
+ */
+public final class OpenLoopDriver {
+
+    // Parking is imprecise at this range; spin the last stretch instead
+    private static final long SPIN_NANOS = Duration.ofMillis(1).toNanos();
+
+    private final ArrivalProfile profile;
+
+    /**
+     * Creates a driver for the given profile.
+     *
+     * @param profile when requests are to be issued
+     */
+    public OpenLoopDriver(ArrivalProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Issues the profile's requests and waits for them to complete.
+     *
+     * @param request issues the request with the given index, counting from 0,
+     *        and returns a future completed when it completes
+     * @return what was issued and observed
+     */
+    public LoadReport run(LongFunction<? extends CompletableFuture<?>> request) {
+        LatencyRecorder latency = new LatencyRecorder();
+        LatencyRecorder serviceTime = new LatencyRecorder();
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+        long maxIssueLag = 0;
+        long issued = 0;
+
+        long start = System.nanoTime();
+        for (long offset; (offset = profile.offsetNanos(issued + 1)) >= 0; issued++) {
+            long intended = start + offset;
+            awaitUntil(intended);
+            long issuedAt = System.nanoTime();
+            maxIssueLag = Math.max(maxIssueLag, issuedAt - intended);
+
+            CompletableFuture<?> recorded = issue(request, issued).whenComplete((result, failure) -> {
+                long now = System.nanoTime();
+                if (failure == null) {
+                    latency.record(now - intended);
+                    serviceTime.record(now - issuedAt);
+                    completed.increment();
+                } else {
+                    failed.increment();
+                }
+            });
+            // Wait on the recording, not the request, so no completion is missed
+            inFlight.add(recorded);
+            recorded.whenComplete((result, failure) -> inFlight.remove(recorded));
+        }
+        long issuing = Math.max(System.nanoTime() - start, profile.duration().toNanos());
+
+        // Failures are counted above; here we only wait for them
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                .exceptionally(failure -> null)
+                .join();
+
+        return new LoadReport(
+                profile.meanRate(),
+                issued / (issuing / 1e9),
+                issued,
+                completed.sum(),
+                failed.sum(),
+                Duration.ofNanos(maxIssueLag),
+                latency.snapshot(),
+                serviceTime.snapshot());
+    }
+
+    private static CompletableFuture<?> issue(LongFunction<? extends CompletableFuture<?>> request, long index) {
+        try {
+            return request.apply(index);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void awaitUntil(long deadline) {
+        for (long remaining; (remaining = deadline - System.nanoTime()) > 0; ) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
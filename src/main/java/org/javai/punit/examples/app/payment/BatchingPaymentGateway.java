@@ -0,0 +1,172 @@
+package org.javai.punit.examples.app.payment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PaymentGateway} decorator that gathers concurrent single charges
+ * into batches for its delegate's {@link PaymentGateway#chargeAll}.
+ *
+ * <p>Callers keep the one-charge API, and each gets its own result back, but
+ * the delegate sees one round trip per batch. The first charge to arrive
+ * opens a batch and waits up to the linger time for others to join; the batch
+ * is sent as soon as it is full or the linger time is up, on the opening
+ * caller's thread. A caller's charge therefore takes as long as its batch's
+ * wait and round trip, which is the per-charge latency a batching client
+ * would see.
+ *
+ * <p>Batches only fill when charges are made concurrently; charges made one
+ * at a time each wait out the linger time and go alone.
+ *
+ * <p>An asynchronous charge joins a batch from a virtual thread, through the
+ * default {@link PaymentGateway#chargeAsync}. Keyed charges and explicit
+ * batches pass straight through to the delegate.
+ */
+public final class BatchingPaymentGateway implements PaymentGateway {
+
+    /** Default time an open batch waits for more charges. */
+    public static final Duration DEFAULT_LINGER = Duration.ofMillis(5);
+
+    private final PaymentGateway delegate;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private Batch open;
+
+    /**
+     * Creates a batching gateway that waits up to {@link #DEFAULT_LINGER}
+     * for a batch to fill.
+     *
+     * @param delegate the gateway that settles the batches
+     * @param maxBatchSize the most charges sent in one batch
+     */
+    public BatchingPaymentGateway(PaymentGateway delegate, int maxBatchSize) {
+        this(delegate, maxBatchSize, DEFAULT_LINGER);
+    }
+
+    /**
+     * Creates a batching gateway.
+     *
+     * @param delegate the gateway that settles the batches
+     * @param maxBatchSize the most charges sent in one batch
+     * @param linger how long an open batch waits for more charges
+     * @throws IllegalArgumentException if {@code maxBatchSize} is not positive
+     *         or {@code linger} is negative
+     */
+    public BatchingPaymentGateway(PaymentGateway delegate, int maxBatchSize, Duration linger) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive, got " + maxBatchSize);
+        }
+        if (linger.isNegative()) {
+            throw new IllegalArgumentException("linger must not be negative, got " + linger);
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = linger.toNanos();
+    }
+
+    @Override
+    public PaymentResult charge(String cardToken, long amountCents) {
+        CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+        Batch batch;
+        boolean opened = false;
+        synchronized (this) {
+            batch = open;
+            if (batch == null) {
+                batch = new Batch(maxBatchSize);
+                open = batch;
+                opened = true;
+            }
+            batch.add(new ChargeRequest(cardToken, amountCents), result);
+            if (batch.isFull()) {
+                open = null;
+            }
+        }
+        if (opened) {
+            batch.awaitFull(lingerNanos);
+            synchronized (this) {
+                if (open == batch) {
+                    open = null;
+                }
+            }
+            batch.send(delegate);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Rethrow the delegate's own exception to every caller in the batch
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public PaymentResult charge(String idempotencyKey, String cardToken, long amountCents) {
+        return delegate.charge(idempotencyKey, cardToken, amountCents);
+    }
+
+    @Override
+    public List<PaymentResult> chargeAll(List<ChargeRequest> charges) {
+        return delegate.chargeAll(charges);
+    }
+
+    /**
+     * Charges gathered for one round trip, and the callers waiting on them.
+     * Charges are only added while the batch is open, under the gateway's lock.
+     */
+    private static final class Batch {
+
+        private final List<ChargeRequest> charges;
+        private final List<CompletableFuture<PaymentResult>> results;
+        private final int capacity;
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        Batch(int capacity) {
+            this.capacity = capacity;
+            this.charges = new ArrayList<>(capacity);
+            this.results = new ArrayList<>(capacity);
+        }
+
+        void add(ChargeRequest charge, CompletableFuture<PaymentResult> result) {
+            charges.add(charge);
+            results.add(result);
+            if (charges.size() == capacity) {
+                full.countDown();
+            }
+        }
+
+        boolean isFull() {
+            return charges.size() == capacity;
+        }
+
+        void awaitFull(long timeoutNanos) {
+            try {
+                full.await(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void send(PaymentGateway gateway) {
+            try {
+                List<PaymentResult> settled = gateway.chargeAll(charges);
+                for (int i = 0; i < results.size(); i++) {
+                    results.get(i).complete(settled.get(i));
+                }
+            } catch (RuntimeException | Error e) {
+                for (CompletableFuture<PaymentResult> result : results) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+}
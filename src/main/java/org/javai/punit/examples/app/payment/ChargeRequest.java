@@ -0,0 +1,9 @@
+package org.javai.punit.examples.app.payment;
+
+/**
+ * One charge in a batch submitted through {@link PaymentGateway#chargeAll}.
+ *
+ * @param cardToken the tokenized card reference
+ * @param amountCents the amount to charge in cents
+ */
+public record ChargeRequest(String cardToken, long amountCents) { }
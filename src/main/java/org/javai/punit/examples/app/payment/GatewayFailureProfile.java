@@ -0,0 +1,265 @@
+package org.javai.punit.examples.app.payment;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Describes how {@link MockPaymentGateway}'s charges fail and how long they
+ * take.
+ *
+ * <p>The {@link #standard()} profile fails each charge independently at a
+ * fixed rate. Real gateways fail in clusters, which independent failures
+ * never reproduce, so a profile can also add:
+ * <ul>
+ *   <li><b>Outages</b> - a two-state Markov chain stepped once per charge.
+ *       Outside an outage, each charge starts one with probability
+ *       {@code outageEntryRate}; inside, each ends it with probability
+ *       {@code outageExitRate}, so outages last {@code 1 / outageExitRate}
+ *       charges on average. Charges in an outage fail with
+ *       {@code NETWORK_ERROR} at {@code outageFailureRate} and take
+ *       {@code outageLatencyFactor} times as long.</li>
+ *   <li><b>Card network degradation</b> - a failure rate per card network,
+ *       read from the token ({@code "amex"} for {@code tok_amex_3782}),
+ *       used for that network's charges in place of {@code failureRate}.</li>
+ *   <li><b>Latency spikes</b> - at {@code spikeRate}, a charge takes a
+ *       uniformly drawn 200ms to {@code spikeLatency} instead of 50-200ms.</li>
+ *   <li><b>Timeouts</b> - a charge whose latency reaches
+ *       {@code timeoutAfter} fails with {@code TIMEOUT} at that moment, so
+ *       timeouts follow latency: they cluster in spikes and outages.</li>
+ * </ul>
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * GatewayFailureProfile profile = GatewayFailureProfile.builder()
+ *         .failureRate(0.0003)
+ *         .outages(0.0005, 0.02, 0.3, 4.0)
+ *         .networkFailureRate("amex", 0.01)
+ *         .timeoutAfter(Duration.ofMillis(500))
+ *         .build();
+ *
+ * MockPaymentGateway.instance().setFailureProfile(profile);
+ * }</pre>
+ *
+ * @param failureRate probability that a charge fails, outside an outage
+ * @param networkFailureRates failure rates that replace {@code failureRate} for named card networks
+ * @param outageEntryRate probability that a charge outside an outage starts one
+ * @param outageExitRate probability that a charge inside an outage ends it
+ * @param outageFailureRate probability that a charge inside an outage fails
+ * @param outageLatencyFactor how many times longer charges take inside an outage
+ * @param spikeRate probability that a charge's latency spikes
+ * @param spikeLatency the longest a spiking charge takes
+ * @param timeoutAfter latency at which a charge times out ({@link Duration#ZERO} disables timeouts)
+ * @see MockPaymentGateway#setFailureProfile(GatewayFailureProfile)
+ */
+public record GatewayFailureProfile(
+        double failureRate,
+        Map<String, Double> networkFailureRates,
+        double outageEntryRate,
+        double outageExitRate,
+        double outageFailureRate,
+        double outageLatencyFactor,
+        double spikeRate,
+        Duration spikeLatency,
+        Duration timeoutAfter
+) {
+
+    /** The latency a spike starts from. */
+    static final Duration SPIKE_FLOOR = Duration.ofMillis(200);
+
+    private static final GatewayFailureProfile STANDARD = builder().failureRate(0.0003).build();
+
+    /**
+     * Compact constructor that validates rates and latencies.
+     */
+    public GatewayFailureProfile {
+        requireProbability("failureRate", failureRate);
+        networkFailureRates = Map.copyOf(networkFailureRates);
+        networkFailureRates.forEach((network, rate) -> requireProbability("failure rate for " + network, rate));
+        requireProbability("outageEntryRate", outageEntryRate);
+        requireProbability("outageExitRate", outageExitRate);
+        requireProbability("outageFailureRate", outageFailureRate);
+        requireProbability("spikeRate", spikeRate);
+        if (!(outageLatencyFactor >= 1.0)) {
+            throw new IllegalArgumentException("outageLatencyFactor must be at least 1, got " + outageLatencyFactor);
+        }
+        if (spikeRate > 0 && spikeLatency.compareTo(SPIKE_FLOOR) < 0) {
+            throw new IllegalArgumentException("spikeLatency must be at least " + SPIKE_FLOOR + ", got " + spikeLatency);
+        }
+        if (timeoutAfter.isNegative()) {
+            throw new IllegalArgumentException("timeoutAfter must not be negative, got " + timeoutAfter);
+        }
+    }
+
+    /**
+     * Returns the default profile: independent failures at about 0.03%,
+     * slightly worse than the 99.99% SLA.
+     *
+     * @return the standard profile
+     */
+    public static GatewayFailureProfile standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Returns a profile with the standard failure rate between outages. An
+     * outage starts about once per 2,000 charges and lasts about 50; in it,
+     * charges take three times as long, so many reach the 400ms timeout, and
+     * a further 20% fail outright.
+     *
+     * @return a clustered-outage profile
+     */
+    public static GatewayFailureProfile clusteredOutages() {
+        return builder()
+                .failureRate(0.0003)
+                .outages(0.0005, 0.02, 0.2, 3.0)
+                .timeoutAfter(Duration.ofMillis(400))
+                .build();
+    }
+
+    /**
+     * Returns a new builder with every failure disabled.
+     *
+     * @return a profile builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns true if this profile has outages, whose state is shared by
+     * every charge.
+     *
+     * @return true if outages can start
+     */
+    public boolean hasOutages() {
+        return outageEntryRate > 0;
+    }
+
+    /**
+     * Returns the failure rate for a charge outside an outage.
+     *
+     * @param cardToken the card the charge is made on
+     * @return its network's rate if one is set, otherwise {@code failureRate}
+     */
+    double failureRateFor(String cardToken) {
+        if (networkFailureRates.isEmpty()) {
+            return failureRate;
+        }
+        return networkFailureRates.getOrDefault(cardNetwork(cardToken), failureRate);
+    }
+
+    /**
+     * Returns the network a card token names: the part between its first
+     * and second underscores, or the empty string if it has none.
+     */
+    static String cardNetwork(String cardToken) {
+        int start = cardToken.indexOf('_') + 1;
+        int end = cardToken.indexOf('_', start);
+        return start > 0 && end > start ? cardToken.substring(start, end) : "";
+    }
+
+    private static void requireProbability(String name, double value) {
+        if (!(value >= 0.0 && value <= 1.0)) {
+            throw new IllegalArgumentException(name + " must be in [0, 1], got " + value);
+        }
+    }
+
+    /**
+     * Builder for {@link GatewayFailureProfile}.
+     */
+    public static final class Builder {
+
+        private double failureRate;
+        private final Map<String, Double> networkFailureRates = new LinkedHashMap<>();
+        private double outageEntryRate;
+        private double outageExitRate = 1.0;
+        private double outageFailureRate;
+        private double outageLatencyFactor = 1.0;
+        private double spikeRate;
+        private Duration spikeLatency = SPIKE_FLOOR;
+        private Duration timeoutAfter = Duration.ZERO;
+
+        private Builder() {
+        }
+
+        /**
+         * Fails each charge outside an outage with the given probability.
+         *
+         * @param rate probability of a failure per charge
+         * @return this builder
+         */
+        public Builder failureRate(double rate) {
+            this.failureRate = rate;
+            return this;
+        }
+
+        /**
+         * Fails charges on one card network at their own rate, in place of
+         * {@link #failureRate(double)}.
+         *
+         * @param network the network, as named in card tokens (e.g. {@code "amex"})
+         * @param rate probability of a failure per charge on that network
+         * @return this builder
+         */
+        public Builder networkFailureRate(String network, double rate) {
+            this.networkFailureRates.put(network, rate);
+            return this;
+        }
+
+        /**
+         * Adds Markov-modulated outages.
+         *
+         * @param entryRate probability that a charge outside an outage starts one
+         * @param exitRate probability that a charge inside an outage ends it
+         * @param failureRate probability that a charge inside an outage fails
+         * @param latencyFactor how many times longer charges take inside an outage
+         * @return this builder
+         */
+        public Builder outages(double entryRate, double exitRate, double failureRate, double latencyFactor) {
+            this.outageEntryRate = entryRate;
+            this.outageExitRate = exitRate;
+            this.outageFailureRate = failureRate;
+            this.outageLatencyFactor = latencyFactor;
+            return this;
+        }
+
+        /**
+         * Makes charges' latency spike with the given probability, to
+         * between 200ms and {@code maxLatency}.
+         *
+         * @param rate probability of a spike per charge
+         * @param maxLatency the longest a spiking charge takes
+         * @return this builder
+         */
+        public Builder latencySpikes(double rate, Duration maxLatency) {
+            this.spikeRate = rate;
+            this.spikeLatency = maxLatency;
+            return this;
+        }
+
+        /**
+         * Fails charges whose latency reaches {@code after} with
+         * {@code TIMEOUT}, at that latency.
+         *
+         * @param after the client's timeout
+         * @return this builder
+         */
+        public Builder timeoutAfter(Duration after) {
+            this.timeoutAfter = after;
+            return this;
+        }
+
+        /**
+         * Builds the profile.
+         *
+         * @return the configured profile
+         * @throws IllegalArgumentException if a rate or latency is out of range
+         */
+        public GatewayFailureProfile build() {
+            return new GatewayFailureProfile(
+                    failureRate, networkFailureRates, outageEntryRate, outageExitRate,
+                    outageFailureRate, outageLatencyFactor, spikeRate, spikeLatency, timeoutAfter);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package org.javai.punit.examples.app.payment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link PaymentGateway} that charges over HTTP, on one shared keep-alive
+ * {@link HttpClient}.
+ *
+ * <h2>Protocol</h2>
+ * <ul>
+ *   <li>{@code POST /charges} with a {@link ChargeRequest} as JSON answers
+ *       a {@link PaymentResult} as JSON; a keyed charge sends its key in the
+ *       {@value #IDEMPOTENCY_KEY_HEADER} header</li>
+ *   <li>{@code POST /charges/batch} with a JSON array of requests answers
+ *       an array of results, in the same order</li>
+ *   <li>{@code GET /health} answers 204, and is used to warm connections</li>
+ * </ul>
+ * <p>{@link StubPaymentGatewayServer} serves this protocol locally.
+ *
+ * <h2>Connections</h2>
+ * <p>Every charge goes through the same client, so connections are kept
+ * alive and reused rather than opened per charge. Over HTTP/2 (the default,
+ * negotiated with HTTPS gateways) concurrent charges are multiplexed as
+ * streams on one connection; over HTTP/1.1 the client pools one connection
+ * per concurrent charge. The JDK's {@code jdk.httpclient.keepalive.timeout}
+ * and {@code jdk.httpclient.connectionPoolSize} system properties tune how
+ * long and how many idle connections are kept. Several gateways can share
+ * one pool by being built with the same client.
+ *
+ * <p>A new connection pays for its TCP and TLS handshakes on its first
+ * charge, which inflates that charge's latency. {@link Builder#build()}
+ * therefore makes {@link Builder#prewarmConnections(int) a few} concurrent
+ * health checks up front, so the first charges find their connections warm.
+ * Over HTTP/1.1 each check opens a connection of its own; over HTTP/2 they
+ * multiplex on the one connection the gateway needs.
+ *
+ * <p>{@link #close()} closes the client the gateway built, and with it the
+ * pooled connections; a client passed to {@link Builder#httpClient} is left
+ * open for its owner to close.
+ *
+ * <h2>Failures</h2>
+ * <p>Like every {@link PaymentGateway}, failures are results, not
+ * exceptions: a timed-out request is {@code TIMEOUT}, a connection failure
+ * {@code NETWORK_ERROR}, and an unexpected status or body
+ * {@value #GATEWAY_ERROR}. Charges are not retried, since an unkeyed charge
+ * that timed out may still have been made.
+ */
+public final class HttpPaymentGateway implements PaymentGateway, AutoCloseable {
+
+    /** Error code for a response the adapter could not understand. */
+    public static final String GATEWAY_ERROR = "GATEWAY_ERROR";
+
+    /** Header carrying a keyed charge's idempotency key. */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /** Default number of health checks made to warm connections before the first charge. */
+    public static final int DEFAULT_PREWARM_CONNECTIONS = 4;
+
+    /** Default time allowed for a request, and for connecting. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    static final String CHARGES_PATH = "/charges";
+    static final String BATCH_PATH = "/charges/batch";
+    static final String HEALTH_PATH = "/health";
+
+    private static final Logger LOG = Logger.getLogger(HttpPaymentGateway.class.getName());
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<PaymentResult>> RESULTS = new TypeReference<>() { };
+
+    private final URI chargesUri;
+    private final URI batchUri;
+    private final URI healthUri;
+    private final HttpClient client;
+    private final Duration timeout;
+    private final boolean ownsClient;
+    private volatile boolean warm;
+
+    private HttpPaymentGateway(URI baseUri, HttpClient client, boolean ownsClient, Duration timeout) {
+        String base = baseUri.toString().endsWith("/")
+                ? baseUri.toString().substring(0, baseUri.toString().length() - 1)
+                : baseUri.toString();
+        this.chargesUri = URI.create(base + CHARGES_PATH);
+        this.batchUri = URI.create(base + BATCH_PATH);
+        this.healthUri = URI.create(base + HEALTH_PATH);
+        this.client = client;
+        this.ownsClient = ownsClient;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns a builder for a gateway at the given base URI.
+     *
+     * @param baseUri the gateway's base URI, e.g. {@code https://payments.example.com/v1}
+     * @return a gateway builder
+     */
+    public static Builder builder(URI baseUri) {
+        return new Builder(baseUri);
+    }
+
+    @Override
+    public PaymentResult charge(String cardToken, long amountCents) {
+        return send(chargeRequest(null, cardToken, amountCents));
+    }
+
+    @Override
+    public PaymentResult charge(String idempotencyKey, String cardToken, long amountCents) {
+        return send(chargeRequest(idempotencyKey, cardToken, amountCents));
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> chargeAsync(String cardToken, long amountCents) {
+        return client.sendAsync(chargeRequest(null, cardToken, amountCents), HttpResponse.BodyHandlers.ofString())
+                .handle((response, failure) -> failure == null
+                        ? toResult(response)
+                        : transportFailure(failure));
+    }
+
+    @Override
+    public List<PaymentResult> chargeAll(List<ChargeRequest> charges) {
+        if (charges.isEmpty()) {
+            return List.of();
+        }
+        HttpRequest request = post(batchUri, json(charges)).build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            List<PaymentResult> results = response.statusCode() == 200 ? parse(response.body(), RESULTS) : null;
+            if (results != null && results.size() == charges.size()) {
+                return results;
+            }
+            return Collections.nCopies(charges.size(), PaymentResult.failure(GATEWAY_ERROR));
+        } catch (IOException | InterruptedException e) {
+            return Collections.nCopies(charges.size(), transportFailure(e));
+        }
+    }
+
+    /**
+     * Warms connections to the gateway ahead of the first charges, by making
+     * the given number of health checks at once. Over HTTP/1.1 that opens up
+     * to that many connections; over HTTP/2 the checks share one.
+     *
+     * @param checks the number of concurrent health checks
+     * @return the number of health checks that succeeded
+     */
+    public int prewarm(int checks) {
+        HttpRequest request = HttpRequest.newBuilder(healthUri).timeout(timeout).GET().build();
+        List<CompletableFuture<Boolean>> pending = new ArrayList<>(checks);
+        for (int i = 0; i < checks; i++) {
+            pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> failure == null && response.statusCode() < 300));
+        }
+        int warmed = 0;
+        for (CompletableFuture<Boolean> check : pending) {
+            warmed += check.join() ? 1 : 0;
+        }
+        if (warmed > 0) {
+            warm = true;
+        } else if (checks > 0) {
+            LOG.log(Level.WARNING, "Could not warm any connection to {0}", healthUri);
+        }
+        return warmed;
+    }
+
+    /**
+     * Returns whether connections to the gateway have been opened ahead of
+     * the charges.
+     *
+     * @return true once a prewarm has succeeded
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Closes the client this gateway built, waiting for charges in flight;
+     * a shared client is left open.
+     */
+    @Override
+    public void close() {
+        if (ownsClient) {
+            client.close();
+        }
+    }
+
+    private HttpRequest chargeRequest(String idempotencyKey, String cardToken, long amountCents) {
+        HttpRequest.Builder request = post(chargesUri, json(new ChargeRequest(cardToken, amountCents)));
+        if (idempotencyKey != null) {
+            request.header(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+        return request.build();
+    }
+
+    private HttpRequest.Builder post(URI uri, String body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private PaymentResult send(HttpRequest request) {
+        try {
+            return toResult(client.send(request, HttpResponse.BodyHandlers.ofString()));
+        } catch (IOException | InterruptedException e) {
+            return transportFailure(e);
+        }
+    }
+
+    private static PaymentResult toResult(HttpResponse<String> response) {
+        PaymentResult result = response.statusCode() == 200 ? parse(response.body(), PaymentResult.class) : null;
+        return result != null ? result : PaymentResult.failure(GATEWAY_ERROR);
+    }
+
+    private static PaymentResult transportFailure(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        return PaymentResult.failure(cause instanceof HttpTimeoutException ? "TIMEOUT" : "NETWORK_ERROR");
+    }
+
+    private static <T> T parse(String body, Class<T> type) {
+        try {
+            return MAPPER.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static <T> T parse(String body, TypeReference<T> type) {
+        try {
+            return MAPPER.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String json(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builder for {@link HttpPaymentGateway}.
+     */
+    public static final class Builder {
+
+        private final URI baseUri;
+        private Duration timeout = DEFAULT_TIMEOUT;
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private HttpClient client;
+        private int prewarmConnections = DEFAULT_PREWARM_CONNECTIONS;
+
+        private Builder(URI baseUri) {
+            this.baseUri = baseUri;
+        }
+
+        /**
+         * Sets how long a request, or opening a connection, may take.
+         *
+         * @param timeout the timeout
+         * @return this builder
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Sets the preferred HTTP version. HTTP/2, the default, multiplexes
+         * concurrent charges on one connection where the gateway supports it.
+         *
+         * @param version the HTTP version
+         * @return this builder
+         */
+        public Builder version(HttpClient.Version version) {
+            this.version = version;
+            return this;
+        }
+
+        /**
+         * Charges through the given client, sharing its connection pool,
+         * instead of building one. The client's own version and connect
+         * timeout then apply.
+         *
+         * @param client the client to share
+         * @return this builder
+         */
+        public Builder httpClient(HttpClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Sets how many concurrent health checks {@link #build()} makes to
+         * warm connections before returning: one connection each over
+         * HTTP/1.1, one in all over HTTP/2. Zero warms none.
+         *
+         * @param connections the number of health checks to make
+         * @return this builder
+         */
+        public Builder prewarmConnections(int connections) {
+            this.prewarmConnections = connections;
+            return this;
+        }
+
+        /**
+         * Builds the gateway, and warms its connections.
+         *
+         * @return the gateway
+         * @throws IllegalArgumentException if the timeout is not positive or
+         *         the number of connections to warm is negative
+         */
+        public HttpPaymentGateway build() {
+            if (timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("timeout must be positive, got " + timeout);
+            }
+            if (prewarmConnections < 0) {
+                throw new IllegalArgumentException("prewarmConnections must not be negative, got " + prewarmConnections);
+            }
+            HttpClient httpClient = client != null ? client : HttpClient.newBuilder()
+                    .version(version)
+                    .connectTimeout(timeout)
+                    .build();
+            HttpPaymentGateway gateway = new HttpPaymentGateway(baseUri, httpClient, client == null, timeout);
+            if (prewarmConnections > 0) {
+                gateway.prewarm(prewarmConnections);
+            }
+            return gateway;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.javai.punit.examples.app.payment;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link PaymentGateway} decorator that honours idempotency keys: a charge
+ * repeated with the key of an earlier one is answered with the earlier
+ * {@link PaymentResult}, and the card is charged once.
+ *
+ * <p>Keys are remembered in a bounded cache for a fixed time after the charge
+ * they name, as a real gateway keeps them. The cache is split into segments,
+ * chosen by key hash, each a small insertion-ordered map under its own lock,
+ * so charges with different keys rarely contend. A segment evicts its oldest
+ * keys when it is full and drops expired keys as it is used.
+ *
+ * <p>A key is claimed before the charge is made, so a duplicate arriving
+ * while the first attempt is still in flight waits for that attempt's result
+ * rather than charging again. If the first attempt throws, the key is
+ * released and a retry charges afresh. A key reused with a different card or
+ * amount is answered with an {@value #KEY_REUSED} failure, without charging.
+ *
+ * <p>Charges made without a key pass straight through to the delegate.
+ */
+public final class IdempotentPaymentGateway implements PaymentGateway {
+
+    /** Default number of keys remembered. */
+    public static final int DEFAULT_MAX_KEYS = 10_000;
+
+    /** Default time a key is remembered after its charge. */
+    public static final Duration DEFAULT_KEY_TTL = Duration.ofHours(24);
+
+    /** Error code for a key reused with a different card or amount. */
+    public static final String KEY_REUSED = "IDEMPOTENCY_KEY_REUSED";
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final PaymentGateway delegate;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Segment[] segments;
+    private final LongAdder charged = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+
+    /**
+     * Creates an idempotent gateway remembering up to
+     * {@value #DEFAULT_MAX_KEYS} keys for {@link #DEFAULT_KEY_TTL}.
+     *
+     * @param delegate the gateway that makes the charges
+     */
+    public IdempotentPaymentGateway(PaymentGateway delegate) {
+        this(delegate, DEFAULT_MAX_KEYS, DEFAULT_KEY_TTL);
+    }
+
+    /**
+     * Creates an idempotent gateway.
+     *
+     * @param delegate the gateway that makes the charges
+     * @param maxKeys the maximum number of keys to remember
+     * @param keyTtl how long a key is remembered after its charge
+     * @throws IllegalArgumentException if {@code maxKeys} or {@code keyTtl} is not positive
+     */
+    public IdempotentPaymentGateway(PaymentGateway delegate, int maxKeys, Duration keyTtl) {
+        this(delegate, maxKeys, keyTtl, System::nanoTime);
+    }
+
+    IdempotentPaymentGateway(PaymentGateway delegate, int maxKeys, Duration keyTtl, LongSupplier nanoClock) {
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("maxKeys must be positive, got " + maxKeys);
+        }
+        if (keyTtl.isNegative() || keyTtl.isZero()) {
+            throw new IllegalArgumentException("keyTtl must be positive, got " + keyTtl);
+        }
+        this.delegate = delegate;
+        this.ttlNanos = keyTtl.toNanos();
+        this.nanoClock = nanoClock;
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maxKeys));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder so the segment capacities sum to maxKeys
+            segments[i] = new Segment(maxKeys / count + (i < maxKeys % count ? 1 : 0));
+        }
+    }
+
+    @Override
+    public PaymentResult charge(String cardToken, long amountCents) {
+        return delegate.charge(cardToken, amountCents);
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> chargeAsync(String cardToken, long amountCents) {
+        return delegate.chargeAsync(cardToken, amountCents);
+    }
+
+    @Override
+    public PaymentResult charge(String idempotencyKey, String cardToken, long amountCents) {
+        Segment segment = segmentFor(idempotencyKey);
+        Entry claim = new Entry(cardToken, amountCents, nanoClock.getAsLong());
+        Entry existing = segment.claim(idempotencyKey, claim, ttlNanos);
+
+        if (existing != null) {
+            if (!existing.matches(cardToken, amountCents)) {
+                return PaymentResult.failure(KEY_REUSED);
+            }
+            try {
+                PaymentResult result = existing.result.join();
+                replayed.increment();
+                return result;
+            } catch (CompletionException e) {
+                // The first attempt failed and released the key; this one charges
+                return charge(idempotencyKey, cardToken, amountCents);
+            }
+        }
+
+        try {
+            PaymentResult result = delegate.charge(cardToken, amountCents);
+            charged.increment();
+            claim.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            segment.release(idempotencyKey, claim);
+            claim.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of keyed charges passed to the delegate.
+     *
+     * @return the charge count
+     */
+    public long chargeCount() {
+        return charged.sum();
+    }
+
+    /**
+     * Returns the number of keyed charges answered with an earlier result.
+     *
+     * @return the replay count
+     */
+    public long replayCount() {
+        return replayed.sum();
+    }
+
+    /**
+     * Returns the number of keys currently remembered, including any that
+     * have expired but not yet been dropped.
+     *
+     * @return the cache size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * A claimed key: the charge it names and, once made, its result.
+     */
+    private static final class Entry {
+
+        private final String cardToken;
+        private final long amountCents;
+        private final long createdNanos;
+        private final CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+
+        Entry(String cardToken, long amountCents, long createdNanos) {
+            this.cardToken = cardToken;
+            this.amountCents = amountCents;
+            this.createdNanos = createdNanos;
+        }
+
+        boolean matches(String cardToken, long amountCents) {
+            return this.amountCents == amountCents && this.cardToken.equals(cardToken);
+        }
+
+        boolean expired(long nowNanos, long ttlNanos) {
+            return nowNanos - createdNanos >= ttlNanos;
+        }
+    }
+
+    /**
+     * One lock's share of the keys, oldest first.
+     */
+    private static final class Segment {
+
+        private final Map<String, Entry> entries;
+
+        Segment(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        /**
+         * Claims a key for a new charge, or returns the live entry that
+         * already holds it.
+         */
+        synchronized Entry claim(String key, Entry claim, long ttlNanos) {
+            dropExpired(claim.createdNanos, ttlNanos);
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            entries.put(key, claim);
+            return null;
+        }
+
+        synchronized void release(String key, Entry claim) {
+            entries.remove(key, claim);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        // Keys are held oldest first, so expired keys are at the front
+        private void dropExpired(long nowNanos, long ttlNanos) {
+            Iterator<Entry> oldest = entries.values().iterator();
+            while (oldest.hasNext() && oldest.next().expired(nowNanos, ttlNanos)) {
+                oldest.remove();
+            }
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package org.javai.punit.examples.app.payment;
 
-import java.util.Random;
-import java.util.UUID;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * Mock implementation of {@link PaymentGateway} that simulates SLA-bound reliability.
@@ -18,6 +25,15 @@ import java.util.UUID;
  * <p>This intentional gap allows tests to detect when actual performance doesn't
  * meet the contractual SLA, which is the purpose of SLA-driven testing.
  *
+ * <h2>Failure Profiles</h2>
+ * <p>By default each charge fails independently, as
+ * {@link GatewayFailureProfile#standard()} describes. Install another
+ * profile via {@link #setFailureProfile(GatewayFailureProfile)} to make
+ * failures cluster as a real gateway's do: Markov-modulated outages,
+ * degraded card networks, and latency spikes that end in {@code TIMEOUT}.
+ * A test can then measure how soon early termination or an SLA check
+ * notices the degradation.
+ *
  * <h2>Error Codes</h2>
  * <p>When failures occur, they use realistic error codes:
  * <ul>
@@ -29,22 +45,51 @@ import java.util.UUID;
  *   <li>{@code FRAUD_SUSPECTED} - Transaction flagged as suspicious</li>
  * </ul>
  *
+ * <h2>Latency</h2>
+ * <p>Each charge takes 50-200ms. {@link #charge} sleeps for that long;
+ * {@link #chargeAsync} draws the same latency and outcome up front and
+ * completes its future on a timer when the latency has elapsed, so any
+ * number of charges can be in flight without a thread waiting on each.
+ *
+ * <p>A batch submitted through {@link #chargeAll} pays one round trip - a
+ * single 50-200ms draw - plus {@value #BATCH_ITEM_MICROS}µs per charge, the
+ * amortised cost of batch settlement. Each charge in it still draws its own
+ * outcome.
+ *
+ * <p>With a {@link SimulatedClock} installed via
+ * {@link #setSimulatedClock(SimulatedClock)}, neither waits: each charge
+ * advances the simulated clock by its latency and completes at once. Latency
+ * measured on {@link #clock()} is then as realistic as with real waits, and
+ * an SLA run finishes in milliseconds.
+ *
+ * <h2>Ledger</h2>
+ * <p>Install a {@link TransactionLedger} via
+ * {@link #setLedger(TransactionLedger)} to record every charge, with its
+ * simulated latency, off the heap; a soak run of millions of charges can
+ * then be reconciled afterwards without having kept their results. Recording
+ * never fails a charge: once the ledger is full, further charges go
+ * unrecorded and are counted by {@link TransactionLedger#dropped()}.
+ *
+ * <h2>Concurrency</h2>
+ * <p>Charges may be made from any number of threads without contending on a
+ * lock, except that a profile with outages keeps one outage state for all
+ * charges and steps it under a brief lock. Each charge takes the next number
+ * from a single atomic sequence; its latency and outcome are drawn from a
+ * random stream derived from the seed and that number, and its transaction
+ * ID is formed from the number. So a seeded run made one charge at a time is
+ * reproducible, and transaction IDs increase in the order charges are made.
+ *
  * <h2>Usage</h2>
  * <pre>{@code
  * PaymentGateway gateway = MockPaymentGateway.instance();
  * PaymentResult result = gateway.charge("tok_visa_4242", 1999);
+ * CompletableFuture<PaymentResult> pending = gateway.chargeAsync("tok_visa_4242", 1999);
  * }</pre>
  */
 public final class MockPaymentGateway implements PaymentGateway {
 
     private static final MockPaymentGateway INSTANCE = new MockPaymentGateway();
 
-    /**
-     * Actual failure rate: ~0.03% (99.97% success).
-     * This is intentionally below the 99.99% SLA to demonstrate SLA testing.
-     */
-    private static final double FAILURE_RATE = 0.0003;
-
     private static final String[] ERROR_CODES = {
             "DECLINED",
             "TIMEOUT",
@@ -54,12 +99,28 @@ public final class MockPaymentGateway implements PaymentGateway {
             "FRAUD_SUSPECTED"
     };
 
-    private final Random random;
-    private long seed;
+    /** The cost each charge adds to a batch's round trip */
+    static final long BATCH_ITEM_MICROS = 500;
+
+    /** The golden-ratio increment SplitMix64 steps by */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Offsets transaction IDs so that separate runs rarely share one. Kept
+     * below 2^44, so the 48 bits of an ID cannot wrap within a run.
+     */
+    private static final long TRANSACTION_ID_BASE = (System.currentTimeMillis() & 0xFFFF_FFFFL) << 12;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile Seeding seeding;
+    private volatile SimulatedClock simulatedClock;
+    private volatile Failures failures = new Failures(GatewayFailureProfile.standard());
+    private volatile TransactionLedger ledger;
 
     private MockPaymentGateway() {
-        this.seed = System.currentTimeMillis();
-        this.random = new Random(seed);
+        this.seeding = new Seeding(System.currentTimeMillis(), 0);
     }
 
     /**
@@ -72,13 +133,14 @@ public final class MockPaymentGateway implements PaymentGateway {
     }
 
     /**
-     * Resets the random seed for reproducible test runs.
+     * Resets the random seed, and any outage in progress, for reproducible
+     * test runs.
      *
      * @param seed the seed value
      */
     public void setSeed(long seed) {
-        this.seed = seed;
-        this.random.setSeed(seed);
+        this.seeding = new Seeding(seed, sequence.get());
+        this.failures = new Failures(failures.profile());
     }
 
     /**
@@ -87,31 +149,245 @@ public final class MockPaymentGateway implements PaymentGateway {
      * @return the seed value
      */
     public long getSeed() {
-        return seed;
+        return seeding.seed();
+    }
+
+    /**
+     * Installs a failure profile, replacing any previous one and ending any
+     * outage in progress.
+     *
+     * <p>Pass {@link GatewayFailureProfile#standard()} to restore the
+     * default behaviour.
+     *
+     * @param profile how charges fail and how long they take
+     */
+    public void setFailureProfile(GatewayFailureProfile profile) {
+        this.failures = new Failures(profile);
+    }
+
+    /**
+     * Returns the installed failure profile.
+     *
+     * @return the current profile
+     */
+    public GatewayFailureProfile getFailureProfile() {
+        return failures.profile();
+    }
+
+    /**
+     * Installs a ledger that every charge is appended to. Pass {@code null}
+     * to stop recording.
+     *
+     * @param ledger the ledger, or {@code null} for none
+     */
+    public void setLedger(TransactionLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Returns the installed ledger.
+     *
+     * @return the ledger, or {@code null} when charges are not recorded
+     */
+    public TransactionLedger getLedger() {
+        return ledger;
+    }
+
+    /**
+     * Installs a simulated clock, which charges advance by their latency
+     * instead of waiting for it. Pass {@code null} to wait in real time again.
+     *
+     * @param clock the simulated clock, or {@code null} for real time
+     */
+    public void setSimulatedClock(SimulatedClock clock) {
+        this.simulatedClock = clock;
+    }
+
+    /**
+     * Returns the installed simulated clock.
+     *
+     * @return the simulated clock, or {@code null} when charges wait in real time
+     */
+    public SimulatedClock getSimulatedClock() {
+        return simulatedClock;
+    }
+
+    /**
+     * Returns the nanosecond clock that charge latency elapses on: the
+     * simulated clock when one is installed, otherwise
+     * {@link System#nanoTime()}. Time charges with this clock to see their
+     * latency in either mode.
+     *
+     * @return the gateway's clock
+     */
+    public LongSupplier clock() {
+        SimulatedClock clock = simulatedClock;
+        return clock != null ? clock : System::nanoTime;
     }
 
     @Override
     public PaymentResult charge(String cardToken, long amountCents) {
-        // Simulate network latency
-        simulateLatency();
+        Attempt attempt = attempt(cardToken);
+        record(cardToken, amountCents, attempt.result(), Duration.ofMillis(attempt.latencyMillis()));
+        simulateLatency(Duration.ofMillis(attempt.latencyMillis()));
+        return attempt.result();
+    }
 
-        // Check for failure
-        if (random.nextDouble() < FAILURE_RATE) {
-            String errorCode = ERROR_CODES[random.nextInt(ERROR_CODES.length)];
-            return PaymentResult.failure(errorCode);
+    @Override
+    public List<PaymentResult> chargeAll(List<ChargeRequest> charges) {
+        if (charges.isEmpty()) {
+            return List.of();
+        }
+        List<PaymentResult> results = new ArrayList<>(charges.size());
+        long roundTripMillis = 0;
+        for (int i = 0; i < charges.size(); i++) {
+            Attempt attempt = attempt(charges.get(i).cardToken());
+            if (i == 0) {
+                // The batch pays one round trip, however many charges it holds
+                roundTripMillis = attempt.latencyMillis();
+            }
+            results.add(attempt.result());
         }
+        Duration latency = Duration.ofMillis(roundTripMillis)
+                .plus(Duration.ofNanos(BATCH_ITEM_MICROS * 1_000 * charges.size()));
+        for (int i = 0; i < charges.size(); i++) {
+            record(charges.get(i).cardToken(), charges.get(i).amountCents(), results.get(i), latency);
+        }
+        simulateLatency(latency);
+        return results;
+    }
 
-        // Generate transaction ID
-        String transactionId = "txn_" + UUID.randomUUID().toString().substring(0, 12);
-        return PaymentResult.success(transactionId);
+    @Override
+    public CompletableFuture<PaymentResult> chargeAsync(String cardToken, long amountCents) {
+        Attempt attempt = attempt(cardToken);
+        record(cardToken, amountCents, attempt.result(), Duration.ofMillis(attempt.latencyMillis()));
+
+        SimulatedClock clock = simulatedClock;
+        if (clock != null) {
+            clock.advance(Duration.ofMillis(attempt.latencyMillis()));
+            return CompletableFuture.completedFuture(attempt.result());
+        }
+        return new CompletableFuture<PaymentResult>()
+                .completeOnTimeout(attempt.result(), attempt.latencyMillis(), TimeUnit.MILLISECONDS);
     }
 
-    private void simulateLatency() {
-        // Simulate 50-200ms latency
+    /**
+     * Appends a charge to the ledger, if one is installed.
+     */
+    private void record(String cardToken, long amountCents, PaymentResult result, Duration latency) {
+        TransactionLedger current = ledger;
+        if (current != null) {
+            current.tryAppend(cardToken, amountCents, result, latency.toNanos());
+        }
+    }
+
+    /**
+     * Waits out a latency, or advances the simulated clock by it.
+     */
+    private void simulateLatency(Duration latency) {
+        SimulatedClock clock = simulatedClock;
+        if (clock != null) {
+            clock.advance(latency);
+            return;
+        }
         try {
-            Thread.sleep(50 + random.nextInt(150));
+            Thread.sleep(latency);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
     }
+
+    /**
+     * Draws one charge's latency and result from the random stream for the
+     * next number in the sequence. The draws for a charge are taken in a
+     * fixed order, so a seeded run is reproducible whichever method the
+     * charges are made through.
+     */
+    private Attempt attempt(String cardToken) {
+        Seeding current = seeding;
+        Failures failing = failures;
+        GatewayFailureProfile profile = failing.profile();
+        long number = sequence.getAndIncrement();
+        long stream = number - current.first();
+        SplittableRandom random = new SplittableRandom(mix64(current.seed() + stream * GOLDEN_GAMMA));
+
+        // Simulate 50-200ms latency
+        long latencyMillis = 50 + random.nextInt(150);
+
+        // Draws a profile does not use are skipped, so the standard profile's stream is unchanged
+        boolean inOutage = failing.outages() != null && failing.outages().step(random.nextDouble());
+        if (profile.spikeRate() > 0 && random.nextDouble() < profile.spikeRate()) {
+            latencyMillis = random.nextLong(
+                    GatewayFailureProfile.SPIKE_FLOOR.toMillis(), profile.spikeLatency().toMillis() + 1);
+        }
+        if (inOutage) {
+            latencyMillis = Math.round(latencyMillis * profile.outageLatencyFactor());
+        }
+
+        // A charge slow enough to reach the timeout fails when it does
+        long timeoutMillis = profile.timeoutAfter().toMillis();
+        if (timeoutMillis > 0 && latencyMillis >= timeoutMillis) {
+            return new Attempt(timeoutMillis, PaymentResult.failure("TIMEOUT"));
+        }
+
+        // Check for failure
+        double failureRate = inOutage ? profile.outageFailureRate() : profile.failureRateFor(cardToken);
+        if (random.nextDouble() < failureRate) {
+            String errorCode = inOutage ? "NETWORK_ERROR" : ERROR_CODES[random.nextInt(ERROR_CODES.length)];
+            return new Attempt(latencyMillis, PaymentResult.failure(errorCode));
+        }
+
+        // Generate transaction ID: 12 hex digits, increasing with the sequence
+        String transactionId = "txn_" + HEX.toHexDigits(TRANSACTION_ID_BASE + number).substring(4);
+        return new Attempt(latencyMillis, PaymentResult.success(transactionId));
+    }
+
+    /** SplitMix64's finaliser, which spreads nearby seeds to unrelated streams */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Attempt(long latencyMillis, PaymentResult result) { }
+
+    /**
+     * A failure profile and, if it has outages, the outage state its charges share.
+     */
+    private record Failures(GatewayFailureProfile profile, Outages outages) {
+
+        Failures(GatewayFailureProfile profile) {
+            this(profile, profile.hasOutages() ? new Outages(profile) : null);
+        }
+    }
+
+    /**
+     * The outage chain's state, stepped once per charge.
+     */
+    private static final class Outages {
+
+        private final double entryRate;
+        private final double exitRate;
+        private boolean inOutage;
+
+        Outages(GatewayFailureProfile profile) {
+            this.entryRate = profile.outageEntryRate();
+            this.exitRate = profile.outageExitRate();
+        }
+
+        /**
+         * Moves the chain on one charge, using the charge's own draw, and
+         * returns whether that charge falls in an outage.
+         */
+        synchronized boolean step(double draw) {
+            inOutage = inOutage ? draw >= exitRate : draw < entryRate;
+            return inOutage;
+        }
+    }
+
+    /**
+     * A seed and the sequence number it took effect at, so the charge after
+     * {@link #setSeed(long)} always draws from stream 0 of the seed.
+     */
+    private record Seeding(long seed, long first) { }
 }
@@ -1,5 +1,9 @@
 package org.javai.punit.examples.app.payment;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for payment processing operations.
  *
@@ -20,4 +24,57 @@ public interface PaymentGateway {
      * @return the result of the payment attempt
      */
     PaymentResult charge(String cardToken, long amountCents);
+
+    /**
+     * Charges a card, identifying the attempt by an idempotency key so that
+     * a retry of the same charge can be recognised.
+     *
+     * <p>The default has no notion of idempotency and makes a new charge on
+     * every call, as a gateway that ignores the key would, so retries charge
+     * again. {@link IdempotentPaymentGateway} answers a repeated key with
+     * the original result instead.
+     *
+     * @param idempotencyKey the client-chosen key shared by every attempt of one charge
+     * @param cardToken the tokenized card reference
+     * @param amountCents the amount to charge in cents
+     * @return the result of the payment attempt
+     */
+    default PaymentResult charge(String idempotencyKey, String cardToken, long amountCents) {
+        return charge(cardToken, amountCents);
+    }
+
+    /**
+     * Submits a batch of charges in one round trip.
+     *
+     * <p>The default has no batch endpoint and charges each card in turn.
+     * A gateway with batch settlement overrides this to pay the round trip
+     * once for the whole batch.
+     *
+     * @param charges the charges to make
+     * @return one result per charge, in the order the charges were given
+     */
+    default List<PaymentResult> chargeAll(List<ChargeRequest> charges) {
+        List<PaymentResult> results = new ArrayList<>(charges.size());
+        for (ChargeRequest charge : charges) {
+            results.add(charge(charge.cardToken(), charge.amountCents()));
+        }
+        return results;
+    }
+
+    /**
+     * Charges a card without blocking the caller.
+     *
+     * <p>The default runs {@link #charge} on a new virtual thread, so a
+     * blocked charge parks no platform thread. Implementations that can
+     * complete a charge without any thread waiting on it should override this.
+     *
+     * @param cardToken the tokenized card reference
+     * @param amountCents the amount to charge in cents
+     * @return a future completed with the result of the payment attempt
+     */
+    default CompletableFuture<PaymentResult> chargeAsync(String cardToken, long amountCents) {
+        return CompletableFuture.supplyAsync(
+                () -> charge(cardToken, amountCents),
+                task -> Thread.ofVirtual().start(task));
+    }
 }
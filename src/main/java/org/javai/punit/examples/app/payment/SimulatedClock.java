@@ -0,0 +1,62 @@
+package org.javai.punit.examples.app.payment;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A nanosecond clock that moves only when it is advanced.
+ *
+ * <p>Installed on {@link MockPaymentGateway} via
+ * {@link MockPaymentGateway#setSimulatedClock(SimulatedClock)}, it replaces
+ * the gateway's sleeps: each charge advances the clock by its sampled
+ * latency and returns at once. Code that times charges by reading this clock
+ * before and after - rather than {@link System#nanoTime()} - sees the same
+ * 50-200ms durations a sleeping gateway would produce, while a run of
+ * hundreds of charges finishes in milliseconds.
+ *
+ * <p>Time is shared by every caller, so a duration read around one charge is
+ * that charge's latency only when charges are made one at a time. Advances
+ * from concurrent charges do not contend, so the clock does not throttle a
+ * parallel run.
+ */
+public final class SimulatedClock implements LongSupplier {
+
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Returns the simulated time.
+     *
+     * @return nanoseconds since the clock was created
+     */
+    public long nanoTime() {
+        return nanos.sum();
+    }
+
+    @Override
+    public long getAsLong() {
+        return nanoTime();
+    }
+
+    /**
+     * Moves the clock forward.
+     *
+     * @param duration how far to move it; must not be negative
+     * @throws IllegalArgumentException if {@code duration} is negative
+     */
+    public void advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Cannot move a clock backwards: " + duration);
+        }
+        nanos.add(duration.toNanos());
+    }
+
+    /**
+     * Returns the simulated time elapsed since the clock was created.
+     *
+     * @return the elapsed time
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(nanoTime());
+    }
+}
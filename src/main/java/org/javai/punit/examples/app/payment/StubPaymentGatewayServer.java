@@ -0,0 +1,174 @@
+package org.javai.punit.examples.app.payment;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local HTTP server speaking {@link HttpPaymentGateway}'s protocol, for
+ * tests that exercise the adapter and its connections without a real
+ * gateway.
+ *
+ * <p>Each request is answered by a backing {@link PaymentGateway} - by
+ * default {@link MockPaymentGateway} behind an
+ * {@link IdempotentPaymentGateway}, so the stub has the mock's latency and
+ * reliability and honours idempotency keys. Requests are handled on virtual
+ * threads, so charges waiting out the mock's latency do not hold up others.
+ *
+ * <p>The server binds to the loopback address on a free port and speaks
+ * HTTP/1.1 with keep-alive. It counts the client connections it has seen,
+ * so a test can check that the adapter reuses them.
+ *
+ * <pre>{@code
+ * try (StubPaymentGatewayServer stub = StubPaymentGatewayServer.start()) {
+ *     PaymentGateway gateway = HttpPaymentGateway.builder(stub.baseUri()).build();
+ *     PaymentResult result = gateway.charge("tok_visa_4242", 1999);
+ * }
+ * }</pre>
+ */
+public final class StubPaymentGatewayServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<ChargeRequest>> REQUESTS = new TypeReference<>() { };
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final PaymentGateway backing;
+    private final LongAdder requests = new LongAdder();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    private StubPaymentGatewayServer(PaymentGateway backing) throws IOException {
+        this.backing = backing;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext(HttpPaymentGateway.CHARGES_PATH, counted(this::charge));
+        server.createContext(HttpPaymentGateway.BATCH_PATH, counted(this::chargeAll));
+        server.createContext(HttpPaymentGateway.HEALTH_PATH, counted(exchange -> respond(exchange, 204, null)));
+        server.start();
+    }
+
+    /**
+     * Starts a stub backed by the {@link MockPaymentGateway} singleton, with
+     * idempotency keys honoured.
+     *
+     * @return the running stub
+     */
+    public static StubPaymentGatewayServer start() {
+        return start(new IdempotentPaymentGateway(MockPaymentGateway.instance()));
+    }
+
+    /**
+     * Starts a stub that answers charges with the given gateway.
+     *
+     * @param backing the gateway that decides each charge
+     * @return the running stub
+     * @throws UncheckedIOException if the server cannot be started
+     */
+    public static StubPaymentGatewayServer start(PaymentGateway backing) {
+        try {
+            return new StubPaymentGatewayServer(backing);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start stub payment gateway", e);
+        }
+    }
+
+    /**
+     * Returns the base URI to build an {@link HttpPaymentGateway} with.
+     *
+     * @return the stub's base URI
+     */
+    public URI baseUri() {
+        InetSocketAddress address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort());
+    }
+
+    /**
+     * Returns the number of requests served, health checks included.
+     *
+     * @return the request count
+     */
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns the number of distinct client connections requests have
+     * arrived on.
+     *
+     * @return the connection count
+     */
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Stops the server, abandoning any requests in progress.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void charge(HttpExchange exchange) throws IOException {
+        ChargeRequest request = MAPPER.readValue(readBody(exchange), ChargeRequest.class);
+        String key = exchange.getRequestHeaders().getFirst(HttpPaymentGateway.IDEMPOTENCY_KEY_HEADER);
+        PaymentResult result = key != null
+                ? backing.charge(key, request.cardToken(), request.amountCents())
+                : backing.charge(request.cardToken(), request.amountCents());
+        respond(exchange, 200, MAPPER.writeValueAsBytes(result));
+    }
+
+    private void chargeAll(HttpExchange exchange) throws IOException {
+        List<ChargeRequest> charges = MAPPER.readValue(readBody(exchange), REQUESTS);
+        respond(exchange, 200, MAPPER.writeValueAsBytes(backing.chargeAll(charges)));
+    }
+
+    private HttpHandler counted(HttpHandler handler) {
+        return exchange -> {
+            requests.increment();
+            connections.add(exchange.getRemoteAddress());
+            try {
+                handler.handle(exchange);
+            } catch (IOException | RuntimeException e) {
+                respond(exchange, 400, null);
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return body.readAllBytes();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
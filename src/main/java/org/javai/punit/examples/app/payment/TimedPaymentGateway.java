@@ -0,0 +1,115 @@
+package org.javai.punit.examples.app.payment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import org.javai.punit.examples.app.latency.LatencyRecorder;
+import org.javai.punit.examples.app.latency.LatencySnapshot;
+
+/**
+ * {@link PaymentGateway} decorator that records how long each charge takes
+ * in a {@link LatencyRecorder}.
+ *
+ * <p>Every charge that returns a result is recorded, declined or not; a
+ * charge that throws is not. Each charge in a {@link #chargeAll} batch is
+ * recorded with the whole batch's time, which is how long it waited.
+ * Asynchronous charges are timed from the call to the future's completion,
+ * without a thread waiting on them.
+ *
+ * <p>Charges are timed on {@link System#nanoTime()} unless another clock is
+ * given. Pass {@link MockPaymentGateway}'s {@link SimulatedClock} to record
+ * the mock's simulated latencies.
+ */
+public final class TimedPaymentGateway implements PaymentGateway {
+
+    private final PaymentGateway delegate;
+    private final LatencyRecorder recorder;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Creates a timed gateway recording into a recorder of its own.
+     *
+     * @param delegate the gateway that makes the charges
+     */
+    public TimedPaymentGateway(PaymentGateway delegate) {
+        this(delegate, new LatencyRecorder());
+    }
+
+    /**
+     * Creates a timed gateway.
+     *
+     * @param delegate the gateway that makes the charges
+     * @param recorder where latencies are recorded; may be shared
+     */
+    public TimedPaymentGateway(PaymentGateway delegate, LatencyRecorder recorder) {
+        this(delegate, recorder, System::nanoTime);
+    }
+
+    /**
+     * Creates a timed gateway that reads time from the given clock.
+     *
+     * @param delegate the gateway that makes the charges
+     * @param recorder where latencies are recorded; may be shared
+     * @param nanoClock the clock charges are timed on, in nanoseconds
+     */
+    public TimedPaymentGateway(PaymentGateway delegate, LatencyRecorder recorder, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public PaymentResult charge(String cardToken, long amountCents) {
+        long start = nanoClock.getAsLong();
+        PaymentResult result = delegate.charge(cardToken, amountCents);
+        recorder.record(nanoClock.getAsLong() - start);
+        return result;
+    }
+
+    @Override
+    public PaymentResult charge(String idempotencyKey, String cardToken, long amountCents) {
+        long start = nanoClock.getAsLong();
+        PaymentResult result = delegate.charge(idempotencyKey, cardToken, amountCents);
+        recorder.record(nanoClock.getAsLong() - start);
+        return result;
+    }
+
+    @Override
+    public List<PaymentResult> chargeAll(List<ChargeRequest> charges) {
+        long start = nanoClock.getAsLong();
+        List<PaymentResult> results = delegate.chargeAll(charges);
+        long elapsed = nanoClock.getAsLong() - start;
+        for (int i = 0; i < results.size(); i++) {
+            recorder.record(elapsed);
+        }
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> chargeAsync(String cardToken, long amountCents) {
+        long start = nanoClock.getAsLong();
+        return delegate.chargeAsync(cardToken, amountCents).whenComplete((result, failure) -> {
+            if (failure == null) {
+                recorder.record(nanoClock.getAsLong() - start);
+            }
+        });
+    }
+
+    /**
+     * Returns the recorder this gateway's latencies go to.
+     *
+     * @return the recorder
+     */
+    public LatencyRecorder recorder() {
+        return recorder;
+    }
+
+    /**
+     * Returns a copy of the latencies recorded so far.
+     *
+     * @return the snapshot
+     */
+    public LatencySnapshot snapshot() {
+        return recorder.snapshot();
+    }
+}
@@ -0,0 +1,533 @@
+package org.javai.punit.examples.app.payment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * An append-only record of charges, kept in a memory-mapped file rather than
+ * on the heap.
+ *
+ * <p>Each charge is one fixed-width {@value #RECORD_BYTES}-byte record: its
+ * latency, amount, a 64-bit hash of its card token, its outcome, and its
+ * transaction ID. A million charges take 48MB of file and no heap, however
+ * long the run; the OS pages the file in and out as it likes. Error codes are
+ * stored as an index into a small table in the file's header.
+ *
+ * <p>Appends are lock-free: each takes the next slot from an atomic counter
+ * and writes its record there, so concurrent charges do not contend. A
+ * record's outcome byte is written last, and scans skip slots whose outcome
+ * is not yet written; scan after the charges being reconciled have returned.
+ *
+ * <p>Reconcile with {@link #scan(Consumer)}, which moves one reusable
+ * {@link Cursor} over the records without creating an object per charge, or
+ * with {@link #summary()}. The file's capacity is fixed when it is created.
+ * {@link #close()} records the count in the header, so the ledger can be
+ * reopened and scanned later; a ledger that was never closed is recounted
+ * from its records when it is reopened, so appends after a crash do not
+ * overwrite the records written before it.
+ *
+ * <pre>{@code
+ * try (TransactionLedger ledger = TransactionLedger.open(path, 1_000_000)) {
+ *     MockPaymentGateway.instance().setLedger(ledger);
+ *     // ... charge ...
+ *     TransactionLedger.Summary summary = ledger.summary();
+ * }
+ * }</pre>
+ */
+public final class TransactionLedger implements AutoCloseable {
+
+    /** Size of one record in bytes. */
+    public static final int RECORD_BYTES = 48;
+
+    /** Longest transaction ID a record holds. */
+    public static final int MAX_TRANSACTION_ID_LENGTH = 22;
+
+    /** Most distinct error codes a ledger holds. */
+    public static final int MAX_ERROR_CODES = 127;
+
+    private static final int MAGIC = 0x4C454447; // "LEDG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4096;
+    private static final int CODE_BYTES = 32;
+    private static final int CODES_OFFSET = 32;
+
+    // Header layout
+    private static final int MAGIC_AT = 0;
+    private static final int VERSION_AT = 4;
+    private static final int COUNT_AT = 8;
+    private static final int CODE_COUNT_AT = 16;
+
+    // Record layout; the outcome is written last, and is zero until then
+    private static final int LATENCY_AT = 0;
+    private static final int AMOUNT_AT = 8;
+    private static final int CARD_HASH_AT = 16;
+    private static final int OUTCOME_AT = 24;
+    private static final int ID_LENGTH_AT = 25;
+    private static final int ID_AT = 26;
+
+    private static final byte UNWRITTEN = 0;
+    private static final byte SUCCEEDED = 1;
+
+    // 48MB per mapping keeps each well under the 2GB a buffer can address
+    private static final int CHUNK_SHIFT = 20;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] chunks;
+    private final long capacity;
+    private final AtomicLong next;
+    private final LongAdder dropped = new LongAdder();
+    private final List<String> codes;
+    private final Map<String, Integer> codeIndex = new ConcurrentHashMap<>();
+
+    private TransactionLedger(FileChannel channel, long capacity, boolean existing) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        this.codes = new CopyOnWriteArrayList<>();
+        if (existing) {
+            int codeCount = header.getInt(CODE_COUNT_AT);
+            for (int i = 0; i < codeCount; i++) {
+                String code = readCode(i);
+                codes.add(code);
+                codeIndex.put(code, i);
+            }
+        } else {
+            header.putInt(MAGIC_AT, MAGIC);
+            header.putInt(VERSION_AT, VERSION);
+        }
+
+        this.chunks = new MappedByteBuffer[(int) ((capacity + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            long first = (long) i << CHUNK_SHIFT;
+            long records = Math.min(capacity - first, 1L << CHUNK_SHIFT);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES + first * RECORD_BYTES, records * RECORD_BYTES);
+        }
+        this.next = new AtomicLong(existing ? recoverCount() : 0);
+    }
+
+    /**
+     * Counts the records of a reopened ledger. The header's count is only as
+     * recent as the last {@link #force()} or {@link #close()}, so a run that
+     * died without closing leaves it short; the records written since are
+     * found by reading on to the first slot whose outcome is unwritten.
+     */
+    private long recoverCount() {
+        long count = Math.min(header.getLong(COUNT_AT), capacity);
+        while (count < capacity
+                && (chunkOf(count).get(offsetOf(count) + OUTCOME_AT) & 0xFF) != UNWRITTEN) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Opens a ledger file, creating it if it does not exist. An existing
+     * ledger keeps its records, and new ones are appended after them.
+     *
+     * @param path the ledger file
+     * @param capacity the most records the ledger can hold
+     * @return the open ledger
+     * @throws IllegalArgumentException if {@code capacity} is not positive, or
+     *         the file exists and is not a ledger
+     * @throws UncheckedIOException if the file cannot be opened or mapped
+     */
+    public static TransactionLedger open(Path path, long capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+        }
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                boolean existing = channel.size() > 0;
+                if (existing && !isLedger(channel)) {
+                    throw new IllegalArgumentException("Not a transaction ledger, or an unsupported version: " + path);
+                }
+                long held = Math.max(0, (channel.size() - HEADER_BYTES) / RECORD_BYTES);
+                return new TransactionLedger(channel, Math.max(capacity, held), existing);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ledger " + path, e);
+        }
+    }
+
+    // Checked before mapping, which would extend a foreign file
+    private static boolean isLedger(FileChannel channel) throws IOException {
+        ByteBuffer start = ByteBuffer.allocate(8);
+        channel.read(start, 0);
+        return start.position() == 8 && start.getInt(MAGIC_AT) == MAGIC && start.getInt(VERSION_AT) == VERSION;
+    }
+
+    /**
+     * Hashes a card token the way the ledger stores it, so a known card can
+     * be matched against the records.
+     *
+     * @param cardToken the card token
+     * @return its 64-bit FNV-1a hash
+     */
+    public static long hashCardToken(String cardToken) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < cardToken.length(); i++) {
+            hash ^= cardToken.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Appends one charge.
+     *
+     * @param cardToken the card charged
+     * @param amountCents the amount charged, in cents
+     * @param result the charge's result
+     * @param latencyNanos how long the charge took
+     * @throws IllegalStateException if the ledger is full, or holds
+     *         {@value #MAX_ERROR_CODES} error codes already and this is a new one
+     * @throws IllegalArgumentException if the transaction ID or error code
+     *         is too long, or not ASCII
+     */
+    public void append(String cardToken, long amountCents, PaymentResult result, long latencyNanos) {
+        if (!tryAppend(cardToken, amountCents, result, latencyNanos)) {
+            throw new IllegalStateException(next.get() > capacity
+                    ? "Ledger is full at " + capacity + " records"
+                    : "Ledger already holds " + MAX_ERROR_CODES + " error codes");
+        }
+    }
+
+    /**
+     * Appends one charge if there is room for it, and otherwise counts it as
+     * {@linkplain #dropped() dropped}.
+     *
+     * @param cardToken the card charged
+     * @param amountCents the amount charged, in cents
+     * @param result the charge's result
+     * @param latencyNanos how long the charge took
+     * @return false if the ledger is full, or holds {@value #MAX_ERROR_CODES}
+     *         error codes already and this is a new one
+     * @throws IllegalArgumentException if the transaction ID or error code
+     *         is too long, or not ASCII
+     */
+    public boolean tryAppend(String cardToken, long amountCents, PaymentResult result, long latencyNanos) {
+        int code = result.success() ? -1 : codeFor(result.errorCode());
+        if (!result.success() && code < 0) {
+            dropped.increment();
+            return false;
+        }
+        byte outcome = result.success() ? SUCCEEDED : (byte) (code + 2);
+        String transactionId = result.transactionId() != null ? result.transactionId() : "";
+        if (transactionId.length() > MAX_TRANSACTION_ID_LENGTH) {
+            throw new IllegalArgumentException("transactionId must be at most "
+                    + MAX_TRANSACTION_ID_LENGTH + " characters, got " + transactionId);
+        }
+
+        long index = next.getAndIncrement();
+        if (index >= capacity) {
+            dropped.increment();
+            return false;
+        }
+        ByteBuffer chunk = chunkOf(index);
+        int at = offsetOf(index);
+        chunk.putLong(at + LATENCY_AT, latencyNanos);
+        chunk.putLong(at + AMOUNT_AT, amountCents);
+        chunk.putLong(at + CARD_HASH_AT, hashCardToken(cardToken));
+        chunk.put(at + ID_LENGTH_AT, (byte) transactionId.length());
+        putAscii(chunk, at + ID_AT, transactionId);
+        chunk.put(at + OUTCOME_AT, outcome);
+        return true;
+    }
+
+    /**
+     * Returns the number of records appended, including any still being written.
+     *
+     * @return the record count
+     */
+    public long size() {
+        return Math.min(next.get(), capacity);
+    }
+
+    /**
+     * Returns the number of charges {@link #tryAppend} turned away.
+     *
+     * @return the dropped count
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the most records the ledger can hold.
+     *
+     * @return the capacity
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Moves a cursor over every written record, in the order they were
+     * appended. The cursor is reused from record to record; copy out
+     * anything to be kept.
+     *
+     * @param visitor called with the cursor at each record
+     */
+    public void scan(Consumer<Cursor> visitor) {
+        Cursor cursor = new Cursor();
+        long size = size();
+        for (long i = 0; i < size; i++) {
+            cursor.moveTo(i);
+            if (cursor.outcome() != UNWRITTEN) {
+                visitor.accept(cursor);
+            }
+        }
+    }
+
+    /**
+     * Totals the ledger in one scan: charges, successes, the amount
+     * successfully charged, and failures by error code.
+     *
+     * @return the totals
+     */
+    public Summary summary() {
+        long[] succeeded = new long[1];
+        long[] chargedCents = new long[1];
+        long[] failedByCode = new long[MAX_ERROR_CODES];
+        scan(cursor -> {
+            if (cursor.success()) {
+                succeeded[0]++;
+                chargedCents[0] += cursor.amountCents();
+            } else {
+                failedByCode[cursor.outcome() - 2]++;
+            }
+        });
+
+        Map<String, Long> failures = new TreeMap<>();
+        long failed = 0;
+        for (int i = 0; i < failedByCode.length; i++) {
+            if (failedByCode[i] > 0) {
+                failures.put(codes.get(i), failedByCode[i]);
+                failed += failedByCode[i];
+            }
+        }
+        return new Summary(succeeded[0] + failed, succeeded[0], chargedCents[0], failures);
+    }
+
+    /**
+     * Writes the record count to the header and flushes the file to disk.
+     */
+    public void force() {
+        header.putLong(COUNT_AT, size());
+        header.force();
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Flushes the ledger and closes its file. The mapped memory is released
+     * when the ledger is garbage-collected.
+     */
+    @Override
+    public void close() {
+        force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close ledger", e);
+        }
+    }
+
+    /** Returns the error code's index, or -1 if it is new and the table is full. */
+    private int codeFor(String errorCode) {
+        Integer index = codeIndex.get(errorCode);
+        return index != null ? index : registerCode(errorCode);
+    }
+
+    private synchronized int registerCode(String errorCode) {
+        Integer index = codeIndex.get(errorCode);
+        if (index != null) {
+            return index;
+        }
+        if (errorCode.length() >= CODE_BYTES) {
+            throw new IllegalArgumentException(
+                    "errorCode must be under " + CODE_BYTES + " characters, got " + errorCode);
+        }
+        if (codes.size() == MAX_ERROR_CODES) {
+            return -1;
+        }
+        int code = codes.size();
+        int at = CODES_OFFSET + code * CODE_BYTES;
+        header.put(at, (byte) errorCode.length());
+        putAscii(header, at + 1, errorCode);
+        codes.add(errorCode);
+        header.putInt(CODE_COUNT_AT, codes.size());
+        codeIndex.put(errorCode, code);
+        return code;
+    }
+
+    private String readCode(int code) {
+        int at = CODES_OFFSET + code * CODE_BYTES;
+        return readAscii(header, at + 1, header.get(at));
+    }
+
+    private ByteBuffer chunkOf(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)];
+    }
+
+    private static int offsetOf(long index) {
+        return (int) (index & CHUNK_MASK) * RECORD_BYTES;
+    }
+
+    private static void putAscii(ByteBuffer buffer, int at, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 0x7F) {
+                throw new IllegalArgumentException("Ledger strings must be ASCII, got " + value);
+            }
+            buffer.put(at + i, (byte) c);
+        }
+    }
+
+    private static String readAscii(ByteBuffer buffer, int at, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(at, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * A view of one record, moved along the ledger by {@link #scan(Consumer)}.
+     */
+    public final class Cursor {
+
+        private long index;
+        private ByteBuffer chunk;
+        private int at;
+
+        private Cursor() {
+        }
+
+        private void moveTo(long index) {
+            this.index = index;
+            this.chunk = chunkOf(index);
+            this.at = offsetOf(index);
+        }
+
+        private int outcome() {
+            // Unsigned: the last error codes are stored above Byte.MAX_VALUE
+            return chunk.get(at + OUTCOME_AT) & 0xFF;
+        }
+
+        /**
+         * Returns the record's position in the ledger.
+         *
+         * @return the index, counting from 0
+         */
+        public long index() {
+            return index;
+        }
+
+        /**
+         * Returns whether the charge succeeded.
+         *
+         * @return true if it succeeded
+         */
+        public boolean success() {
+            return outcome() == SUCCEEDED;
+        }
+
+        /**
+         * Returns the charge's error code.
+         *
+         * @return the error code, or {@code null} if it succeeded
+         */
+        public String errorCode() {
+            return success() ? null : codes.get(outcome() - 2);
+        }
+
+        /**
+         * Returns the amount charged.
+         *
+         * @return the amount in cents
+         */
+        public long amountCents() {
+            return chunk.getLong(at + AMOUNT_AT);
+        }
+
+        /**
+         * Returns the hash of the card token, to compare with
+         * {@link #hashCardToken(String)}.
+         *
+         * @return the card token hash
+         */
+        public long cardTokenHash() {
+            return chunk.getLong(at + CARD_HASH_AT);
+        }
+
+        /**
+         * Returns how long the charge took.
+         *
+         * @return the latency in nanoseconds
+         */
+        public long latencyNanos() {
+            return chunk.getLong(at + LATENCY_AT);
+        }
+
+        /**
+         * Reads the transaction ID, creating a string; scans that only
+         * total the ledger need not call this.
+         *
+         * @return the transaction ID, or {@code null} if the charge failed
+         */
+        public String transactionId() {
+            int length = chunk.get(at + ID_LENGTH_AT);
+            return length == 0 ? null : readAscii(chunk, at + ID_AT, length);
+        }
+    }
+
+    /**
+     * Totals over a ledger.
+     *
+     * @param charges records in the ledger
+     * @param succeeded charges that succeeded
+     * @param chargedCents total amount of the charges that succeeded, in cents
+     * @param failuresByCode failed charges per error code, sorted by code
+     */
+    public record Summary(long charges, long succeeded, long chargedCents, Map<String, Long> failuresByCode) {
+
+        /**
+         * Compact constructor that keeps an unmodifiable, sorted copy of the failures.
+         */
+        public Summary {
+            failuresByCode = Collections.unmodifiableMap(new TreeMap<>(failuresByCode));
+        }
+
+        /**
+         * Returns the number of charges that failed.
+         *
+         * @return the failure count
+         */
+        public long failed() {
+            return charges - succeeded;
+        }
+    }
+}
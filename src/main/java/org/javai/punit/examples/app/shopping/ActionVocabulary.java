@@ -0,0 +1,192 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.Arrays;
+
+/**
+ * Case-insensitive perfect-hash table from action names to small integer
+ * codes.
+ *
+ * <p>Each {@link ShoppingAction.AppContext} owns one. A code is the index of
+ * the action in the context's declaration order. At construction a seed is
+ * searched for under which every name hashes to a distinct slot, so a lookup
+ * costs one hash over the candidate's characters, one slot read and one
+ * case-insensitive comparison - no lower-casing, no allocation, and no
+ * probing. Lookups accept a {@code char[]} region so that a JSON reader can
+ * resolve a name straight from its token buffer.
+ *
+ * <p>Names must be lower-case ASCII, and case folding is ASCII-only, so a
+ * match never depends on the default locale.
+ */
+final class ActionVocabulary {
+
+    /** Returned by lookups for a name that is not in the vocabulary. */
+    static final int NO_CODE = -1;
+
+    private static final int MAX_SEEDS_PER_SIZE = 10_000;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final String[] names;
+    private final int[] slots;
+    private final int mask;
+    private final int seed;
+    private final int maxLength;
+
+    ActionVocabulary(String... names) {
+        this.names = names.clone();
+        int longest = 0;
+        for (int code = 0; code < this.names.length; code++) {
+            String name = this.names[code];
+            if (!isLowerAscii(name)) {
+                throw new IllegalArgumentException("Action names must be lower-case ASCII, got '" + name + "'");
+            }
+            if (Arrays.asList(this.names).subList(0, code).contains(name)) {
+                throw new IllegalArgumentException("Duplicate action name '" + name + "'");
+            }
+            longest = Math.max(longest, name.length());
+        }
+        this.maxLength = longest;
+
+        int size = Integer.highestOneBit(Math.max(1, this.names.length * 2 - 1)) << 1;
+        int candidate = 0;
+        int[] table;
+        while ((table = tryBuild(candidate, size - 1)) == null) {
+            if (++candidate == MAX_SEEDS_PER_SIZE) {
+                candidate = 0;
+                size <<= 1;
+            }
+        }
+        this.slots = table;
+        this.mask = size - 1;
+        this.seed = candidate;
+    }
+
+    /**
+     * Returns the code of the given action name, ignoring ASCII case.
+     *
+     * @param name the candidate name
+     * @return its code, or {@link #NO_CODE} if it is not in the vocabulary
+     */
+    int code(CharSequence name) {
+        if (name == null || name.length() > maxLength) {
+            return NO_CODE;
+        }
+        int length = name.length();
+        int h = seed;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ fold(name.charAt(i))) * FNV_PRIME;
+        }
+        int code = slots[spread(h) & mask];
+        if (code == NO_CODE || names[code].length() != length) {
+            return NO_CODE;
+        }
+        String candidate = names[code];
+        for (int i = 0; i < length; i++) {
+            if (fold(name.charAt(i)) != candidate.charAt(i)) {
+                return NO_CODE;
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Returns the code of the action name in {@code chars[offset, offset + length)},
+     * ignoring ASCII case.
+     *
+     * @param chars the buffer holding the name
+     * @param offset the start of the name
+     * @param length the length of the name
+     * @return its code, or {@link #NO_CODE} if it is not in the vocabulary
+     */
+    int code(char[] chars, int offset, int length) {
+        if (length > maxLength) {
+            return NO_CODE;
+        }
+        int h = seed;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ fold(chars[offset + i])) * FNV_PRIME;
+        }
+        int code = slots[spread(h) & mask];
+        if (code == NO_CODE || names[code].length() != length) {
+            return NO_CODE;
+        }
+        String candidate = names[code];
+        for (int i = 0; i < length; i++) {
+            if (fold(chars[offset + i]) != candidate.charAt(i)) {
+                return NO_CODE;
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Returns the canonical name for a code.
+     *
+     * @param code a code returned by this vocabulary
+     * @return the name as declared
+     * @throws IllegalArgumentException if the code is not in the vocabulary
+     */
+    String name(int code) {
+        if (!contains(code)) {
+            throw new IllegalArgumentException("No action with code " + code);
+        }
+        return names[code];
+    }
+
+    /**
+     * Returns true if the code names an action in this vocabulary.
+     *
+     * @param code the code to check
+     * @return true if {@code 0 <= code < size()}
+     */
+    boolean contains(int code) {
+        return code >= 0 && code < names.length;
+    }
+
+    /**
+     * Returns the number of actions in the vocabulary.
+     *
+     * @return the vocabulary size
+     */
+    int size() {
+        return names.length;
+    }
+
+    private int[] tryBuild(int candidate, int tableMask) {
+        int[] table = new int[tableMask + 1];
+        Arrays.fill(table, NO_CODE);
+        for (int code = 0; code < names.length; code++) {
+            String name = names[code];
+            int h = candidate;
+            for (int i = 0; i < name.length(); i++) {
+                h = (h ^ name.charAt(i)) * FNV_PRIME;
+            }
+            int slot = spread(h) & tableMask;
+            if (table[slot] != NO_CODE) {
+                return null;
+            }
+            table[slot] = code;
+        }
+        return table;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isLowerAscii(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c > 0x7F || (c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,172 @@
+package org.javai.punit.examples.app.shopping;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import org.javai.outcome.Outcome;
+
+/**
+ * Scores a corpus of responses against the {@link ShoppingContract} in
+ * parallel, without the sampling engine.
+ *
+ * <p>Archived responses from earlier runs can be re-scored when the contract
+ * changes. Each response is judged by the same clauses the use case declares -
+ * {@value ShoppingContract#RESPONSE_NOT_EMPTY} and
+ * {@value ShoppingContract#VALID_JSON} always, and the clauses derived from
+ * the parsed translation only when it parses - and the report counts failures
+ * per clause, as {@code failuresByPostcondition()} would.
+ *
+ * <p>Responses are validated on a {@link ForkJoinPool}. Each worker tallies
+ * its own counts, which are merged once at the end, and reuses its own parse
+ * buffers: {@link ShoppingActionValidator} keeps a scratch buffer per thread,
+ * and Jackson recycles its parser buffers per thread.
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * BatchShoppingValidator.Report report = new BatchShoppingValidator()
+ *         .validateFile(Path.of("responses.jsonl"));
+ * report.failuresByClause().forEach((clause, count) -> ...);
+ * }</pre>
+ */
+public final class BatchShoppingValidator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a batch validator that runs on the common fork-join pool.
+     */
+    public BatchShoppingValidator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a batch validator.
+     *
+     * @param pool the pool to validate on
+     */
+    public BatchShoppingValidator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * The result of scoring a corpus.
+     *
+     * @param samples the number of responses scored
+     * @param passed the number that passed every clause evaluated
+     * @param failuresByClause failure counts keyed by clause name, in
+     *        {@link ShoppingContract#CLAUSES} order; every clause is present
+     */
+    public record Report(long samples, long passed, Map<String, Long> failuresByClause) {
+
+        public Report {
+            failuresByClause = Collections.unmodifiableMap(new LinkedHashMap<>(failuresByClause));
+        }
+
+        /**
+         * Returns the fraction of responses that passed.
+         *
+         * @return the pass rate in [0, 1], or 0 for an empty corpus
+         */
+        public double passRate() {
+            return samples == 0 ? 0.0 : (double) passed / samples;
+        }
+    }
+
+    /**
+     * Scores a collection of responses.
+     *
+     * @param responses the raw responses
+     * @return the report
+     */
+    public Report validate(Collection<String> responses) {
+        return validate(responses.stream());
+    }
+
+    /**
+     * Scores a stream of responses. The stream is consumed in parallel.
+     *
+     * @param responses the raw responses
+     * @return the report
+     */
+    public Report validate(Stream<String> responses) {
+        return pool.submit(() -> responses.parallel().collect(Tally::new, Tally::add, Tally::merge))
+                .join()
+                .report();
+    }
+
+    /**
+     * Scores the responses in a JSON Lines file, one JSON string per line.
+     * Blank lines are skipped.
+     *
+     * @param file the file to read
+     * @return the report
+     * @throws IOException if the file cannot be read or a line is not a JSON string
+     */
+    public Report validateFile(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return validate(lines.filter(line -> !line.isBlank()).map(BatchShoppingValidator::decodeLine));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String decodeLine(String line) {
+        try {
+            return MAPPER.readValue(line, String.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One worker's counts.
+     */
+    private static final class Tally {
+
+        private long samples;
+        private long passed;
+        private final long[] failures = new long[ShoppingContract.CLAUSES.size()];
+
+        void add(String response) {
+            samples++;
+            ShoppingContract.Verdict verdict = ShoppingContract.evaluate(response);
+            for (int clause = 0; clause < failures.length; clause++) {
+                if (verdict.outcome(clause) instanceof Outcome.Fail<?>) {
+                    failures[clause]++;
+                }
+            }
+            if (verdict.passed()) {
+                passed++;
+            }
+        }
+
+        void merge(Tally other) {
+            samples += other.samples;
+            passed += other.passed;
+            for (int i = 0; i < failures.length; i++) {
+                failures[i] += other.failures[i];
+            }
+        }
+
+        Report report() {
+            Map<String, Long> byClause = new LinkedHashMap<>();
+            List<String> clauses = ShoppingContract.CLAUSES;
+            for (int i = 0; i < clauses.size(); i++) {
+                byClause.put(clauses.get(i), failures[i]);
+            }
+            return new Report(samples, passed, byClause);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.llm.ChatResponse;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+
+/**
+ * Memoises {@link ShoppingActionValidator} outcomes by response content.
+ *
+ * <p>At low temperatures most responses in a measure run are byte-identical,
+ * yet each would otherwise be parsed and bound afresh. This validator answers
+ * a repeated response with the outcome computed the first time; outcomes and
+ * the translations they carry are immutable, so one instance can be shared by
+ * every sample that produced the same text.
+ *
+ * <p>The cache is a bounded LRU map keyed by a 128-bit
+ * {@link ResponseFingerprint} of the content rather than the content itself,
+ * so an entry costs the same however long the response. Hit and miss counts
+ * are exposed so that callers can confirm the cache is doing useful work.
+ *
+ * <p>Responses are validated into a {@link TranslationView}, which
+ * {@link #view(String)} returns as is; {@link #parse(String)} answers with the
+ * view's translation, built the first time a caller asks for it.
+ */
+public final class CachingShoppingActionValidator {
+
+    /** Default number of distinct responses remembered. */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final Map<ResponseFingerprint, Entry> cache;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a caching validator remembering up to
+     * {@value #DEFAULT_MAX_ENTRIES} distinct responses.
+     */
+    public CachingShoppingActionValidator() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a caching validator.
+     *
+     * @param maxEntries the maximum number of distinct responses to remember
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public CachingShoppingActionValidator(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive, got " + maxEntries);
+        }
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ResponseFingerprint, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Parses and validates a chat response as shopping actions.
+     *
+     * @param response the chat response containing JSON content
+     * @return the outcome {@link ShoppingActionValidator#validate(ChatResponse)} would return
+     */
+    public Outcome<BasketTranslation> validate(ChatResponse response) {
+        return parse(response.content());
+    }
+
+    /**
+     * Parses and validates a JSON string as shopping actions, answering from
+     * the cache when the same content has been seen before.
+     *
+     * @param json the JSON content to parse
+     * @return the outcome {@link ShoppingActionValidator#parse(String)} would return
+     */
+    public Outcome<BasketTranslation> parse(String json) {
+        if (json == null) {
+            return ShoppingActionValidator.parse(null);
+        }
+        return lookup(json).translation();
+    }
+
+    /**
+     * Parses and validates a JSON string as a {@link TranslationView},
+     * answering from the cache when the same content has been seen before.
+     *
+     * @param json the JSON content to parse
+     * @return the outcome {@link ShoppingActionValidator#view(String)} would return
+     */
+    public Outcome<TranslationView> view(String json) {
+        if (json == null) {
+            return ShoppingActionValidator.view(null);
+        }
+        return lookup(json).view;
+    }
+
+    private Entry lookup(String json) {
+        ResponseFingerprint fingerprint = ResponseFingerprint.of(json);
+        synchronized (cache) {
+            Entry cached = cache.get(fingerprint);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+        }
+        // Validate outside the lock; a concurrent miss on the same response
+        // merely validates it twice.
+        Entry entry = new Entry(ShoppingActionValidator.view(json));
+        synchronized (cache) {
+            misses++;
+            cache.put(fingerprint, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the cache hit count
+     */
+    public long hitCount() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    /**
+     * Returns the number of lookups that had to be validated.
+     *
+     * @return the cache miss count
+     */
+    public long missCount() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    /**
+     * Returns the fraction of lookups answered from the cache.
+     *
+     * @return the hit rate in [0, 1], or 0 if nothing has been looked up
+     */
+    public double hitRate() {
+        synchronized (cache) {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Returns the number of distinct responses currently remembered.
+     *
+     * @return the cache size
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * A cached view outcome and, once asked for, the matching translation
+     * outcome, so that repeated {@code parse} calls return the same instance.
+     */
+    private static final class Entry {
+
+        private final Outcome<TranslationView> view;
+        // A race merely builds two equal outcomes; outcomes are immutable
+        private Outcome<BasketTranslation> translation;
+
+        Entry(Outcome<TranslationView> view) {
+            this.view = view;
+        }
+
+        Outcome<BasketTranslation> translation() {
+            Outcome<BasketTranslation> built = translation;
+            if (built == null) {
+                built = switch (view) {
+                    case Outcome.Ok<TranslationView> ok -> Outcome.ok(ok.value().translation());
+                    case Outcome.Fail<TranslationView> f -> Outcome.fail(f.failure());
+                };
+                translation = built;
+            }
+            return built;
+        }
+    }
+}
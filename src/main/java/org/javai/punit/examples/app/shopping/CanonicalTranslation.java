@@ -0,0 +1,250 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import org.javai.punit.examples.app.shopping.ShoppingAction.AppContext;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+
+/**
+ * A {@link BasketTranslation} reduced to a normal form, so that translations
+ * which mean the same thing compare equal.
+ *
+ * <p>Normalisation:
+ * <ul>
+ *   <li>action names are already canonical (see {@link ShoppingAction});
+ *       parameter names are trimmed and lower-cased</li>
+ *   <li>a {@code quantity} that reads as a number is written in plain decimal
+ *       form, so {@code "02"}, {@code " 2 "} and {@code "2.0"} are all
+ *       {@code "2"}</li>
+ *   <li>other values are trimmed and lower-cased, matching how
+ *       {@link ShoppingBasket} treats item names</li>
+ *   <li>each action's parameters are sorted by name, then value</li>
+ * </ul>
+ * Action order is kept: "add then clear" and "clear then add" differ.
+ *
+ * <p>The normal form is rendered once to a string ({@link #form()}) and
+ * fingerprinted, so {@link #matches} compares two pairs of longs.
+ * {@link #diff} walks the structure and is meant for the mismatch path only.
+ */
+public final class CanonicalTranslation {
+
+    private static final String QUANTITY = "quantity";
+
+    private static final Comparator<Parameter> PARAMETER_ORDER =
+            Comparator.comparing(Parameter::name).thenComparing(Parameter::value);
+
+    /**
+     * A normalised action.
+     *
+     * @param context the action's context
+     * @param name the canonical action name
+     * @param parameters the normalised parameters, sorted
+     */
+    public record Action(AppContext context, String name, List<Parameter> parameters) {
+
+        public Action {
+            parameters = List.copyOf(parameters);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            appendTo(out);
+            return out.toString();
+        }
+
+        private void appendTo(StringBuilder out) {
+            out.append(context).append('.').append(name).append('{');
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                parameters.get(i).appendTo(out);
+            }
+            out.append('}');
+        }
+    }
+
+    /**
+     * A normalised parameter.
+     *
+     * @param name the trimmed, lower-cased name
+     * @param value the normalised value
+     */
+    public record Parameter(String name, String value) {
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            appendTo(out);
+            return out.toString();
+        }
+
+        private void appendTo(StringBuilder out) {
+            quote(name, out);
+            out.append('=');
+            quote(value, out);
+        }
+    }
+
+    private final List<Action> actions;
+    private final String form;
+    private final ResponseFingerprint fingerprint;
+
+    private CanonicalTranslation(List<Action> actions) {
+        this.actions = List.copyOf(actions);
+        StringBuilder out = new StringBuilder();
+        for (Action action : this.actions) {
+            action.appendTo(out);
+            out.append(';');
+        }
+        this.form = out.toString();
+        this.fingerprint = ResponseFingerprint.of(form);
+    }
+
+    /**
+     * Normalises a translation.
+     *
+     * @param translation the translation to normalise
+     * @return its canonical form
+     */
+    public static CanonicalTranslation of(BasketTranslation translation) {
+        List<Action> actions = new ArrayList<>(translation.actions().size());
+        for (ShoppingAction action : translation.actions()) {
+            List<Parameter> parameters = new ArrayList<>(action.parameters().size());
+            for (ShoppingActionParameter parameter : action.parameters()) {
+                parameters.add(normalise(parameter));
+            }
+            parameters.sort(PARAMETER_ORDER);
+            actions.add(new Action(action.context(), action.name(), parameters));
+        }
+        return new CanonicalTranslation(actions);
+    }
+
+    /**
+     * Returns the normalised actions, in their original order.
+     *
+     * @return the actions
+     */
+    public List<Action> actions() {
+        return actions;
+    }
+
+    /**
+     * Returns the normal form rendered as a string, the input to the fingerprint.
+     *
+     * @return the canonical string form
+     */
+    public String form() {
+        return form;
+    }
+
+    /**
+     * Returns true if this translation has the same normal form as another,
+     * by comparing precomputed fingerprints.
+     *
+     * @param other the translation to compare with
+     * @return true if both normalise identically
+     */
+    public boolean matches(CanonicalTranslation other) {
+        return fingerprint.equals(other.fingerprint);
+    }
+
+    /**
+     * Describes how this translation differs from an expected one, action by
+     * action and parameter by parameter.
+     *
+     * @param expected the expected translation
+     * @return one line per difference; empty if the translations match
+     */
+    public List<String> diff(CanonicalTranslation expected) {
+        List<String> differences = new ArrayList<>();
+        List<Action> wanted = expected.actions;
+        if (wanted.size() != actions.size()) {
+            differences.add("Expected %d action(s), got %d".formatted(wanted.size(), actions.size()));
+        }
+        int common = Math.min(wanted.size(), actions.size());
+        for (int i = 0; i < common; i++) {
+            diffAction(i, wanted.get(i), actions.get(i), differences);
+        }
+        for (int i = common; i < wanted.size(); i++) {
+            differences.add("Action[%d]: missing %s".formatted(i, wanted.get(i)));
+        }
+        for (int i = common; i < actions.size(); i++) {
+            differences.add("Action[%d]: unexpected %s".formatted(i, actions.get(i)));
+        }
+        return differences;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CanonicalTranslation other && fingerprint.equals(other.fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return fingerprint.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return form;
+    }
+
+    private static void diffAction(int index, Action expected, Action actual, List<String> differences) {
+        if (expected.context() != actual.context() || !expected.name().equals(actual.name())) {
+            differences.add("Action[%d]: expected %s.%s, got %s.%s".formatted(
+                    index, expected.context(), expected.name(), actual.context(), actual.name()));
+        }
+        // Both parameter lists are sorted by name, so a merge walk pairs them up
+        List<Parameter> wanted = expected.parameters();
+        List<Parameter> got = actual.parameters();
+        int w = 0;
+        int g = 0;
+        while (w < wanted.size() || g < got.size()) {
+            int order = w == wanted.size() ? 1
+                    : g == got.size() ? -1
+                    : wanted.get(w).name().compareTo(got.get(g).name());
+            if (order < 0) {
+                differences.add("Action[%d]: missing parameter %s".formatted(index, wanted.get(w++)));
+            } else if (order > 0) {
+                differences.add("Action[%d]: unexpected parameter %s".formatted(index, got.get(g++)));
+            } else {
+                Parameter want = wanted.get(w++);
+                Parameter have = got.get(g++);
+                if (!want.value().equals(have.value())) {
+                    differences.add("Action[%d]: expected %s, got %s".formatted(index, want, have));
+                }
+            }
+        }
+    }
+
+    private static Parameter normalise(ShoppingActionParameter parameter) {
+        String name = parameter.name().trim().toLowerCase(Locale.ROOT);
+        String value = parameter.value().trim();
+        // Exponent forms are left as text: "1e999999" would expand to a million digits
+        if (QUANTITY.equals(name) && value.indexOf('e') < 0 && value.indexOf('E') < 0) {
+            try {
+                value = new BigDecimal(value).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                // Not numeric; compared as text
+            }
+        }
+        return new Parameter(name, value.toLowerCase(Locale.ROOT));
+    }
+
+    private static void quote(String text, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,76 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.Arrays;
+
+/**
+ * Locates JSON objects embedded in free text.
+ *
+ * <p>LLMs often wrap the JSON they were asked for in prose ("Sure thing! The
+ * JSON for your request is: ..."). This scanner finds the outermost balanced
+ * {@code {...}} spans in one pass over the text, without parsing them: braces
+ * are matched with a stack of open positions, and inside an object string
+ * literals (with their escapes) are skipped so that braces in values do not
+ * count. Outside any object, quotes are ordinary prose.
+ *
+ * <p>An opening brace that is never closed does not by itself hide the
+ * objects after it: every closed object not inside another closed object is
+ * reported, including one nested in an unclosed brace. Prose quotes after
+ * such a brace are read as string delimiters, though, and can put later
+ * text out of step; a scan that finds nothing usable simply yields no
+ * recovery.
+ */
+final class EmbeddedJson {
+
+    private static final int[] NONE = new int[0];
+
+    private EmbeddedJson() {
+    }
+
+    /**
+     * Returns the outermost balanced objects in the text, in order, as
+     * {@code [start0, end0, start1, end1, ...]} with each end exclusive.
+     *
+     * @param text the text to scan
+     * @return the object spans; empty if the text holds no balanced object
+     */
+    static int[] objectSpans(CharSequence text) {
+        int[] open = new int[8];
+        int depth = 0;
+        int[] spans = NONE;
+        int spanCount = 0;
+        boolean inString = false;
+
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '{') {
+                if (depth == open.length) {
+                    open = Arrays.copyOf(open, depth * 2);
+                }
+                open[depth++] = i;
+            } else if (depth > 0) {
+                if (c == '"') {
+                    inString = true;
+                } else if (c == '}') {
+                    int start = open[--depth];
+                    // This object contains any spans recorded since its brace opened
+                    while (spanCount > 0 && spans[spanCount - 2] > start) {
+                        spanCount -= 2;
+                    }
+                    if (spanCount == spans.length) {
+                        spans = Arrays.copyOf(spans, Math.max(4, spanCount * 2));
+                    }
+                    spans[spanCount++] = start;
+                    spans[spanCount++] = i + 1;
+                }
+            }
+        }
+        return spanCount == spans.length ? spans : Arrays.copyOf(spans, spanCount);
+    }
+}
@@ -0,0 +1,145 @@
+package org.javai.punit.examples.app.shopping;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+
+/**
+ * Expected translations for known instructions, compared in canonical form.
+ *
+ * <p>Each expected translation is parsed and normalised once, when the
+ * answers are loaded. Checking a response then costs one normalisation and a
+ * fingerprint comparison; the structural diff is only computed for a
+ * mismatch, to explain it.
+ *
+ * <p>The JSON form is the one used by {@code fixtures/shopping-instructions.json}:
+ * <pre>{@code
+ * [
+ *   {"instruction": "Add some apples", "expected": "{\"actions\":[...]}"},
+ *   ...
+ * ]
+ * }</pre>
+ */
+public final class GoldenAnswers {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, CanonicalTranslation> answers;
+
+    private GoldenAnswers(Map<String, CanonicalTranslation> answers) {
+        this.answers = answers;
+    }
+
+    /**
+     * Creates golden answers from instruction and expected-response pairs.
+     *
+     * @param expectedByInstruction the expected JSON response for each instruction
+     * @return the golden answers, in the map's iteration order
+     * @throws IllegalArgumentException if an expected response is not a valid translation, or fails a
+     *         {@link ShoppingContract} clause
+     */
+    public static GoldenAnswers of(Map<String, String> expectedByInstruction) {
+        Map<String, CanonicalTranslation> answers = new LinkedHashMap<>();
+        expectedByInstruction.forEach((instruction, expected) ->
+                answers.put(instruction, canonicalExpected(instruction, expected)));
+        return new GoldenAnswers(answers);
+    }
+
+    /**
+     * Loads golden answers from JSON.
+     *
+     * @param json the answer document, UTF-8 encoded
+     * @return the golden answers, in document order
+     * @throws IOException if the document cannot be read or parsed
+     * @throws IllegalArgumentException if an expected response is not a valid translation, or fails a
+     *         {@link ShoppingContract} clause
+     */
+    public static GoldenAnswers load(InputStream json) throws IOException {
+        List<Entry> entries = MAPPER.readValue(json, new TypeReference<List<Entry>>() {});
+        Map<String, String> expectedByInstruction = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            if (entry.instruction() == null || entry.expected() == null) {
+                throw new IllegalArgumentException("Golden answer needs an instruction and an expected response");
+            }
+            expectedByInstruction.put(entry.instruction(), entry.expected());
+        }
+        return of(expectedByInstruction);
+    }
+
+    /**
+     * Returns the instructions that have a golden answer.
+     *
+     * @return the instructions, in load order
+     */
+    public List<String> instructions() {
+        return List.copyOf(answers.keySet());
+    }
+
+    /**
+     * Returns the canonical expected translation for an instruction.
+     *
+     * @param instruction the instruction
+     * @return the expected translation, or empty if there is none
+     */
+    public Optional<CanonicalTranslation> expected(String instruction) {
+        return Optional.ofNullable(answers.get(instruction));
+    }
+
+    /**
+     * Checks a translation against the golden answer for its instruction.
+     *
+     * @param instruction the instruction the translation was produced from
+     * @param actual the translation produced
+     * @return ok if the translation matches in canonical form, otherwise a
+     *         failure listing the differences
+     */
+    public Outcome<Void> check(String instruction, BasketTranslation actual) {
+        CanonicalTranslation expected = answers.get(instruction);
+        if (expected == null) {
+            return Outcome.fail("no-golden-answer",
+                    "No golden answer for instruction '%s'".formatted(instruction));
+        }
+        CanonicalTranslation canonical = CanonicalTranslation.of(actual);
+        if (canonical.matches(expected)) {
+            return Outcome.ok();
+        }
+        return Outcome.fail("golden-mismatch", String.join("; ", canonical.diff(expected)));
+    }
+
+    /**
+     * Returns the number of golden answers.
+     *
+     * @return the answer count
+     */
+    public int size() {
+        return answers.size();
+    }
+
+    private static CanonicalTranslation canonicalExpected(String instruction, String expected) {
+        CanonicalTranslation canonical = switch (ShoppingActionValidator.parse(expected)) {
+            case Outcome.Ok<BasketTranslation> ok -> CanonicalTranslation.of(ok.value());
+            case Outcome.Fail<BasketTranslation> f -> throw new IllegalArgumentException(
+                    "Golden answer for '%s' is not a valid translation: %s"
+                            .formatted(instruction, f.failure().message()));
+        };
+        // A matching response is then sure to pass the shape clauses too
+        if (!ShoppingContract.evaluate(expected).passed()) {
+            throw new IllegalArgumentException(
+                    "Golden answer for '%s' does not satisfy the shopping contract".formatted(instruction));
+        }
+        return canonical;
+    }
+
+    private record Entry(
+            @JsonProperty("instruction") String instruction,
+            @JsonProperty("expected") String expected
+    ) {}
+}
@@ -0,0 +1,463 @@
+package org.javai.punit.examples.app.shopping;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+
+/**
+ * Validates an LLM response as it arrives, chunk by chunk.
+ *
+ * <p>Applies the same rules as {@link ShoppingActionValidator}, but reports
+ * after every chunk whether the response is still {@link State#VIABLE viable},
+ * already {@link State#INVALID invalid}, or {@link State#COMPLETE complete}. A
+ * streaming source can therefore stop consuming output the moment a response
+ * can no longer become valid - a malformed token, a root that is not an
+ * object, an action the context does not allow - rather than waiting for the
+ * full response to validate it.
+ *
+ * <p>Chunks are fed to a single non-blocking Jackson parser, so each byte is
+ * tokenized once however the response is split. Only the tokens of the
+ * action element currently being read are buffered; each element is bound as
+ * soon as it closes, using the same logic as {@link ShoppingActionValidator}.
+ * The non-blocking parser misses a trailing comma whose closing bracket
+ * arrives in a later chunk, so the validator also scans each chunk for a
+ * comma left pending at the end of the previous one.
+ *
+ * <h2>Agreement with ShoppingActionValidator</h2>
+ * <p>The verdict agrees with {@link ShoppingActionValidator#parse(String)} for
+ * any response that names its {@code actions} field once. The reason given
+ * for an invalid response is the first problem found: where the batch
+ * validator lists every invalid action, this one stops at the first. A
+ * response that repeats {@code actions} is judged by the batch validator on
+ * its last occurrence, which an early verdict cannot anticipate.
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * IncrementalShoppingActionValidator validator = new IncrementalShoppingActionValidator();
+ * for (String chunk : stream) {
+ *     if (validator.feed(chunk) != State.VIABLE) {
+ *         break;
+ *     }
+ * }
+ * validator.finish();
+ * Outcome<BasketTranslation> outcome = validator.outcome();
+ * }</pre>
+ *
+ * <p>Instances are single-use and not thread-safe.
+ */
+public final class IncrementalShoppingActionValidator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String EXPECTED_OBJECT = "Expected JSON object with 'actions' array";
+    private static final int FENCE_LENGTH = 3;
+
+    /**
+     * What is known about the response so far.
+     */
+    public enum State {
+        /** Everything seen so far is a prefix of some valid response. */
+        VIABLE,
+        /** No continuation can make the response valid. */
+        INVALID,
+        /** The response is valid; anything further is ignored. */
+        COMPLETE
+    }
+
+    /** Position within the leading whitespace and optional code fence. */
+    private enum Preamble { WHITESPACE, BACKTICKS, INFO_STRING, FENCE_WHITESPACE, DONE }
+
+    /** Position within the JSON structure, at the granularity that matters. */
+    private enum Phase { ROOT, FIELDS, ACTIONS_VALUE, SKIPPED_VALUE, SKIPPING, ACTIONS, ELEMENT }
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private State state = State.VIABLE;
+    private Outcome<BasketTranslation> outcome;
+
+    private Preamble preamble = Preamble.WHITESPACE;
+    private int backticks;
+    private boolean sawContent;
+    private char pendingHighSurrogate;
+
+    private boolean inString;
+    private boolean escaped;
+    private boolean pendingComma;
+
+    private Phase phase = Phase.ROOT;
+    private int depth;
+    private List<ShoppingAction> actions;
+    private List<ShoppingAction> completedActions;
+    private TokenBuffer element;
+
+    /**
+     * Creates a validator awaiting the first chunk of a response.
+     */
+    public IncrementalShoppingActionValidator() {
+        try {
+            this.parser = MAPPER.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create non-blocking JSON parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Validates an entire chunked response, consuming chunks only until the
+     * outcome is known.
+     *
+     * @param chunks the response, in order
+     * @return the same outcome {@link #outcome()} would report
+     */
+    public static Outcome<BasketTranslation> validate(Iterator<String> chunks) {
+        IncrementalShoppingActionValidator validator = new IncrementalShoppingActionValidator();
+        while (validator.state() == State.VIABLE && chunks.hasNext()) {
+            validator.feed(chunks.next());
+        }
+        validator.finish();
+        return validator.outcome();
+    }
+
+    /**
+     * Feeds the next chunk of the response. Once the state is no longer
+     * {@link State#VIABLE}, further chunks are ignored.
+     *
+     * @param chunk the next chunk; null is treated as empty
+     * @return the state after consuming the chunk
+     */
+    public State feed(String chunk) {
+        if (state != State.VIABLE || chunk == null || chunk.isEmpty()) {
+            return state;
+        }
+        if (pendingHighSurrogate != 0) {
+            chunk = pendingHighSurrogate + chunk;
+            pendingHighSurrogate = 0;
+        }
+        // A surrogate pair split across chunks must be encoded as a whole
+        if (Character.isHighSurrogate(chunk.charAt(chunk.length() - 1))) {
+            pendingHighSurrogate = chunk.charAt(chunk.length() - 1);
+            chunk = chunk.substring(0, chunk.length() - 1);
+        }
+        consume(chunk);
+        return state;
+    }
+
+    /**
+     * Signals the end of the response and settles its outcome.
+     *
+     * @return {@link State#COMPLETE} or {@link State#INVALID}
+     */
+    public State finish() {
+        if (state != State.VIABLE) {
+            return state;
+        }
+        if (pendingHighSurrogate != 0) {
+            consume(String.valueOf(pendingHighSurrogate));
+            pendingHighSurrogate = 0;
+        }
+        if (state == State.VIABLE && preamble == Preamble.BACKTICKS) {
+            feedJson("`".repeat(backticks));
+        }
+        if (state == State.VIABLE) {
+            if (!sawContent) {
+                fail("Response content is null or blank");
+            } else {
+                feeder.endOfInput();
+                drain();
+                if (state == State.VIABLE) {
+                    fail(EXPECTED_OBJECT);
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Returns what is known about the response so far.
+     *
+     * @return the current state
+     */
+    public State state() {
+        return state;
+    }
+
+    /**
+     * Returns the outcome of validation, with the same failure reasons as
+     * {@link ShoppingActionValidator}.
+     *
+     * @return the translation if complete, or the failure if invalid
+     * @throws IllegalStateException if the response is still viable
+     */
+    public Outcome<BasketTranslation> outcome() {
+        if (state == State.VIABLE) {
+            throw new IllegalStateException("Response is still viable; feed more chunks or call finish()");
+        }
+        return outcome;
+    }
+
+    private void consume(String chunk) {
+        int start = skipPreamble(chunk);
+        if (start < chunk.length()) {
+            feedJson(chunk.substring(start));
+        }
+    }
+
+    /**
+     * Consumes leading whitespace and an opening code fence (``` or
+     * ```json) exactly as {@link ShoppingActionValidator} strips them, and
+     * returns the offset in {@code chunk} at which JSON content begins.
+     */
+    private int skipPreamble(String chunk) {
+        int i = 0;
+        int length = chunk.length();
+        while (i < length && preamble != Preamble.DONE) {
+            char c = chunk.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sawContent = true;
+            }
+            switch (preamble) {
+                case WHITESPACE -> {
+                    if (c == '`') {
+                        preamble = Preamble.BACKTICKS;
+                        backticks = 0;
+                    } else if (c > ' ') {
+                        preamble = Preamble.DONE;
+                        return i;
+                    } else {
+                        i++;
+                    }
+                }
+                case BACKTICKS -> {
+                    if (c == '`') {
+                        backticks++;
+                        i++;
+                        if (backticks == FENCE_LENGTH) {
+                            preamble = Preamble.INFO_STRING;
+                        }
+                    } else {
+                        // Not a fence after all: the backticks are content
+                        preamble = Preamble.DONE;
+                        feedJson("`".repeat(backticks));
+                        return i;
+                    }
+                }
+                case INFO_STRING -> {
+                    if (ShoppingActionValidator.isWordChar(c)) {
+                        i++;
+                    } else {
+                        preamble = Preamble.FENCE_WHITESPACE;
+                    }
+                }
+                case FENCE_WHITESPACE -> {
+                    if (ShoppingActionValidator.isFenceWhitespace(c)) {
+                        i++;
+                    } else {
+                        preamble = Preamble.DONE;
+                        return i;
+                    }
+                }
+                case DONE -> {
+                    return i;
+                }
+            }
+        }
+        return i;
+    }
+
+    private void feedJson(String json) {
+        if (state != State.VIABLE) {
+            return;
+        }
+        char closer = closesAfterComma(json);
+        if (closer != 0) {
+            fail("Invalid JSON: Unexpected character ('" + closer + "'): trailing comma");
+            return;
+        }
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+        } catch (IOException e) {
+            fail("Invalid JSON: " + e.getMessage());
+            return;
+        }
+        drain();
+    }
+
+    /**
+     * Returns the bracket that closes an object or array straight after a
+     * comma, or 0 if there is none, tracking strings and the last significant
+     * character across chunks.
+     */
+    private char closesAfterComma(String json) {
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c > ' ') {
+                if (pendingComma && (c == '}' || c == ']')) {
+                    return c;
+                }
+                pendingComma = c == ',';
+                inString = c == '"';
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads every token the input fed so far makes available.
+     */
+    private void drain() {
+        try {
+            JsonToken token;
+            while (state == State.VIABLE
+                    && (token = parser.nextToken()) != null
+                    && token != JsonToken.NOT_AVAILABLE) {
+                accept(token);
+            }
+        } catch (IOException e) {
+            fail("Invalid JSON: " + e.getMessage());
+        }
+    }
+
+    private void accept(JsonToken token) throws IOException {
+        switch (phase) {
+            case ROOT -> {
+                if (token != JsonToken.START_OBJECT) {
+                    fail(EXPECTED_OBJECT);
+                } else {
+                    phase = Phase.FIELDS;
+                }
+            }
+            case FIELDS -> {
+                if (token == JsonToken.END_OBJECT) {
+                    complete();
+                } else {
+                    phase = "actions".equals(parser.currentName()) ? Phase.ACTIONS_VALUE : Phase.SKIPPED_VALUE;
+                }
+            }
+            case ACTIONS_VALUE -> {
+                if (token == JsonToken.START_ARRAY) {
+                    actions = new ArrayList<>();
+                    phase = Phase.ACTIONS;
+                } else {
+                    fail("Expected 'actions' to be an array");
+                }
+            }
+            case SKIPPED_VALUE -> {
+                if (token.isStructStart()) {
+                    depth = 1;
+                    phase = Phase.SKIPPING;
+                } else {
+                    phase = Phase.FIELDS;
+                }
+            }
+            case SKIPPING -> {
+                depth += nesting(token);
+                if (depth == 0) {
+                    phase = Phase.FIELDS;
+                }
+            }
+            case ACTIONS -> {
+                if (token == JsonToken.END_ARRAY) {
+                    if (actions.isEmpty()) {
+                        fail("Empty actions array");
+                    } else {
+                        completedActions = actions;
+                        phase = Phase.FIELDS;
+                    }
+                } else {
+                    element = new TokenBuffer(parser);
+                    element.copyCurrentEvent(parser);
+                    if (token.isStructStart()) {
+                        depth = 1;
+                        phase = Phase.ELEMENT;
+                    } else {
+                        bindElement();
+                    }
+                }
+            }
+            case ELEMENT -> {
+                element.copyCurrentEvent(parser);
+                depth += nesting(token);
+                if (depth == 0) {
+                    bindElement();
+                    phase = Phase.ACTIONS;
+                }
+            }
+        }
+    }
+
+    /**
+     * Binds the buffered action element, building it directly where possible
+     * and falling back to data binding for its failure message.
+     */
+    private void bindElement() throws IOException {
+        int index = actions.size();
+        ShoppingAction action = null;
+        try (JsonParser tokens = element.asParser()) {
+            if (tokens.nextToken() == JsonToken.START_OBJECT) {
+                action = ShoppingActionValidator.readAction(tokens);
+            }
+        }
+        if (action != null) {
+            actions.add(action);
+        } else {
+            List<String> errors = new ArrayList<>(1);
+            try (JsonParser tokens = element.asParser()) {
+                ShoppingActionValidator.bindAction(MAPPER.readTree(tokens), index, actions, errors);
+            }
+            if (!errors.isEmpty()) {
+                fail(errors.getFirst());
+            }
+        }
+        element = null;
+    }
+
+    private static int nesting(JsonToken token) {
+        if (token.isStructStart()) {
+            return 1;
+        }
+        return token.isStructEnd() ? -1 : 0;
+    }
+
+    private void complete() {
+        if (completedActions == null) {
+            fail(EXPECTED_OBJECT);
+            return;
+        }
+        settle(State.COMPLETE, Outcome.ok(BasketTranslation.of(completedActions)));
+    }
+
+    private void fail(String reason) {
+        settle(State.INVALID, Outcome.fail("validation", reason));
+    }
+
+    private void settle(State settled, Outcome<BasketTranslation> settledOutcome) {
+        state = settled;
+        outcome = settledOutcome;
+        element = null;
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // Nothing to release beyond the parser's own buffers
+        }
+    }
+}
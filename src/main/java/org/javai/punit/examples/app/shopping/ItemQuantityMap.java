@@ -0,0 +1,158 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from item name to an {@code int} quantity.
+ *
+ * <p>Keys and quantities live in parallel arrays, probed linearly, so a
+ * lookup or update allocates nothing and never boxes a quantity. Removal
+ * shifts later entries of the probe run back rather than leaving tombstones,
+ * so a basket that churns through items does not degrade. Not thread-safe:
+ * each map has a single writer (see {@link ShoppingBasketEngine}).
+ */
+final class ItemQuantityMap {
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int MAX_LOAD_PERCENT = 60;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the quantity held for {@code key}, or 0 if absent.
+     */
+    int get(String key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    /**
+     * Sets the quantity for {@code key}; a quantity of 0 removes the entry.
+     */
+    void put(String key, int value) {
+        if (value == 0) {
+            remove(key);
+            return;
+        }
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        if ((size + 1) * 100 > keys.length * MAX_LOAD_PERCENT) {
+            resize(keys.length * 2);
+        }
+        insert(key, value);
+        size++;
+    }
+
+    /**
+     * Removes {@code key}, returning its quantity or 0 if absent.
+     */
+    int remove(String key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return 0;
+        }
+        int removed = values[slot];
+        int mask = keys.length - 1;
+        // Shift back later entries of the run that would otherwise become unreachable
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null) {
+            int home = slotOf(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = 0;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the sum of all quantities.
+     */
+    long total() {
+        long total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * Visits every entry, in no particular order.
+     */
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Receives an item and its quantity without boxing.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(String key, int value);
+    }
+
+    private int find(String key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        String candidate;
+        while ((candidate = keys[slot]) != null) {
+            if (candidate.equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(String key, int value) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (keys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new String[capacity];
+        values = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int slotOf(String key, int mask) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
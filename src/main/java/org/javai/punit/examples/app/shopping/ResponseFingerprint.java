@@ -0,0 +1,102 @@
+package org.javai.punit.examples.app.shopping;
+
+/**
+ * A 128-bit fingerprint of a response's content, computed with MurmurHash3
+ * (x64, 128-bit variant) over its UTF-16 code units.
+ *
+ * <p>Used as a cache key in place of the content itself: at 128 bits the
+ * chance of two distinct responses in a run colliding is negligible, and the
+ * key is two longs however long the response is.
+ *
+ * @param high the upper 64 bits
+ * @param low the lower 64 bits
+ */
+record ResponseFingerprint(long high, long low) {
+
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+    private static final int CHARS_PER_BLOCK = 8;
+
+    /**
+     * Fingerprints the given content.
+     *
+     * @param content the response content
+     * @return its fingerprint
+     */
+    static ResponseFingerprint of(String content) {
+        int length = content.length();
+        long h1 = 0;
+        long h2 = 0;
+
+        int blocks = length / CHARS_PER_BLOCK;
+        for (int block = 0; block < blocks; block++) {
+            int i = block * CHARS_PER_BLOCK;
+            long k1 = pack(content, i);
+            long k2 = pack(content, i + 4);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52DCE729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495AB5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * CHARS_PER_BLOCK;
+        for (int i = length - 1; i >= tail; i--) {
+            int shift = ((i - tail) % 4) * 16;
+            if (i - tail >= 4) {
+                k2 |= (long) content.charAt(i) << shift;
+            } else {
+                k1 |= (long) content.charAt(i) << shift;
+            }
+        }
+        if (length > tail + 4) {
+            h2 ^= mixK2(k2);
+        }
+        if (length > tail) {
+            h1 ^= mixK1(k1);
+        }
+
+        long bytes = 2L * length;
+        h1 ^= bytes;
+        h2 ^= bytes;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new ResponseFingerprint(h1, h2);
+    }
+
+    private static long pack(String content, int i) {
+        return content.charAt(i)
+                | (long) content.charAt(i + 1) << 16
+                | (long) content.charAt(i + 2) << 32
+                | (long) content.charAt(i + 3) << 48;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        return k ^ (k >>> 33);
+    }
+}
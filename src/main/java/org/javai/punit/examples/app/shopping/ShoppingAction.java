@@ -1,6 +1,7 @@
 package org.javai.punit.examples.app.shopping;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 import java.util.Set;
@@ -12,28 +13,66 @@ import java.util.Set;
  * action names. This allows the same DSL structure to support different areas of the
  * application (e.g., basket operations vs recipe suggestions).
  *
+ * <p>Action names are matched case-insensitively and interned: an action carries
+ * the canonical (declared) spelling of its name together with the name's
+ * {@linkplain AppContext#actionCode(CharSequence) code} in its context, so later
+ * checks can compare small integers rather than strings.
+ *
  * @param context the application context this action belongs to
- * @param name the action name (must be valid for the given context)
+ * @param name the canonical action name (must be valid for the given context)
  * @param parameters the action parameters
+ * @param code the action's code within its context
  */
 public record ShoppingAction(
         @JsonProperty("context") AppContext context,
         @JsonProperty("name") String name,
-        @JsonProperty("parameters") List<ShoppingActionParameter> parameters
+        @JsonProperty("parameters") List<ShoppingActionParameter> parameters,
+        @JsonIgnore int code
 ) {
 
     /**
-     * Compact constructor that validates the action name against the context.
+     * Compact constructor that validates the action name and code against the
+     * context, and canonicalises the name.
      */
     public ShoppingAction {
-        if (!context.isValidAction(name)) {
+        if (!context.isValidActionCode(code) || !context.actionName(code).equalsIgnoreCase(name)) {
             throw new IllegalArgumentException(
                     "Invalid action '%s' for context %s. Valid actions: %s"
                             .formatted(name, context, context.validActions()));
         }
+        name = context.actionName(code);
         parameters = List.copyOf(parameters);
     }
 
+    /**
+     * Creates an action, resolving its code from the name.
+     *
+     * @param context the application context this action belongs to
+     * @param name the action name, in any case
+     * @param parameters the action parameters
+     * @throws IllegalArgumentException if the name is not valid for the context
+     */
+    public ShoppingAction(AppContext context, String name, List<ShoppingActionParameter> parameters) {
+        this(context, name, parameters, context.actionCode(name));
+    }
+
+    /**
+     * Creates an action from a code already resolved against the context.
+     *
+     * @param context the application context this action belongs to
+     * @param code the action's code within its context
+     * @param parameters the action parameters
+     * @return the action
+     * @throws IllegalArgumentException if the code is not valid for the context
+     */
+    public static ShoppingAction of(AppContext context, int code, List<ShoppingActionParameter> parameters) {
+        if (!context.isValidActionCode(code)) {
+            throw new IllegalArgumentException(
+                    "Invalid action code %d for context %s".formatted(code, context));
+        }
+        return new ShoppingAction(context, context.actionName(code), parameters, code);
+    }
+
     /**
      * JSON deserialization constructor.
      */
@@ -60,9 +99,11 @@ public record ShoppingAction(
         RECIPE("suggest", "filter", "save", "share");
 
         private final Set<String> validActions;
+        private final ActionVocabulary vocabulary;
 
         AppContext(String... actions) {
             this.validActions = Set.of(actions);
+            this.vocabulary = new ActionVocabulary(actions);
         }
 
         /**
@@ -72,7 +113,53 @@ public record ShoppingAction(
          * @return true if the action is valid for this context
          */
         public boolean isValidAction(String action) {
-            return action != null && validActions.contains(action.toLowerCase());
+            return vocabulary.code(action) != ActionVocabulary.NO_CODE;
+        }
+
+        /**
+         * Returns the code of an action name in this context, ignoring case.
+         * Codes number the context's actions from zero in declaration order.
+         *
+         * @param action the action name
+         * @return its code, or -1 if the action is not valid for this context
+         */
+        public int actionCode(CharSequence action) {
+            return vocabulary.code(action);
+        }
+
+        /**
+         * Returns the code of the action name held in
+         * {@code chars[offset, offset + length)}, ignoring case, without
+         * allocating.
+         *
+         * @param chars the buffer holding the name
+         * @param offset the start of the name
+         * @param length the length of the name
+         * @return its code, or -1 if the action is not valid for this context
+         */
+        public int actionCode(char[] chars, int offset, int length) {
+            return vocabulary.code(chars, offset, length);
+        }
+
+        /**
+         * Returns true if the code names an action in this context.
+         *
+         * @param code the code to check
+         * @return true if the code is valid for this context
+         */
+        public boolean isValidActionCode(int code) {
+            return vocabulary.contains(code);
+        }
+
+        /**
+         * Returns the canonical name of the action with the given code.
+         *
+         * @param code the action code
+         * @return the action name as declared
+         * @throws IllegalArgumentException if the code is not valid for this context
+         */
+        public String actionName(int code) {
+            return vocabulary.name(code);
         }
 
         /**
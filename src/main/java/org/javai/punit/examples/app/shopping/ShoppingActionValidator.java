@@ -1,8 +1,11 @@
 package org.javai.punit.examples.app.shopping;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import org.javai.outcome.Outcome;
@@ -13,11 +16,39 @@ import org.javai.punit.examples.app.llm.ChatResponse;
  *
  * <p>This validator attempts to deserialize JSON content into shopping actions,
  * capturing validation failures as {@link Outcome} results rather than exceptions.
+ *
+ * <h2>Single-Pass Parsing</h2>
+ * <p>The validator runs as a postcondition on every sample, so it reads the
+ * response with a streaming {@link JsonParser} in one pass and builds
+ * {@link ShoppingAction}s and {@link ShoppingActionParameter}s directly from
+ * the tokens - no intermediate tree. A surrounding code fence is skipped by
+ * offset rather than stripped into a new string, and the context and action
+ * name are resolved to an {@linkplain ShoppingAction#code() action code} in
+ * place in the parser's character buffer.
+ *
+ * <p>An action element that cannot be built directly - an unknown field, a
+ * non-string value, an invalid action name - is re-read from its span of the
+ * response and handed to Jackson data binding, so failure messages are exactly
+ * those data binding produces. Only failing elements pay for that second read.
  */
 public class ShoppingActionValidator {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private static final ShoppingAction.AppContext[] CONTEXTS = ShoppingAction.AppContext.values();
+    private static final int NO_CODE = -1;
+
+    private static final String FENCE = "```";
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /**
+     * Per-thread scratch buffer the fenced content is copied into for parsing.
+     * Jackson copies {@code String} input into a buffer anyway; reusing one of
+     * our own lets the fence be skipped by offset at no extra cost.
+     */
+    private static final ThreadLocal<char[]> BUFFER =
+            ThreadLocal.withInitial(() -> new char[INITIAL_BUFFER_SIZE]);
+
     /**
      * The result of validating an LLM response.
      *
@@ -29,6 +60,16 @@ public class ShoppingActionValidator {
         }
     }
 
+    /**
+     * The result of validating a response that may embed its JSON in prose.
+     *
+     * @param translation the parsed actions
+     * @param recovered true if the JSON had to be extracted from surrounding
+     *        text; false if the response parsed as it stood
+     */
+    public record LenientTranslation(BasketTranslation translation, boolean recovered) {
+    }
+
     /**
      * Parses and validates a chat response as shopping actions.
      *
@@ -57,53 +98,233 @@ public class ShoppingActionValidator {
             return Outcome.fail("validation", "Response content is null or blank");
         }
 
-        String content = stripCodeFence(json);
+        int start = contentStart(json);
+        return parseRange(json, start, contentEnd(json, start));
+    }
+
+    /**
+     * Parses and validates a response that may wrap its JSON in prose, such
+     * as "Sure thing! The JSON for your request is: {...}".
+     *
+     * <p>The response is first parsed as {@link #parse(String)} would. If that
+     * fails, {@link EmbeddedJson} locates the outermost balanced JSON objects
+     * in the text in a single linear scan, and each is validated in place, in
+     * order, until one yields a translation. Such a translation is marked
+     * {@linkplain LenientTranslation#recovered() recovered}, so callers can
+     * count responses that needed recovery separately from those that were
+     * clean JSON. If no object validates, the failure of the first object
+     * that is well-formed JSON is returned - an invalid action, say - and
+     * only if there is none, the strict failure.
+     *
+     * @param response the response content
+     * @return an outcome containing the translation and whether it was
+     *         recovered from surrounding text, or a failure
+     */
+    public static Outcome<LenientTranslation> parseLenient(String response) {
+        Outcome<BasketTranslation> strict = parse(response);
+        if (strict instanceof Outcome.Ok<BasketTranslation> ok) {
+            return Outcome.ok(new LenientTranslation(ok.value(), false));
+        }
+        if (response != null) {
+            Outcome.Fail<BasketTranslation> embeddedFailure = null;
+            int[] spans = EmbeddedJson.objectSpans(response);
+            for (int i = 0; i < spans.length; i += 2) {
+                Outcome<BasketTranslation> embedded;
+                try {
+                    embedded = validateRange(response, spans[i], spans[i + 1]);
+                } catch (IOException e) {
+                    continue;
+                }
+                switch (embedded) {
+                    case Outcome.Ok<BasketTranslation> ok -> {
+                        return Outcome.ok(new LenientTranslation(ok.value(), true));
+                    }
+                    case Outcome.Fail<BasketTranslation> f -> {
+                        if (embeddedFailure == null) {
+                            embeddedFailure = f;
+                        }
+                    }
+                }
+            }
+            if (embeddedFailure != null) {
+                return Outcome.fail(embeddedFailure.failure());
+            }
+        }
+        return Outcome.fail(((Outcome.Fail<BasketTranslation>) strict).failure());
+    }
 
-        JsonNode root;
+    private static Outcome<BasketTranslation> parseRange(String json, int start, int end) {
         try {
-            root = MAPPER.readTree(content);
-        } catch (JsonProcessingException e) {
+            return validateRange(json, start, end);
+        } catch (IOException e) {
             return Outcome.fail("validation", "Invalid JSON: " + e.getMessage());
         }
+    }
 
-        if (!root.isObject() || !root.has("actions")) {
-            return Outcome.fail("validation", "Expected JSON object with 'actions' array");
-        }
+    /**
+     * Validates {@code json[start, end)}, throwing if it is not JSON at all.
+     */
+    private static Outcome<BasketTranslation> validateRange(String json, int start, int end) throws IOException {
+        char[] buffer = buffer(end - start);
+        json.getChars(start, end, buffer, 0);
 
-        JsonNode actionsNode = root.get("actions");
-        if (!actionsNode.isArray()) {
-            return Outcome.fail("validation", "Expected 'actions' to be an array");
+        try (JsonParser parser = MAPPER.createParser(buffer, 0, end - start)) {
+            return parseRoot(parser, buffer);
         }
+    }
 
-        return parseActionArray(actionsNode);
+    /**
+     * Parses and validates a JSON string as a {@link TranslationView}: the
+     * outcome is the one {@link #parse(String)} returns, but a valid
+     * translation is recorded as offsets into {@code json} and decoded
+     * quantities instead of as records.
+     *
+     * <p>Only responses made entirely of well-formed actions are read this
+     * way. Anything else - a failure, an element that needs data binding, a
+     * duplicated {@code actions} field - is handed to {@link #parse(String)},
+     * so verdicts and failure messages are exactly those of {@code parse}.
+     *
+     * @param json the JSON content to parse
+     * @return an outcome containing a view of the validated translation, or a failure with details
+     */
+    public static Outcome<TranslationView> view(String json) {
+        if (json != null && !json.isBlank()) {
+            int start = contentStart(json);
+            int end = contentEnd(json, start);
+            char[] buffer = buffer(end - start);
+            json.getChars(start, end, buffer, 0);
+
+            TranslationView view;
+            try (JsonParser parser = MAPPER.createParser(buffer, 0, end - start)) {
+                view = viewRoot(parser, new ViewReader(json, buffer, start));
+            } catch (IOException e) {
+                view = null;
+            }
+            if (view != null) {
+                return Outcome.ok(view);
+            }
+        }
+        return switch (parse(json)) {
+            case Outcome.Ok<BasketTranslation> ok -> Outcome.ok(TranslationView.of(ok.value()));
+            case Outcome.Fail<BasketTranslation> f -> Outcome.fail(f.failure());
+        };
     }
 
     /**
-     * Strips a markdown code fence wrapper if the response is
-     * enclosed in one (``` … ``` or ```json … ```). Many LLMs ignore
-     * "JSON only" instructions and gate their output behind a fence;
-     * stripping it here keeps the validator focused on schema
+     * Returns the offset at which content starts once surrounding whitespace
+     * and an opening markdown code fence (``` or ```json) are skipped. Many
+     * LLMs ignore "JSON only" instructions and gate their output behind a
+     * fence; skipping it here keeps the validator focused on schema
      * violations rather than presentation.
      */
-    private static String stripCodeFence(String json) {
-        return json.trim()
-                .replaceFirst("^```\\w*\\s*", "")
-                .replaceFirst("\\s*```$", "");
+    private static int contentStart(String json) {
+        int start = 0;
+        int end = json.length();
+        while (start < end && json.charAt(start) <= ' ') {
+            start++;
+        }
+        if (json.startsWith(FENCE, start)) {
+            start += FENCE.length();
+            while (start < end && isWordChar(json.charAt(start))) {
+                start++;
+            }
+            while (start < end && isFenceWhitespace(json.charAt(start))) {
+                start++;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Returns the offset at which content ends once surrounding whitespace and
+     * a closing code fence are skipped. Never less than {@code start}.
+     */
+    private static int contentEnd(String json, int start) {
+        int end = json.length();
+        while (end > start && json.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start >= FENCE.length() && json.startsWith(FENCE, end - FENCE.length())) {
+            end -= FENCE.length();
+            while (end > start && isFenceWhitespace(json.charAt(end - 1))) {
+                end--;
+            }
+        }
+        return end;
     }
 
-    private static Outcome<BasketTranslation> parseActionArray(JsonNode arrayNode) {
+    static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    static boolean isFenceWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static char[] buffer(int length) {
+        char[] buffer = BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads the root value. Trailing content after it is ignored; syntax
+     * errors anywhere inside it fail the whole response, so the root is
+     * always read to its end even once its outcome is known.
+     */
+    private static Outcome<BasketTranslation> parseRoot(JsonParser parser, char[] buffer) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            skipValue(parser);
+            return Outcome.fail("validation", "Expected JSON object with 'actions' array");
+        }
+
+        // As with a JSON tree, the last occurrence of a duplicated field wins.
+        // Names are read with nextFieldName(), as tree building does, so that
+        // syntax errors are reported with the same wording.
+        Outcome<BasketTranslation> result = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            if (!"actions".equals(field)) {
+                skipValue(parser);
+            } else if (value == JsonToken.START_ARRAY) {
+                result = parseActionArray(parser, buffer);
+            } else {
+                skipValue(parser);
+                result = Outcome.fail("validation", "Expected 'actions' to be an array");
+            }
+        }
+
+        return result != null
+                ? result
+                : Outcome.fail("validation", "Expected JSON object with 'actions' array");
+    }
+
+    private static Outcome<BasketTranslation> parseActionArray(JsonParser parser, char[] buffer) throws IOException {
         List<ShoppingAction> actions = new ArrayList<>();
         List<String> errors = new ArrayList<>();
 
         int index = 0;
-        for (JsonNode node : arrayNode) {
-            try {
-                ShoppingAction action = MAPPER.treeToValue(node, ShoppingAction.class);
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            ShoppingAction action = null;
+            JsonNode node;
+            if (token == JsonToken.START_OBJECT) {
+                int start = (int) parser.currentTokenLocation().getCharOffset();
+                action = readAction(parser);
+                int end = (int) parser.currentTokenLocation().getCharOffset() + 1;
+                node = action == null ? readTree(buffer, start, end) : null;
+            } else {
+                node = MAPPER.readTree(parser);
+            }
+            if (action != null) {
                 actions.add(action);
-            } catch (JsonProcessingException e) {
-                errors.add("Action[%d]: %s".formatted(index, e.getMessage()));
-            } catch (IllegalArgumentException e) {
-                errors.add("Action[%d]: %s".formatted(index, e.getMessage()));
+            } else {
+                bindAction(node, index, actions, errors);
             }
             index++;
         }
@@ -118,4 +339,402 @@ public class ShoppingActionValidator {
 
         return Outcome.ok(BasketTranslation.of(actions));
     }
+
+    /**
+     * Binds an action element that could not be built directly through Jackson
+     * data binding, adding either the action or the failure message for
+     * element {@code index}.
+     */
+    static void bindAction(JsonNode node, int index, List<ShoppingAction> actions, List<String> errors) {
+        try {
+            actions.add(MAPPER.treeToValue(node, ShoppingAction.class));
+        } catch (JsonProcessingException e) {
+            errors.add("Action[%d]: %s".formatted(index, e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            errors.add("Action[%d]: %s".formatted(index, e.getMessage()));
+        }
+    }
+
+    private static JsonNode readTree(char[] buffer, int start, int end) throws IOException {
+        try (JsonParser slice = MAPPER.createParser(buffer, start, end - start)) {
+            return MAPPER.readTree(slice);
+        }
+    }
+
+    /**
+     * Reads an action object, positioned on its {@code START_OBJECT}, through
+     * its {@code END_OBJECT}. Returns {@code null} if the object is not one
+     * that data binding would turn into a valid action without complaint; the
+     * caller then lets data binding produce the failure.
+     */
+    static ShoppingAction readAction(JsonParser parser) throws IOException {
+        ShoppingAction.AppContext context = null;
+        int code = NO_CODE;
+        String deferredName = null;
+        List<ShoppingActionParameter> parameters = List.of();
+        boolean seenContext = false;
+        boolean seenName = false;
+        boolean seenParameters = false;
+        boolean bindable = true;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "context" -> {
+                    context = value == JsonToken.VALUE_STRING ? appContext(parser) : null;
+                    skipValue(parser);
+                    bindable &= !seenContext && context != null;
+                    seenContext = true;
+                }
+                case "name" -> {
+                    // Resolve the name straight from the token's characters when
+                    // the context is already known - the usual field order
+                    if (value != JsonToken.VALUE_STRING) {
+                        bindable = false;
+                    } else if (context != null) {
+                        code = context.actionCode(
+                                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    } else {
+                        deferredName = parser.getText();
+                    }
+                    skipValue(parser);
+                    bindable &= !seenName;
+                    seenName = true;
+                }
+                case "parameters" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        parameters = readParameters(parser);
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        skipValue(parser);
+                        parameters = null;
+                    }
+                    bindable &= !seenParameters && parameters != null;
+                    seenParameters = true;
+                }
+                default -> {
+                    skipValue(parser);
+                    bindable = false;
+                }
+            }
+        }
+
+        if (!bindable || context == null || !seenName) {
+            return null;
+        }
+        if (deferredName != null) {
+            code = context.actionCode(deferredName);
+        }
+        if (!context.isValidActionCode(code)) {
+            return null;
+        }
+        return ShoppingAction.of(context, code, parameters);
+    }
+
+    /**
+     * Reads a parameter array, positioned on its {@code START_ARRAY}, through
+     * its {@code END_ARRAY}. Returns {@code null} if any element is not
+     * directly bindable.
+     */
+    private static List<ShoppingActionParameter> readParameters(JsonParser parser) throws IOException {
+        List<ShoppingActionParameter> parameters = new ArrayList<>();
+        boolean bindable = true;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            ShoppingActionParameter parameter = null;
+            if (token == JsonToken.START_OBJECT) {
+                parameter = readParameter(parser);
+            } else {
+                skipValue(parser);
+            }
+            if (parameter == null) {
+                bindable = false;
+            } else if (bindable) {
+                parameters.add(parameter);
+            }
+        }
+        return bindable ? parameters : null;
+    }
+
+    private static ShoppingActionParameter readParameter(JsonParser parser) throws IOException {
+        String name = null;
+        String value = null;
+        boolean bindable = true;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            String text = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+            skipValue(parser);
+            switch (field) {
+                case "name" -> {
+                    bindable &= name == null && text != null;
+                    name = text;
+                }
+                case "value" -> {
+                    bindable &= value == null && text != null;
+                    value = text;
+                }
+                default -> bindable = false;
+            }
+        }
+
+        if (!bindable || name == null || name.isBlank() || value == null) {
+            return null;
+        }
+        return new ShoppingActionParameter(name, value);
+    }
+
+    /**
+     * Reads the root value into a view, or returns {@code null} as soon as the
+     * response is anything but an object with a single array of well-formed
+     * actions.
+     */
+    private static TranslationView viewRoot(JsonParser parser, ViewReader reader) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        boolean seenActions = false;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            if (!"actions".equals(field)) {
+                skipValue(parser);
+            } else if (seenActions || value != JsonToken.START_ARRAY || !reader.readActions(parser)) {
+                return null;
+            } else {
+                seenActions = true;
+            }
+        }
+        return seenActions && reader.builder.actionCount() > 0 ? reader.builder.build() : null;
+    }
+
+    /**
+     * Reads well-formed actions into a {@link TranslationView.Builder},
+     * recording string values as spans of the response where the parser
+     * exposes them in place.
+     */
+    private static final class ViewReader {
+
+        private final TranslationView.Builder builder;
+        private final char[] buffer;
+        private final int shift;
+
+        // The span or decoded text of the last string read by readString
+        private int spanStart;
+        private int spanEnd;
+        private String text;
+
+        ViewReader(String json, char[] buffer, int shift) {
+            this.builder = new TranslationView.Builder(json);
+            this.buffer = buffer;
+            this.shift = shift;
+        }
+
+        /**
+         * Reads the action array, positioned on its {@code START_ARRAY}.
+         * Mirrors {@link #readAction} but returns false, leaving the parser
+         * mid-array, wherever that would return {@code null}.
+         */
+        boolean readActions(JsonParser parser) throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT || !readAction(parser)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean readAction(JsonParser parser) throws IOException {
+            ShoppingAction.AppContext context = null;
+            int code = NO_CODE;
+            boolean seenName = false;
+            boolean started = false;
+
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "context" -> {
+                        if (context != null || value != JsonToken.VALUE_STRING
+                                || (context = appContext(parser)) == null) {
+                            return false;
+                        }
+                    }
+                    case "name" -> {
+                        if (seenName || value != JsonToken.VALUE_STRING || context == null) {
+                            // A name before its context is rare; let parse() handle it
+                            return false;
+                        }
+                        code = context.actionCode(
+                                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                        if (!context.isValidActionCode(code)) {
+                            return false;
+                        }
+                        seenName = true;
+                    }
+                    case "parameters" -> {
+                        if (!seenName || started) {
+                            return false;
+                        }
+                        builder.startAction(context, code);
+                        started = true;
+                        if (value == JsonToken.START_ARRAY) {
+                            if (!readParameters(parser)) {
+                                return false;
+                            }
+                        } else if (value != JsonToken.VALUE_NULL) {
+                            return false;
+                        }
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+            }
+            if (!seenName) {
+                return false;
+            }
+            if (!started) {
+                builder.startAction(context, code);
+            }
+            return true;
+        }
+
+        private boolean readParameters(JsonParser parser) throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT || !readParameter(parser)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean readParameter(JsonParser parser) throws IOException {
+            boolean seenName = false;
+            boolean seenValue = false;
+            int nameStart = -1;
+            int nameEnd = -1;
+            String name = null;
+            int valueStart = -1;
+            int valueEnd = -1;
+            String value = null;
+
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                if (parser.nextToken() != JsonToken.VALUE_STRING) {
+                    return false;
+                }
+                switch (field) {
+                    case "name" -> {
+                        if (seenName || isBlank(parser)) {
+                            return false;
+                        }
+                        readString(parser);
+                        nameStart = spanStart;
+                        nameEnd = spanEnd;
+                        name = text;
+                        seenName = true;
+                    }
+                    case "value" -> {
+                        if (seenValue) {
+                            return false;
+                        }
+                        readString(parser);
+                        valueStart = spanStart;
+                        valueEnd = spanEnd;
+                        value = text;
+                        seenValue = true;
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+            }
+            if (!seenName || !seenValue) {
+                return false;
+            }
+            builder.addParameter(nameStart, nameEnd, name, valueStart, valueEnd, value);
+            return true;
+        }
+
+        /**
+         * Records the current string token as a span of the response if the
+         * parser holds it in place in our buffer - true unless it contained
+         * escapes - or otherwise as decoded text.
+         */
+        private void readString(JsonParser parser) throws IOException {
+            if (parser.getTextCharacters() == buffer) {
+                spanStart = parser.getTextOffset() + shift;
+                spanEnd = spanStart + parser.getTextLength();
+                text = null;
+            } else {
+                spanStart = -1;
+                spanEnd = -1;
+                text = parser.getText();
+            }
+        }
+
+        private static boolean isBlank(JsonParser parser) throws IOException {
+            char[] chars = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            for (int i = 0; i < parser.getTextLength(); i++) {
+                if (!Character.isWhitespace(chars[offset + i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Skips the value the parser is positioned on, through its closing token
+     * if it is a container. Unlike {@link JsonParser#skipChildren()} this
+     * reads field names with {@code nextFieldName()} and fully decodes
+     * scalars, so a syntax error in a skipped value is detected and reported
+     * exactly as tree building would.
+     */
+    private static void skipValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextFieldName() != null) {
+                parser.nextToken();
+                skipValue(parser);
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                skipValue(parser);
+            }
+        } else if (token != null) {
+            parser.finishToken();
+        }
+    }
+
+    /**
+     * Returns the context named by the current string token, compared in
+     * place against the enum constant names.
+     */
+    private static ShoppingAction.AppContext appContext(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (ShoppingAction.AppContext context : CONTEXTS) {
+            String name = context.name();
+            if (name.length() == length && matches(name, chars, offset)) {
+                return context;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String name, char[] chars, int offset) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
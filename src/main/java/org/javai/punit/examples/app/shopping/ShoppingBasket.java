@@ -0,0 +1,201 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingAction.AppContext;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+
+/**
+ * A shopping basket that executes {@link ShoppingAction}s.
+ *
+ * <p>Translating an instruction only shows that the LLM produced well-formed
+ * actions; applying them to a basket shows what the instruction actually
+ * did. The basket supports the {@link AppContext#SHOP SHOP} vocabulary:
+ * <ul>
+ *   <li>{@code add} - requires an {@code item}; adds {@code quantity} units
+ *       (default 1)</li>
+ *   <li>{@code remove} - requires an {@code item}; removes {@code quantity}
+ *       units, or the whole line if no quantity is given. Removing more than
+ *       the basket holds empties the line; quantities never go negative.</li>
+ *   <li>{@code clear} - empties the basket</li>
+ * </ul>
+ *
+ * <p>Item names are trimmed and lower-cased, so "Apples" and "apples " are the
+ * same line. Quantities are held in a primitive open-addressing map.
+ *
+ * <p>An action that cannot be applied - another context's action, a missing
+ * item, a quantity that is not a positive integer - fails with an
+ * {@link Outcome} rather than an exception, as validation does. A
+ * {@link BasketTranslation} is applied all-or-nothing.
+ *
+ * <p>Not thread-safe: a basket has a single writer. {@link ShoppingBasketEngine}
+ * provides that for many baskets at once.
+ */
+public final class ShoppingBasket {
+
+    private static final int ADD = AppContext.SHOP.actionCode("add");
+    private static final int REMOVE = AppContext.SHOP.actionCode("remove");
+    private static final int CLEAR = AppContext.SHOP.actionCode("clear");
+
+    /** Marks a removal without a quantity: the whole line goes. */
+    private static final int ALL = -1;
+
+    private final ItemQuantityMap quantities = new ItemQuantityMap();
+
+    /**
+     * Applies a single action.
+     *
+     * @param action the action to apply
+     * @return ok if applied, or a failure leaving the basket unchanged
+     */
+    public Outcome<Void> apply(ShoppingAction action) {
+        List<Change> changes = new ArrayList<>(1);
+        Outcome<Void> resolved = resolve(action, 0, changes);
+        if (resolved instanceof Outcome.Fail<Void>) {
+            return resolved;
+        }
+        changes.forEach(this::applyChange);
+        return Outcome.ok();
+    }
+
+    /**
+     * Applies every action of a translation, in order, or none of them.
+     *
+     * @param translation the actions to apply
+     * @return ok if all were applied, or the first failure with the basket unchanged
+     */
+    public Outcome<Void> apply(BasketTranslation translation) {
+        List<ShoppingAction> actions = translation.actions();
+        List<Change> changes = new ArrayList<>(actions.size());
+        for (int i = 0; i < actions.size(); i++) {
+            Outcome<Void> resolved = resolve(actions.get(i), i, changes);
+            if (resolved instanceof Outcome.Fail<Void>) {
+                return resolved;
+            }
+        }
+        changes.forEach(this::applyChange);
+        return Outcome.ok();
+    }
+
+    /**
+     * Returns the quantity of an item in the basket.
+     *
+     * @param item the item name, in any case
+     * @return its quantity, or 0 if absent
+     */
+    public int quantity(String item) {
+        return quantities.get(normalise(item));
+    }
+
+    /**
+     * Returns the number of distinct items in the basket.
+     *
+     * @return the number of lines
+     */
+    public int itemCount() {
+        return quantities.size();
+    }
+
+    /**
+     * Returns the total number of units across all items.
+     *
+     * @return the sum of all quantities
+     */
+    public long totalQuantity() {
+        return quantities.total();
+    }
+
+    /**
+     * Returns true if the basket holds nothing.
+     *
+     * @return true if there are no lines
+     */
+    public boolean isEmpty() {
+        return quantities.size() == 0;
+    }
+
+    /**
+     * Returns a snapshot of the basket's contents.
+     *
+     * @return an unmodifiable map from item to quantity, sorted by item
+     */
+    public Map<String, Integer> contents() {
+        Map<String, Integer> contents = new TreeMap<>();
+        quantities.forEach(contents::put);
+        return Collections.unmodifiableMap(contents);
+    }
+
+    /**
+     * A resolved, validated change to the basket.
+     */
+    private record Change(int code, String item, int quantity) {
+    }
+
+    private Outcome<Void> resolve(ShoppingAction action, int index, List<Change> changes) {
+        if (action.context() != AppContext.SHOP) {
+            return Outcome.fail("unsupported-action",
+                    "Action[%d]: %s actions cannot be applied to a basket".formatted(index, action.context()));
+        }
+        if (action.code() == CLEAR) {
+            changes.add(new Change(CLEAR, null, 0));
+            return Outcome.ok();
+        }
+
+        String item = null;
+        String quantityValue = null;
+        for (ShoppingActionParameter parameter : action.parameters()) {
+            switch (parameter.name()) {
+                case "item" -> item = parameter.value();
+                case "quantity" -> quantityValue = parameter.value();
+                default -> {
+                    // Other parameters do not affect the basket
+                }
+            }
+        }
+        if (item == null || item.isBlank()) {
+            return Outcome.fail("missing-item",
+                    "Action[%d]: '%s' requires an item".formatted(index, action.name()));
+        }
+
+        int quantity;
+        if (quantityValue == null) {
+            quantity = action.code() == ADD ? 1 : ALL;
+        } else {
+            try {
+                quantity = Integer.parseInt(quantityValue.trim());
+            } catch (NumberFormatException e) {
+                quantity = 0;
+            }
+            if (quantity < 1) {
+                return Outcome.fail("invalid-quantity",
+                        "Action[%d]: quantity '%s' is not a positive integer".formatted(index, quantityValue));
+            }
+        }
+        changes.add(new Change(action.code(), normalise(item), quantity));
+        return Outcome.ok();
+    }
+
+    private void applyChange(Change change) {
+        if (change.code() == CLEAR) {
+            quantities.clear();
+        } else if (change.code() == ADD) {
+            int current = quantities.get(change.item());
+            // Saturate rather than overflow into a negative quantity
+            long sum = (long) current + change.quantity();
+            quantities.put(change.item(), (int) Math.min(Integer.MAX_VALUE, sum));
+        } else if (change.code() == REMOVE) {
+            int current = quantities.get(change.item());
+            int remaining = change.quantity() == ALL ? 0 : Math.max(0, current - change.quantity());
+            quantities.put(change.item(), remaining);
+        }
+    }
+
+    private static String normalise(String item) {
+        return item.trim().toLowerCase(Locale.ROOT);
+    }
+}
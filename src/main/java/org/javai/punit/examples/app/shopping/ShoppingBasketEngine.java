@@ -0,0 +1,204 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+
+/**
+ * Applies translated actions to many {@link ShoppingBasket}s concurrently.
+ *
+ * <p>Each session's basket is owned by exactly one of a fixed number of
+ * <em>lanes</em>, chosen by hashing the session id. A lane is a single thread
+ * with its own session-to-basket map, so every basket has a single writer:
+ * translations for one session are applied in submission order, baskets need
+ * no locks, and sessions on different lanes proceed in parallel. Throughput
+ * scales with the number of lanes until sessions stop spreading evenly across
+ * them.
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * try (ShoppingBasketEngine engine = new ShoppingBasketEngine(4)) {
+ *     engine.submit("session-42", translation)
+ *           .thenAccept(outcome -> ...);
+ *     Map<String, Integer> contents = engine.contents("session-42").join();
+ * }
+ * }</pre>
+ */
+public final class ShoppingBasketEngine implements AutoCloseable {
+
+    private final Lane[] lanes;
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates an engine with one lane per available processor.
+     */
+    public ShoppingBasketEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param laneCount the number of single-threaded lanes
+     * @throws IllegalArgumentException if {@code laneCount} is not positive
+     */
+    public ShoppingBasketEngine(int laneCount) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("laneCount must be positive, got " + laneCount);
+        }
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i);
+        }
+    }
+
+    /**
+     * Applies a translation to a session's basket, creating the basket on
+     * first use. The translation is applied all-or-nothing.
+     *
+     * @param sessionId the session whose basket to update
+     * @param translation the actions to apply
+     * @return a future completing with the outcome of
+     *         {@link ShoppingBasket#apply(BasketTranslation)}
+     */
+    public CompletableFuture<Outcome<Void>> submit(String sessionId, BasketTranslation translation) {
+        return onBasket(sessionId, basket -> {
+            Outcome<Void> outcome = basket.apply(translation);
+            (outcome instanceof Outcome.Ok<Void> ? applied : rejected).increment();
+            return outcome;
+        });
+    }
+
+    /**
+     * Returns a snapshot of a session's basket, taken on its lane after every
+     * translation submitted before this call.
+     *
+     * @param sessionId the session
+     * @return a future completing with the basket's contents, empty for an unknown session
+     */
+    public CompletableFuture<Map<String, Integer>> contents(String sessionId) {
+        Lane lane = laneFor(sessionId);
+        return CompletableFuture.supplyAsync(() -> {
+            ShoppingBasket basket = lane.existingBasket(sessionId);
+            return basket != null ? basket.contents() : Map.<String, Integer>of();
+        }, lane.executor);
+    }
+
+    /**
+     * Runs a function against a session's basket on the basket's lane,
+     * creating the basket on first use. The function must not retain the
+     * basket.
+     *
+     * @param sessionId the session
+     * @param function the function to run
+     * @param <T> the result type
+     * @return a future completing with the function's result
+     */
+    public <T> CompletableFuture<T> onBasket(String sessionId, Function<ShoppingBasket, T> function) {
+        Lane lane = laneFor(sessionId);
+        return CompletableFuture.supplyAsync(() -> function.apply(lane.basket(sessionId)), lane.executor);
+    }
+
+    /**
+     * Returns the number of translations applied successfully.
+     *
+     * @return the applied count
+     */
+    public long appliedCount() {
+        return applied.sum();
+    }
+
+    /**
+     * Returns the number of translations rejected, leaving their basket unchanged.
+     *
+     * @return the rejected count
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of lanes.
+     *
+     * @return the lane count
+     */
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Returns the number of sessions with a basket, counted on each lane after
+     * the work submitted to it so far.
+     */
+    int basketCount() {
+        int count = 0;
+        for (Lane lane : lanes) {
+            count += CompletableFuture.supplyAsync(lane.baskets::size, lane.executor).join();
+        }
+        return count;
+    }
+
+    /**
+     * Stops accepting work and waits for submitted translations to be applied.
+     */
+    @Override
+    public void close() {
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        boolean interrupted = false;
+        for (Lane lane : lanes) {
+            try {
+                while (!lane.executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    // Keep waiting; submitted work is always finite
+                }
+            } catch (InterruptedException e) {
+                lane.executor.shutdownNow();
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Lane laneFor(String sessionId) {
+        int h = sessionId.hashCode();
+        return lanes[Math.floorMod(h ^ (h >>> 16), lanes.length)];
+    }
+
+    /**
+     * A single-threaded executor and the baskets it alone touches.
+     */
+    private static final class Lane {
+
+        private final ExecutorService executor;
+        private final Map<String, ShoppingBasket> baskets = new HashMap<>();
+
+        Lane(int index) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "basket-lane-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        /** Called only on this lane's thread. */
+        ShoppingBasket basket(String sessionId) {
+            return baskets.computeIfAbsent(sessionId, id -> new ShoppingBasket());
+        }
+
+        /** Called only on this lane's thread; null if the session has no basket. */
+        ShoppingBasket existingBasket(String sessionId) {
+            return baskets.get(sessionId);
+        }
+    }
+}
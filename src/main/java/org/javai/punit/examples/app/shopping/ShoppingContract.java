@@ -0,0 +1,160 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.List;
+import org.javai.outcome.Outcome;
+
+/**
+ * The clauses that judge a shopping-basket response, shared by the
+ * {@code ShoppingBasketUseCase} contract and {@link BatchShoppingValidator}.
+ *
+ * <p>The contract is: the response is not empty; it parses as a translation
+ * ({@code "Valid JSON"}); and, if it parses, every action is valid for its
+ * context and every {@code quantity} is a positive integer. Keeping the clause
+ * names and checks here means a response scored offline fails exactly the
+ * clauses, with exactly the failure codes, it would fail during sampling.
+ *
+ * <p>The derived clauses are settled while the response is parsed:
+ * {@link ShoppingActionValidator#view} notes the first invalid action and the
+ * first offending quantity as it reads them, so each check is a lookup rather
+ * than another walk over the translation. {@link #evaluate(String)} collects
+ * every clause's verdict from that single pass.
+ */
+public final class ShoppingContract {
+
+    public static final String RESPONSE_NOT_EMPTY = "Response not empty";
+    public static final String VALID_JSON = "Valid JSON";
+    public static final String ACTIONS_VALID_FOR_CONTEXT = "All actions valid for context";
+    public static final String QUANTITIES_ARE_POSITIVE_INTEGERS = "Quantities are positive integers";
+
+    /** Every clause name, top-level clauses before those derived from {@link #VALID_JSON}. */
+    public static final List<String> CLAUSES = List.of(
+            RESPONSE_NOT_EMPTY, VALID_JSON, ACTIONS_VALID_FOR_CONTEXT, QUANTITIES_ARE_POSITIVE_INTEGERS);
+
+    private ShoppingContract() {
+    }
+
+    /**
+     * Checks that the response has content.
+     *
+     * @param response the raw response
+     * @return ok, or an {@code empty-response} failure
+     */
+    public static Outcome<Void> checkResponseNotEmpty(String response) {
+        return (response == null || response.isBlank())
+                ? Outcome.fail("empty-response", "LLM returned no content")
+                : Outcome.ok();
+    }
+
+    /**
+     * Checks that every action is valid for its declared context.
+     *
+     * <p>The first invalid action is found while the view is built, so this
+     * check does not walk the actions again.
+     *
+     * @param translation the parsed translation
+     * @return ok, or an {@code invalid-action} failure for the first invalid action
+     */
+    public static Outcome<Void> checkActionsValidForContext(TranslationView translation) {
+        int action = translation.firstInvalidAction();
+        if (action < 0) {
+            return Outcome.ok();
+        }
+        return Outcome.fail(
+                "invalid-action",
+                "Invalid action '%s' for context %s"
+                        .formatted(translation.actionName(action), translation.context(action)));
+    }
+
+    /**
+     * Checks that every {@code quantity} parameter is a positive integer.
+     *
+     * <p>Quantities are decoded, and the first offending one found, while the
+     * view is built, so this check does not walk the parameters again.
+     *
+     * @param translation the parsed translation
+     * @return ok, or a {@code non-integer-quantity} or {@code non-positive-quantity}
+     *         failure for the first offending quantity
+     */
+    public static Outcome<Void> checkQuantitiesArePositiveIntegers(TranslationView translation) {
+        int index = translation.firstInvalidQuantity();
+        if (index < 0) {
+            return Outcome.ok();
+        }
+        if (!translation.isIntegerQuantityAt(index)) {
+            return Outcome.fail(
+                    "non-integer-quantity",
+                    "Quantity '%s' is not an integer".formatted(translation.parameterAt(index)));
+        }
+        return Outcome.fail(
+                "non-positive-quantity",
+                "Quantity %d is not a positive integer".formatted(translation.quantityAt(index)));
+    }
+
+    /**
+     * Judges a response against every clause in one pass over its text.
+     *
+     * <p>The response is read once, by {@link ShoppingActionValidator#view},
+     * and the derived clauses' verdicts are collected as it is read. The
+     * result holds the same outcomes as calling each check in turn.
+     *
+     * @param response the raw response
+     * @return the verdict
+     */
+    public static Verdict evaluate(String response) {
+        Outcome<Void> notEmpty = checkResponseNotEmpty(response);
+        return switch (ShoppingActionValidator.view(response)) {
+            case Outcome.Ok<TranslationView> ok -> new Verdict(
+                    notEmpty, Outcome.ok(),
+                    checkActionsValidForContext(ok.value()),
+                    checkQuantitiesArePositiveIntegers(ok.value()));
+            case Outcome.Fail<TranslationView> f -> new Verdict(notEmpty, Outcome.fail(f.failure()), null, null);
+        };
+    }
+
+    /**
+     * Every clause's outcome for one response. The derived clauses are
+     * {@code null} when the response did not parse, as they are then not
+     * evaluated.
+     *
+     * @param responseNotEmpty the {@value #RESPONSE_NOT_EMPTY} outcome
+     * @param validJson the {@value #VALID_JSON} outcome
+     * @param actionsValidForContext the {@value #ACTIONS_VALID_FOR_CONTEXT} outcome, or {@code null}
+     * @param quantitiesArePositiveIntegers the {@value #QUANTITIES_ARE_POSITIVE_INTEGERS} outcome,
+     *        or {@code null}
+     */
+    public record Verdict(Outcome<Void> responseNotEmpty,
+                          Outcome<Void> validJson,
+                          Outcome<Void> actionsValidForContext,
+                          Outcome<Void> quantitiesArePositiveIntegers) {
+
+        /**
+         * Returns a clause's outcome by position in {@link #CLAUSES}.
+         *
+         * @param clause the clause index
+         * @return the outcome, or {@code null} for a clause not evaluated
+         */
+        public Outcome<Void> outcome(int clause) {
+            return switch (clause) {
+                case 0 -> responseNotEmpty;
+                case 1 -> validJson;
+                case 2 -> actionsValidForContext;
+                case 3 -> quantitiesArePositiveIntegers;
+                default -> throw new IndexOutOfBoundsException(clause);
+            };
+        }
+
+        /**
+         * Returns true if every evaluated clause passed.
+         *
+         * @return true for a passing response
+         */
+        public boolean passed() {
+            for (int clause = 0; clause < CLAUSES.size(); clause++) {
+                if (outcome(clause) instanceof Outcome.Fail<?>) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package org.javai.punit.examples.app.shopping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.javai.punit.examples.app.shopping.ShoppingAction.AppContext;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+
+/**
+ * A validated translation read in place from the response it came from.
+ *
+ * <p>{@link ShoppingActionValidator#view(String)} records each action's
+ * context and {@linkplain ShoppingAction#code() code}, and each parameter's
+ * name and value as offsets into the response, instead of building
+ * {@link ShoppingAction} and {@link ShoppingActionParameter} records. A
+ * {@code quantity} value is decoded once, to a primitive {@code int}, when
+ * the view is built. Checks that only need codes and quantities therefore
+ * allocate nothing; strings are cut from the response only when asked for,
+ * and the equivalent {@link BasketTranslation} is built on the first call to
+ * {@link #translation()} and then reused. The first action invalid for its
+ * context and the first quantity that is not a positive integer are noted as
+ * the view is built, for the {@link ShoppingContract} checks.
+ *
+ * <p>Actions and parameters are addressed by index. Parameter indexes are
+ * relative to their action.
+ *
+ * <p>A view is immutable once built and may be shared between threads.
+ */
+public final class TranslationView {
+
+    private static final AppContext[] CONTEXTS = AppContext.values();
+    private static final String QUANTITY = "quantity";
+
+    private static final byte OTHER = 0;
+    private static final byte INTEGER_QUANTITY = 1;
+    private static final byte NON_INTEGER_QUANTITY = 2;
+
+    private final String content;
+    private final int actionCount;
+    private final byte[] contexts;
+    private final int[] codes;
+    private final int[] firstParameter;
+    private final int[] spans;
+    private final String[] decoded;
+    private final byte[] kinds;
+    private final int[] quantities;
+    private final int firstInvalidAction;
+    private final int firstInvalidQuantity;
+
+    // Built on demand. A race merely builds two equal translations, and the
+    // translation's fields are final, so the plain field is safe to publish.
+    private BasketTranslation translation;
+
+    private TranslationView(Builder builder) {
+        this.content = builder.content;
+        this.actionCount = builder.actionCount;
+        this.contexts = Arrays.copyOf(builder.contexts, builder.actionCount);
+        this.codes = Arrays.copyOf(builder.codes, builder.actionCount);
+        this.firstParameter = Arrays.copyOf(builder.firstParameter, builder.actionCount + 1);
+        this.firstParameter[builder.actionCount] = builder.parameterCount;
+        this.spans = Arrays.copyOf(builder.spans, builder.parameterCount * 4);
+        this.decoded = builder.decoded == null ? null : Arrays.copyOf(builder.decoded, builder.parameterCount * 2);
+        this.kinds = Arrays.copyOf(builder.kinds, builder.parameterCount);
+        this.quantities = Arrays.copyOf(builder.quantities, builder.parameterCount);
+        this.firstInvalidAction = builder.firstInvalidAction;
+        this.firstInvalidQuantity = builder.firstInvalidQuantity;
+    }
+
+    /**
+     * Creates a view over a translation that has already been built.
+     *
+     * @param translation the translation
+     * @return a view of it whose {@link #translation()} is {@code translation}
+     */
+    public static TranslationView of(BasketTranslation translation) {
+        Builder builder = new Builder(null);
+        for (ShoppingAction action : translation.actions()) {
+            builder.startAction(action.context(), action.code());
+            for (ShoppingActionParameter parameter : action.parameters()) {
+                builder.addParameter(parameter.name(), parameter.value());
+            }
+        }
+        TranslationView view = builder.build();
+        view.translation = translation;
+        return view;
+    }
+
+    /**
+     * Returns the number of actions.
+     *
+     * @return the action count
+     */
+    public int actionCount() {
+        return actionCount;
+    }
+
+    /**
+     * Returns an action's context.
+     *
+     * @param action the action index
+     * @return the context
+     */
+    public AppContext context(int action) {
+        return CONTEXTS[contexts[Objects.checkIndex(action, actionCount)]];
+    }
+
+    /**
+     * Returns an action's code within its context.
+     *
+     * @param action the action index
+     * @return the action code
+     */
+    public int actionCode(int action) {
+        return codes[Objects.checkIndex(action, actionCount)];
+    }
+
+    /**
+     * Returns an action's canonical name.
+     *
+     * @param action the action index
+     * @return the action name
+     */
+    public String actionName(int action) {
+        return context(action).actionName(codes[action]);
+    }
+
+    /**
+     * Returns the number of parameters an action has.
+     *
+     * @param action the action index
+     * @return the parameter count
+     */
+    public int parameterCount(int action) {
+        Objects.checkIndex(action, actionCount);
+        return firstParameter[action + 1] - firstParameter[action];
+    }
+
+    /**
+     * Returns a parameter's name.
+     *
+     * @param action the action index
+     * @param parameter the parameter index within the action
+     * @return the parameter name
+     */
+    public String parameterName(int action, int parameter) {
+        return text(index(action, parameter), 0);
+    }
+
+    /**
+     * Returns a parameter's value as text.
+     *
+     * @param action the action index
+     * @param parameter the parameter index within the action
+     * @return the parameter value
+     */
+    public String parameterValue(int action, int parameter) {
+        return text(index(action, parameter), 1);
+    }
+
+    /**
+     * Returns true if a parameter is named {@code quantity}.
+     *
+     * @param action the action index
+     * @param parameter the parameter index within the action
+     * @return true for a quantity parameter
+     */
+    public boolean isQuantity(int action, int parameter) {
+        return kinds[index(action, parameter)] != OTHER;
+    }
+
+    /**
+     * Returns true if a parameter is a {@code quantity} whose value is an
+     * integer, as {@link ShoppingActionParameter#valueAsInt()} reads it.
+     *
+     * @param action the action index
+     * @param parameter the parameter index within the action
+     * @return true for an integer quantity
+     */
+    public boolean isIntegerQuantity(int action, int parameter) {
+        return kinds[index(action, parameter)] == INTEGER_QUANTITY;
+    }
+
+    /**
+     * Returns a quantity, decoded when the view was built.
+     *
+     * @param action the action index
+     * @param parameter the parameter index within the action
+     * @return the quantity
+     * @throws IllegalStateException if the parameter is not an integer quantity
+     */
+    public int quantity(int action, int parameter) {
+        int index = index(action, parameter);
+        if (kinds[index] != INTEGER_QUANTITY) {
+            throw new IllegalStateException(
+                    "Parameter %d of action %d is not an integer quantity".formatted(parameter, action));
+        }
+        return quantities[index];
+    }
+
+    /**
+     * Returns the translation as {@link ShoppingAction} records, building it
+     * on first use.
+     *
+     * @return the equivalent translation
+     */
+    public BasketTranslation translation() {
+        BasketTranslation built = translation;
+        if (built == null) {
+            List<ShoppingAction> actions = new ArrayList<>(actionCount);
+            for (int action = 0; action < actionCount; action++) {
+                int count = parameterCount(action);
+                List<ShoppingActionParameter> parameters = new ArrayList<>(count);
+                for (int parameter = 0; parameter < count; parameter++) {
+                    parameters.add(new ShoppingActionParameter(
+                            parameterName(action, parameter), parameterValue(action, parameter)));
+                }
+                actions.add(ShoppingAction.of(context(action), codes[action], parameters));
+            }
+            built = BasketTranslation.of(actions);
+            translation = built;
+        }
+        return built;
+    }
+
+    /**
+     * Returns the index of the first action whose code is not valid for its
+     * context, found while the view was built, or -1 if there is none.
+     */
+    int firstInvalidAction() {
+        return firstInvalidAction;
+    }
+
+    /**
+     * Returns the first {@code quantity} parameter that is not a positive
+     * integer, found while the view was built, as an index across all
+     * actions' parameters in order, or -1 if there is none.
+     */
+    int firstInvalidQuantity() {
+        return firstInvalidQuantity;
+    }
+
+    /** Returns the text of the value at an index across all parameters. */
+    String parameterAt(int index) {
+        return text(index, 1);
+    }
+
+    /** Returns the decoded quantity at an index across all parameters. */
+    int quantityAt(int index) {
+        return quantities[index];
+    }
+
+    /** Returns true if the parameter at an index across all parameters is an integer quantity. */
+    boolean isIntegerQuantityAt(int index) {
+        return kinds[index] == INTEGER_QUANTITY;
+    }
+
+    private int index(int action, int parameter) {
+        return firstParameter[action] + Objects.checkIndex(parameter, parameterCount(action));
+    }
+
+    private String text(int index, int which) {
+        if (decoded != null && decoded[index * 2 + which] != null) {
+            return decoded[index * 2 + which];
+        }
+        int span = index * 4 + which * 2;
+        return content.substring(spans[span], spans[span + 1]);
+    }
+
+    /**
+     * Accumulates actions and parameters in primitive arrays while a response
+     * is read.
+     */
+    static final class Builder {
+
+        private final String content;
+        private int actionCount;
+        private byte[] contexts = new byte[4];
+        private int[] codes = new int[4];
+        private int[] firstParameter = new int[5];
+        private int parameterCount;
+        private int[] spans = new int[32];
+        private String[] decoded;
+        private byte[] kinds = new byte[8];
+        private int[] quantities = new int[8];
+        private int firstInvalidAction = -1;
+        private int firstInvalidQuantity = -1;
+
+        /**
+         * @param content the response that parameter offsets refer to, or
+         *        {@code null} if every parameter will be added as strings
+         */
+        Builder(String content) {
+            this.content = content;
+        }
+
+        void startAction(AppContext context, int code) {
+            if (actionCount == codes.length) {
+                contexts = Arrays.copyOf(contexts, actionCount * 2);
+                codes = Arrays.copyOf(codes, actionCount * 2);
+                firstParameter = Arrays.copyOf(firstParameter, actionCount * 2 + 1);
+            }
+            if (firstInvalidAction < 0 && !context.isValidActionCode(code)) {
+                firstInvalidAction = actionCount;
+            }
+            contexts[actionCount] = (byte) context.ordinal();
+            codes[actionCount] = code;
+            firstParameter[actionCount] = parameterCount;
+            actionCount++;
+        }
+
+        /**
+         * Adds a parameter to the current action. Each of name and value is
+         * given either as a {@code [start, end)} span of the content, or -
+         * when its text differs from the content, as an escaped string does -
+         * as a decoded string with a span of {@code -1}.
+         */
+        void addParameter(int nameStart, int nameEnd, String name,
+                          int valueStart, int valueEnd, String value) {
+            int index = parameterCount;
+            if (index == kinds.length) {
+                spans = Arrays.copyOf(spans, index * 8);
+                kinds = Arrays.copyOf(kinds, index * 2);
+                quantities = Arrays.copyOf(quantities, index * 2);
+                if (decoded != null) {
+                    decoded = Arrays.copyOf(decoded, index * 4);
+                }
+            }
+            spans[index * 4] = nameStart;
+            spans[index * 4 + 1] = nameEnd;
+            spans[index * 4 + 2] = valueStart;
+            spans[index * 4 + 3] = valueEnd;
+            if (name != null || value != null) {
+                if (decoded == null) {
+                    decoded = new String[kinds.length * 2];
+                }
+                decoded[index * 2] = name;
+                decoded[index * 2 + 1] = value;
+            }
+
+            boolean quantity = name != null ? QUANTITY.equals(name) : spanEquals(nameStart, nameEnd, QUANTITY);
+            kinds[index] = OTHER;
+            if (quantity) {
+                try {
+                    quantities[index] = value != null
+                            ? Integer.parseInt(value)
+                            : Integer.parseInt(content, valueStart, valueEnd, 10);
+                    kinds[index] = INTEGER_QUANTITY;
+                } catch (NumberFormatException e) {
+                    kinds[index] = NON_INTEGER_QUANTITY;
+                }
+                if (firstInvalidQuantity < 0 && (kinds[index] != INTEGER_QUANTITY || quantities[index] < 1)) {
+                    firstInvalidQuantity = index;
+                }
+            }
+            parameterCount++;
+        }
+
+        void addParameter(String name, String value) {
+            addParameter(-1, -1, name, -1, -1, value);
+        }
+
+        int actionCount() {
+            return actionCount;
+        }
+
+        TranslationView build() {
+            return new TranslationView(this);
+        }
+
+        private boolean spanEquals(int start, int end, String text) {
+            return end - start == text.length() && content.startsWith(text, start);
+        }
+    }
+}
@@ -5,10 +5,16 @@ import java.util.List;
 import org.javai.outcome.Outcome;
 import org.javai.punit.api.ContractBuilder;
 import org.javai.punit.api.NoFactors;
+import org.javai.punit.api.Pacing;
 import org.javai.punit.api.Sampling;
 import org.javai.punit.api.TokenTracker;
 import org.javai.punit.api.UseCase;
 import org.javai.punit.api.UseCaseOutcome;
+import org.javai.punit.examples.app.load.ArrivalProfile;
+import org.javai.punit.examples.app.load.LoadReport;
+import org.javai.punit.examples.app.load.OpenLoopDriver;
+import org.javai.punit.examples.app.payment.BatchingPaymentGateway;
+import org.javai.punit.examples.app.payment.HttpPaymentGateway;
 import org.javai.punit.examples.app.payment.MockPaymentGateway;
 import org.javai.punit.examples.app.payment.PaymentGateway;
 import org.javai.punit.examples.app.payment.PaymentResult;
@@ -42,6 +48,42 @@ import org.javai.punit.examples.app.payment.PaymentResult;
  * criterion with a {@link org.javai.punit.api.spec.PercentileLatency
  * PercentileLatency} criterion via {@code .reportOnly(...)} or
  * {@code .criterion(...)}.
+ *
+ * <p>Each charge spends most of its time waiting on the gateway, so samples
+ * run with bounded concurrency: {@link #pacing()} allows up to
+ * {@value #DEFAULT_MAX_CONCURRENT_CHARGES} in flight, and the run is shorter
+ * because their waits overlap. {@code invoke} still makes one blocking
+ * {@code charge} per sample, and per-sample duration is unaffected.
+ *
+ * <p>Overlap changes how {@code PaymentGatewaySlaTest} runs, though not what
+ * it judges. Each sample is still judged on its own result, so the pass-rate
+ * verdicts stand. But the seeded mock now draws outcomes in the order charges
+ * reach it, which depends on scheduling, so a seeded run no longer assigns
+ * the same outcome to the same sample. And the {@link #warmup()} discards
+ * no longer shield the first real samples: with
+ * {@value #DEFAULT_MAX_CONCURRENT_CHARGES} in flight, samples can start
+ * before the three discarded charges have finished. That is harmless against
+ * the mock, which has nothing to warm. A gateway that does have something to
+ * warm should open its connections up front, as {@link HttpPaymentGateway}
+ * does.
+ *
+ * <p>{@link #samplingBatched(List, int, int)} samples the batch settlement
+ * path instead: concurrent samples are gathered by a
+ * {@link BatchingPaymentGateway} into {@code chargeAll} round trips. Each
+ * sample is still one charge, judged on its own result, and its duration is
+ * the time its charge spent waiting for and settling in its batch.
+ *
+ * <p>Sampling is closed-loop: each in-flight slot starts its next charge
+ * when the last one finishes, so a slow gateway slows the arrivals and its
+ * queueing delay is never measured. {@link #driveOpenLoop(List, ArrivalProfile)}
+ * answers the capacity question instead - what P99 is at 200 charges per
+ * second - by charging on an {@link OpenLoopDriver} schedule, independent of
+ * completions, and timing each charge from when it was due.
+ *
+ * <p>{@link #samplingOverHttp(HttpPaymentGateway, List, int)} charges a
+ * gateway over HTTP through an {@link HttpPaymentGateway}, which warms its
+ * connections before the first sample. Its samples are not cold, so
+ * {@link #warmup()} discards none of them.
  */
 public final class PaymentGatewayUseCase
         implements UseCase<NoFactors, PaymentGatewayUseCase.Charge, PaymentResult> {
@@ -49,16 +91,25 @@ public final class PaymentGatewayUseCase
     /** The per-sample input: a card token plus amount in cents. */
     public record Charge(String cardToken, long amountCents) { }
 
+    /** Charges allowed in flight at once by the default pacing. */
+    public static final int DEFAULT_MAX_CONCURRENT_CHARGES = 8;
+
     private static final int WARMUP_INVOCATIONS = 3;
 
     private final PaymentGateway gateway;
+    private final Pacing pacing;
 
     public PaymentGatewayUseCase() {
         this(MockPaymentGateway.instance());
     }
 
     public PaymentGatewayUseCase(PaymentGateway gateway) {
+        this(gateway, DEFAULT_MAX_CONCURRENT_CHARGES);
+    }
+
+    public PaymentGatewayUseCase(PaymentGateway gateway, int maxConcurrentCharges) {
         this.gateway = gateway;
+        this.pacing = Pacing.builder().maxConcurrentRequests(maxConcurrentCharges).build();
     }
 
     @Override
@@ -81,15 +132,41 @@ public final class PaymentGatewayUseCase
         // outliers out of percentile latency measurements (e.g. P99). The
         // same discard preserves the i.i.d. assumption behind the Bernoulli
         // pass-rate criterion — cold-call failures are not identically
-        // distributed with steady-state ones.
+        // distributed with steady-state ones. A gateway that has already
+        // opened its connections has no cold calls to discard.
+        if (gateway instanceof HttpPaymentGateway http && http.isWarm()) {
+            return 0;
+        }
         return WARMUP_INVOCATIONS;
     }
 
+    /**
+     * Bounds how many samples run at once, so overlapping charges shorten
+     * the run without overwhelming the gateway.
+     */
+    @Override
+    public Pacing pacing() {
+        return pacing;
+    }
+
     @Override
     public Outcome<PaymentResult> invoke(Charge charge, TokenTracker tracker) {
         return Outcome.ok(gateway.charge(charge.cardToken(), charge.amountCents()));
     }
 
+    /**
+     * Charges this use case's gateway at the rates {@code profile} sets,
+     * cycling through {@code charges}, and reports the latencies seen from
+     * each charge's intended start. Pacing does not apply: charges are
+     * issued on schedule however many are in flight.
+     */
+    public LoadReport driveOpenLoop(List<Charge> charges, ArrivalProfile profile) {
+        return new OpenLoopDriver(profile).run(n -> {
+            Charge charge = charges.get((int) (n % charges.size()));
+            return gateway.chargeAsync(charge.cardToken(), charge.amountCents());
+        });
+    }
+
     /**
      * Builds a {@link Sampling} configured with the
      * {@link MockPaymentGateway} singleton. Tests that need a
@@ -99,4 +176,36 @@ public final class PaymentGatewayUseCase
     public static Sampling<NoFactors, Charge, PaymentResult> sampling(List<Charge> charges, int samples) {
         return Sampling.of(nf -> new PaymentGatewayUseCase(), samples, charges);
     }
+
+    /**
+     * Builds a {@link Sampling} whose charges are settled in batches of up to
+     * {@code batchSize} through the {@link MockPaymentGateway} singleton's
+     * batch endpoint. Up to {@code batchSize} samples run at once, so that
+     * batches can fill.
+     */
+    public static Sampling<NoFactors, Charge, PaymentResult> samplingBatched(
+            List<Charge> charges, int samples, int batchSize) {
+        return Sampling.of(
+                nf -> new PaymentGatewayUseCase(
+                        new BatchingPaymentGateway(MockPaymentGateway.instance(), batchSize), batchSize),
+                samples, charges);
+    }
+
+    /**
+     * Builds a {@link Sampling} that charges over HTTP through the given
+     * gateway, shared by every use case instance. The caller owns the
+     * gateway, and closes it once the run is over:
+     *
+     * <pre>{@code
+     * try (HttpPaymentGateway gateway = HttpPaymentGateway.builder(baseUri)
+     *         .prewarmConnections(PaymentGatewayUseCase.DEFAULT_MAX_CONCURRENT_CHARGES)
+     *         .build()) {
+     *     PUnit.testing(PaymentGatewayUseCase.samplingOverHttp(gateway, charges, 268))...
+     * }
+     * }</pre>
+     */
+    public static Sampling<NoFactors, Charge, PaymentResult> samplingOverHttp(
+            HttpPaymentGateway gateway, List<Charge> charges, int samples) {
+        return Sampling.of(nf -> new PaymentGatewayUseCase(gateway), samples, charges);
+    }
 }
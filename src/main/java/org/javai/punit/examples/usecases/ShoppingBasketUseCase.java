@@ -16,10 +16,9 @@ import org.javai.punit.examples.app.llm.ChatLlm;
 import org.javai.punit.examples.app.llm.ChatLlmException;
 import org.javai.punit.examples.app.llm.ChatLlmProvider;
 import org.javai.punit.examples.app.llm.ChatResponse;
-import org.javai.punit.examples.app.shopping.ShoppingAction;
-import org.javai.punit.examples.app.shopping.ShoppingActionParameter;
-import org.javai.punit.examples.app.shopping.ShoppingActionValidator;
-import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.javai.punit.examples.app.shopping.CachingShoppingActionValidator;
+import org.javai.punit.examples.app.shopping.ShoppingContract;
+import org.javai.punit.examples.app.shopping.TranslationView;
 
 /**
  * Translation of natural-language shopping instructions into
@@ -31,7 +30,7 @@ import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTrans
  * response string. The contract — declared via
  * {@link #postconditions(ContractBuilder) postconditions} — judges
  * the response: a non-empty body clause, then a {@code deriving}
- * step that parses the JSON into a {@link BasketTranslation} and
+ * step that parses the JSON into a {@link TranslationView} and
  * (on successful parse) checks every action's name is valid for
  * its declared context and that any {@code quantity} parameter is
  * a positive integer. The histogram on
@@ -110,6 +109,7 @@ public final class ShoppingBasketUseCase
     private final ChatLlm llm;
     private final LlmTuning tuning;
     private final Pacing pacing;
+    private final CachingShoppingActionValidator validator = new CachingShoppingActionValidator();
 
     public ShoppingBasketUseCase(ChatLlm llm, LlmTuning tuning) {
         this(llm, tuning, Pacing.unlimited());
@@ -128,58 +128,35 @@ public final class ShoppingBasketUseCase
      * nested clause against the parsed value. The framework
      * evaluates each clause per sample and surfaces the per-clause
      * failures in {@code SampleSummary.failuresByPostcondition()}.
+     *
+     * <p>Parsing goes through a {@link CachingShoppingActionValidator}, so
+     * identical responses - the norm at low temperatures - are parsed once
+     * per use case instance. The clauses read action codes and quantities
+     * from a {@link TranslationView}, which decodes each quantity once and
+     * builds no action or parameter records. The clauses themselves are
+     * defined by {@link ShoppingContract}, so that
+     * {@link org.javai.punit.examples.app.shopping.BatchShoppingValidator
+     * BatchShoppingValidator} scores archived responses identically.
      */
     @Override
     public void postconditions(ContractBuilder<String> b) {
-        b.ensure("Response not empty", ShoppingBasketUseCase::checkResponseNotEmpty);
-        b.deriving("Valid JSON",
-                ShoppingActionValidator::parse,
-                sub -> sub.ensure("All actions valid for context",
-                                ShoppingBasketUseCase::checkActionsValidForContext)
-                        .ensure("Quantities are positive integers",
-                                ShoppingBasketUseCase::checkQuantitiesArePositiveIntegers));
+        b.ensure(ShoppingContract.RESPONSE_NOT_EMPTY, ShoppingContract::checkResponseNotEmpty);
+        b.deriving(ShoppingContract.VALID_JSON,
+                validator::view,
+                sub -> sub.ensure(ShoppingContract.ACTIONS_VALID_FOR_CONTEXT,
+                                ShoppingContract::checkActionsValidForContext)
+                        .ensure(ShoppingContract.QUANTITIES_ARE_POSITIVE_INTEGERS,
+                                ShoppingContract::checkQuantitiesArePositiveIntegers));
     }
 
-    private static Outcome<Void> checkResponseNotEmpty(String response) {
-        return (response == null || response.isBlank())
-                ? Outcome.fail("empty-response", "LLM returned no content")
-                : Outcome.ok();
-    }
-
-    private static Outcome<Void> checkActionsValidForContext(BasketTranslation translation) {
-        for (ShoppingAction action : translation.actions()) {
-            if (!action.context().isValidAction(action.name())) {
-                return Outcome.fail(
-                        "invalid-action",
-                        "Invalid action '%s' for context %s"
-                                .formatted(action.name(), action.context()));
-            }
-        }
-        return Outcome.ok();
-    }
-
-    private static Outcome<Void> checkQuantitiesArePositiveIntegers(BasketTranslation translation) {
-        for (ShoppingAction action : translation.actions()) {
-            for (ShoppingActionParameter param : action.parameters()) {
-                if (!"quantity".equals(param.name())) {
-                    continue;
-                }
-                int quantity;
-                try {
-                    quantity = param.valueAsInt();
-                } catch (NumberFormatException e) {
-                    return Outcome.fail(
-                            "non-integer-quantity",
-                            "Quantity '%s' is not an integer".formatted(param.value()));
-                }
-                if (quantity < 1) {
-                    return Outcome.fail(
-                            "non-positive-quantity",
-                            "Quantity %d is not a positive integer".formatted(quantity));
-                }
-            }
-        }
-        return Outcome.ok();
+    /**
+     * Returns the validator behind the {@code "Valid JSON"} clause, whose
+     * hit and miss counts show how many samples repeated an earlier response.
+     *
+     * @return this use case's caching validator
+     */
+    public CachingShoppingActionValidator validator() {
+        return validator;
     }
 
     /**
@@ -0,0 +1,130 @@
+package org.javai.punit.examples.usecases;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.javai.outcome.Outcome;
+import org.javai.punit.api.ContractBuilder;
+import org.javai.punit.api.Pacing;
+import org.javai.punit.api.Sampling;
+import org.javai.punit.api.TokenTracker;
+import org.javai.punit.api.UseCase;
+import org.javai.punit.api.covariate.Covariate;
+import org.javai.punit.examples.app.llm.ChatLlm;
+import org.javai.punit.examples.app.llm.ChatLlmProvider;
+import org.javai.punit.examples.app.shopping.CachingShoppingActionValidator;
+import org.javai.punit.examples.app.shopping.GoldenAnswers;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.javai.punit.examples.app.shopping.ShoppingContract;
+import org.javai.punit.examples.usecases.ShoppingBasketUseCase.LlmTuning;
+
+/**
+ * Semantic-correctness variant of {@link ShoppingBasketUseCase}: each
+ * response is compared with a golden answer for its instruction, not just
+ * checked for shape.
+ *
+ * <p>The LLM call, covariates and pacing are those of
+ * {@link ShoppingBasketUseCase}; only the contract differs. Because a
+ * postcondition sees the output alone, the output is a {@link Answer}
+ * carrying the instruction alongside the raw response. The contract keeps
+ * the {@code "Response not empty"} and {@code "Valid JSON"} clauses, and in
+ * place of the per-action shape checks derives a single
+ * {@code "Matches golden answer"} clause. {@link GoldenAnswers} only accepts
+ * answers that pass those checks, so a matching translation has valid actions
+ * and quantities. A parse failure and a wrong answer are still counted under
+ * different clauses.
+ *
+ * <p>Comparison is in canonical form (see {@link GoldenAnswers}): expected
+ * translations are normalised and fingerprinted once when the answers are
+ * loaded, so a matching sample costs a fingerprint comparison, and a
+ * structural diff is built only for a mismatch.
+ */
+public final class ShoppingGoldenAnswerUseCase
+        implements UseCase<LlmTuning, String, ShoppingGoldenAnswerUseCase.Answer> {
+
+    /**
+     * The per-sample output: the instruction and the LLM's raw response to it.
+     */
+    public record Answer(String instruction, String response) { }
+
+    private record ParsedAnswer(String instruction, BasketTranslation translation) { }
+
+    private final ShoppingBasketUseCase translator;
+    private final GoldenAnswers answers;
+    private final CachingShoppingActionValidator validator = new CachingShoppingActionValidator();
+
+    public ShoppingGoldenAnswerUseCase(ChatLlm llm, LlmTuning tuning, GoldenAnswers answers) {
+        this.translator = new ShoppingBasketUseCase(llm, tuning);
+        this.answers = answers;
+    }
+
+    @Override
+    public String id() {
+        return "shopping-basket-golden";
+    }
+
+    /**
+     * Declares the contract: a non-empty response that parses, and whose
+     * translation matches the golden answer for its instruction.
+     */
+    @Override
+    public void postconditions(ContractBuilder<Answer> b) {
+        b.ensure(ShoppingContract.RESPONSE_NOT_EMPTY,
+                answer -> ShoppingContract.checkResponseNotEmpty(answer.response()));
+        b.deriving(ShoppingContract.VALID_JSON,
+                this::parse,
+                sub -> sub.ensure("Matches golden answer",
+                        parsed -> answers.check(parsed.instruction(), parsed.translation())));
+    }
+
+    private Outcome<ParsedAnswer> parse(Answer answer) {
+        return switch (validator.parse(answer.response())) {
+            case Outcome.Ok<BasketTranslation> ok -> Outcome.ok(new ParsedAnswer(answer.instruction(), ok.value()));
+            case Outcome.Fail<BasketTranslation> f -> Outcome.fail(f.failure());
+        };
+    }
+
+    @Override
+    public List<Covariate> covariates() {
+        return translator.covariates();
+    }
+
+    @Override
+    public Map<String, Supplier<String>> customCovariateResolvers() {
+        return translator.customCovariateResolvers();
+    }
+
+    @Override
+    public Pacing pacing() {
+        return translator.pacing();
+    }
+
+    /**
+     * Builds a {@link Sampling} over every instruction that has a golden
+     * answer, with a {@link ChatLlm} resolved via
+     * {@link ChatLlmProvider#resolve()}.
+     */
+    public static Sampling<LlmTuning, String, Answer> sampling(GoldenAnswers answers, int samples) {
+        return samplingWith(ChatLlmProvider.resolve(), answers, samples);
+    }
+
+    public static Sampling<LlmTuning, String, Answer> samplingWith(
+            ChatLlm llm, GoldenAnswers answers, int samples) {
+        return Sampling.of(
+                tuning -> new ShoppingGoldenAnswerUseCase(llm, tuning, answers),
+                samples, answers.instructions());
+    }
+
+    /**
+     * Delegates the LLM call to {@link ShoppingBasketUseCase#invoke} and
+     * pairs the response with its instruction.
+     */
+    @Override
+    public Outcome<Answer> invoke(String instruction, TokenTracker tracker) {
+        return switch (translator.invoke(instruction, tracker)) {
+            case Outcome.Ok<String> ok -> Outcome.ok(new Answer(instruction, ok.value()));
+            case Outcome.Fail<String> f -> Outcome.fail(f.failure());
+        };
+    }
+}
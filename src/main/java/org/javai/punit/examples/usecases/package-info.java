@@ -12,6 +12,8 @@
  * org.javai.punit.examples.usecases.ShoppingBasketUseCase} and
  * {@link org.javai.punit.examples.usecases.PaymentGatewayUseCase}
  * are the LLM- and gateway-backed
- * use cases used by the realistic examples.
+ * use cases used by the realistic examples; {@link
+ * org.javai.punit.examples.usecases.ShoppingGoldenAnswerUseCase}
+ * judges the same LLM's translations against golden answers.
  */
 package org.javai.punit.examples.usecases;
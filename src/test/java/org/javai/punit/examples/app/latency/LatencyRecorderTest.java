@@ -0,0 +1,126 @@
+package org.javai.punit.examples.app.latency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LatencyRecorder")
+class LatencyRecorderTest {
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Test
+    @DisplayName("keeps sub-millisecond latencies apart")
+    void keepsSubMillisecondLatencies() {
+        recorder.record(Duration.ofNanos(120));
+        recorder.record(Duration.ofNanos(40_000));
+        recorder.record(Duration.ofNanos(700_000));
+
+        LatencySnapshot snapshot = recorder.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(3);
+        assertThat(snapshot.min()).isEqualTo(Duration.ofNanos(120));
+        assertThat(nanos(snapshot.percentile(50))).isCloseTo(40_000, within(40_000 / 128L));
+        assertThat(nanos(snapshot.max())).isCloseTo(700_000, within(700_000 / 128L));
+    }
+
+    @Test
+    @DisplayName("reads percentiles to within 1% of the recorded latencies")
+    void readsAccuratePercentiles() {
+        for (int ms = 1; ms <= 1_000; ms++) {
+            recorder.record(Duration.ofMillis(ms));
+        }
+
+        LatencySnapshot snapshot = recorder.snapshot();
+
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9, 100}) {
+            long expected = Duration.ofMillis((long) Math.ceil(percentile * 10)).toNanos();
+            assertThat(nanos(snapshot.percentile(percentile)))
+                    .as("P%s", percentile)
+                    .isBetween(expected, expected + expected / 100);
+        }
+        assertThat(nanos(snapshot.mean())).isCloseTo(Duration.ofMillis(500).toNanos(), within(5_000_000L));
+    }
+
+    @Test
+    @DisplayName("places every latency in a bucket that holds it")
+    void bucketsHoldTheirLatencies() {
+        for (long nanos = 1; nanos > 0 && nanos <= LatencyRecorder.HIGHEST_TRACKABLE.toNanos(); nanos = nanos * 3 + 1) {
+            int index = LatencySnapshot.indexOf(nanos);
+            assertThat(nanos).isBetween(LatencySnapshot.lowestAt(index), LatencySnapshot.highestAt(index));
+        }
+        assertThat(LatencySnapshot.indexOf(LatencyRecorder.HIGHEST_TRACKABLE.toNanos()))
+                .isEqualTo(LatencySnapshot.BUCKETS - 1);
+    }
+
+    @Test
+    @DisplayName("counts latencies beyond its range as the highest it tracks")
+    void clampsLongLatencies() {
+        recorder.record(Duration.ofDays(1));
+
+        assertThat(recorder.snapshot().max()).isEqualTo(LatencyRecorder.HIGHEST_TRACKABLE);
+    }
+
+    @Test
+    @DisplayName("merges snapshots by adding their counts")
+    void mergesSnapshots() {
+        LatencyRecorder other = new LatencyRecorder();
+        recorder.record(Duration.ofMillis(10));
+        other.record(Duration.ofMillis(200));
+        other.record(Duration.ofMillis(300));
+
+        LatencySnapshot merged = recorder.snapshot().merge(other.snapshot());
+
+        assertThat(merged.count()).isEqualTo(3);
+        assertThat(merged.min()).isLessThanOrEqualTo(Duration.ofMillis(10));
+        assertThat(merged.max()).isGreaterThanOrEqualTo(Duration.ofMillis(300));
+        assertThat(LatencySnapshot.empty().merge(merged).count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("records from many threads without losing a latency")
+    void recordsConcurrently() {
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        recorder.record(i);
+                    }
+                });
+            }
+        }
+
+        assertThat(recorder.snapshot().count()).isEqualTo(40_000);
+    }
+
+    @Test
+    @DisplayName("reads zero from an empty snapshot, and forgets on reset")
+    void emptyAndReset() {
+        recorder.record(Duration.ofMillis(5));
+        recorder.reset();
+
+        LatencySnapshot snapshot = recorder.snapshot();
+
+        assertThat(snapshot.count()).isZero();
+        assertThat(snapshot.percentile(99)).isEqualTo(Duration.ZERO);
+        assertThat(snapshot.mean()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("rejects negative latencies and out-of-range percentiles")
+    void rejectsInvalidInput() {
+        assertThatThrownBy(() -> recorder.record(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> recorder.snapshot().percentile(100.5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long nanos(Duration duration) {
+        return duration.toNanos();
+    }
+}
@@ -0,0 +1,86 @@
+package org.javai.punit.examples.app.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ModelProfiles")
+class ModelProfilesTest {
+
+    private static final String PROFILES = """
+            {
+              "default": {"deviationScale": 1.0, "meanLatencyMillis": 100, "latencyJitterMillis": 0, "tokenScale": 1.0},
+              "models": {
+                "gpt-4o": {"deviationScale": 0.5, "meanLatencyMillis": 200, "latencyJitterMillis": 50, "tokenScale": 1.0},
+                "claude-*": {"deviationScale": 0.8, "meanLatencyMillis": 300, "latencyJitterMillis": 0, "tokenScale": 1.2},
+                "claude-sonnet-*": {"deviationScale": 0.4, "meanLatencyMillis": 400, "latencyJitterMillis": 0, "tokenScale": 1.2}
+              }
+            }
+            """;
+
+    @Test
+    @DisplayName("resolves exact names before prefix patterns")
+    void resolvesExactNamesFirst() throws IOException {
+        ModelProfiles profiles = load(PROFILES);
+
+        assertThat(profiles.forModel("gpt-4o").deviationScale()).isEqualTo(0.5);
+        assertThat(profiles.forModel("gpt-4o-mini").deviationScale()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("prefers the longest matching prefix pattern")
+    void prefersLongestPrefix() throws IOException {
+        ModelProfiles profiles = load(PROFILES);
+
+        assertThat(profiles.forModel("claude-sonnet-4-5-20250929").deviationScale()).isEqualTo(0.4);
+        assertThat(profiles.forModel("claude-haiku-4-5-20251001").deviationScale()).isEqualTo(0.8);
+    }
+
+    @Test
+    @DisplayName("falls back to the default profile")
+    void fallsBackToDefault() throws IOException {
+        ModelProfiles profiles = load(PROFILES);
+
+        assertThat(profiles.forModel("gemini-pro").meanLatencyMillis()).isEqualTo(100);
+        assertThat(profiles.forModel(null).meanLatencyMillis()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("bundled profiles distinguish the explore grid's models")
+    void bundledProfilesDistinguishGridModels() {
+        ModelProfiles profiles = ModelProfiles.bundled();
+
+        assertThat(profiles.forModel("gpt-4o-mini"))
+                .isNotEqualTo(profiles.forModel("gpt-4o"))
+                .isNotEqualTo(profiles.forModel("claude-haiku-4-5-20251001"))
+                .isNotEqualTo(profiles.forModel("claude-sonnet-4-5-20250929"));
+        assertThat(profiles.forModel("gpt-4o-mini").deviationScale()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("profile scales deviation, tokens and latency")
+    void profileScalesBehaviour() {
+        ModelProfile profile = new ModelProfile(0.5, 200, 50, 1.2);
+
+        assertThat(profile.deviationChance(0.1)).isEqualTo(0.05);
+        assertThat(new ModelProfile(20.0, 0, 0, 1.0).deviationChance(0.1)).isEqualTo(1.0);
+        assertThat(profile.scaleTokens(100)).isEqualTo(120);
+        assertThat(profile.sampleLatencyMillis(new Random(1))).isBetween(150L, 250L);
+    }
+
+    @Test
+    @DisplayName("profile rejects jitter larger than the mean")
+    void profileRejectsExcessJitter() {
+        assertThatThrownBy(() -> new ModelProfile(1.0, 10, 20, 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ModelProfiles load(String json) throws IOException {
+        return ModelProfiles.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,76 @@
+package org.javai.punit.examples.app.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ProviderQuotaLimiter")
+class ProviderQuotaLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("admits up to the request limit, then rejects with a 429")
+    void rejectsOverRequestLimit() throws ChatLlmException {
+        ProviderQuotaLimiter limiter = new ProviderQuotaLimiter(ProviderQuota.requestsPerMinute(3), clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.admit(10);
+        }
+
+        assertThatThrownBy(() -> limiter.admit(10))
+                .isInstanceOf(ChatLlmException.class)
+                .hasMessageContaining("HTTP 429")
+                .hasMessageContaining("requests per minute");
+        assertThat(limiter.usage()).isEqualTo(new QuotaUsage(3, 1, 0, 30));
+    }
+
+    @Test
+    @DisplayName("refills the request bucket continuously")
+    void refillsContinuously() throws ChatLlmException {
+        ProviderQuotaLimiter limiter = new ProviderQuotaLimiter(ProviderQuota.requestsPerMinute(60), clock::get);
+        for (int i = 0; i < 60; i++) {
+            limiter.admit(0);
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        limiter.admit(0);
+        assertThatThrownBy(() -> limiter.admit(0)).isInstanceOf(ChatLlmException.class);
+    }
+
+    @Test
+    @DisplayName("completion tokens put the token bucket into debt")
+    void completionTokensCreateDebt() throws ChatLlmException {
+        ProviderQuotaLimiter limiter = new ProviderQuotaLimiter(
+                ProviderQuota.unlimited().tokensPerMinute(600), clock::get);
+
+        limiter.admit(100);
+        limiter.charge(600);
+
+        assertThatThrownBy(() -> limiter.admit(1))
+                .hasMessageContaining("tokens per minute");
+
+        // 100 tokens of debt plus 50 requested: 15 seconds at 10 tokens/second
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(15));
+        limiter.admit(50);
+        assertThat(limiter.usage().rejectedForTokens()).isEqualTo(1);
+        assertThat(limiter.usage().tokensConsumed()).isEqualTo(750);
+    }
+
+    @Test
+    @DisplayName("unlimited quota admits everything and still counts usage")
+    void unlimitedQuotaCountsUsage() throws ChatLlmException {
+        ProviderQuotaLimiter limiter = new ProviderQuotaLimiter(ProviderQuota.unlimited(), clock::get);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.admit(5);
+            limiter.charge(5);
+        }
+
+        assertThat(limiter.usage()).isEqualTo(new QuotaUsage(1000, 0, 0, 10_000));
+    }
+}
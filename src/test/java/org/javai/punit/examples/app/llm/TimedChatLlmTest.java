@@ -0,0 +1,67 @@
+package org.javai.punit.examples.app.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.javai.punit.examples.app.latency.LatencyRecorder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TimedChatLlm")
+class TimedChatLlmTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    /** Answers after as many microseconds as the user message is long, and fails on "fail". */
+    private final ChatLlm delegate = new ChatLlm() {
+        @Override
+        public String chat(String systemMessage, String userMessage, String model, double temperature)
+                throws ChatLlmException {
+            return chatWithMetadata(systemMessage, userMessage, model, temperature).content();
+        }
+
+        @Override
+        public ChatResponse chatWithMetadata(String systemMessage, String userMessage, String model,
+                double temperature) throws ChatLlmException {
+            if (userMessage.equals("fail")) {
+                throw new ChatLlmException("HTTP 503");
+            }
+            now.addAndGet(userMessage.length() * 1_000L);
+            return new ChatResponse("{}", 10, 5);
+        }
+
+        @Override
+        public long getTotalTokensUsed() {
+            return 15;
+        }
+
+        @Override
+        public void resetTokenCount() {
+        }
+    };
+
+    @Test
+    @DisplayName("records the latency of each answered call")
+    void recordsCalls() throws ChatLlmException {
+        TimedChatLlm llm = new TimedChatLlm(delegate, new LatencyRecorder(), now::get);
+
+        llm.chat("system", "x".repeat(200), "gpt-4o-mini", 0.3);
+        llm.chatWithMetadata("system", "x".repeat(800), "gpt-4o-mini", 0.3);
+
+        assertThat(llm.snapshot().count()).isEqualTo(2);
+        assertThat(llm.snapshot().min()).isBetween(Duration.ofNanos(199_000), Duration.ofNanos(200_000));
+        assertThat(llm.snapshot().max()).isBetween(Duration.ofNanos(800_000), Duration.ofNanos(804_000));
+        assertThat(llm.getTotalTokensUsed()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("does not record a call that throws")
+    void skipsFailedCalls() {
+        TimedChatLlm llm = new TimedChatLlm(delegate, new LatencyRecorder(), now::get);
+
+        assertThatThrownBy(() -> llm.chat("system", "fail", "gpt-4o-mini", 0.3))
+                .isInstanceOf(ChatLlmException.class);
+        assertThat(llm.snapshot().count()).isZero();
+    }
+}
@@ -0,0 +1,153 @@
+package org.javai.punit.examples.app.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.withinPercentage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.javai.punit.examples.usecases.ShoppingBasketUseCase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tokenizer")
+class TokenizerTest {
+
+    @Nested
+    @DisplayName("WhitespaceTokenizer")
+    class Whitespace {
+
+        @Test
+        @DisplayName("returns 0 for null, empty and blank text")
+        void returnsZeroForEmptyText() {
+            Tokenizer tokenizer = new WhitespaceTokenizer();
+
+            assertThat(tokenizer.countTokens(null)).isZero();
+            assertThat(tokenizer.countTokens("")).isZero();
+            assertThat(tokenizer.countTokens(" \n\t ")).isZero();
+        }
+
+        @Test
+        @DisplayName("scales the word count by the tokens-per-word ratio")
+        void scalesWordCount() {
+            assertThat(new WhitespaceTokenizer().countTokens("  Add 2\napples  ")).isEqualTo(4);
+            assertThat(new WhitespaceTokenizer(2.0).countTokens("Add 2 apples")).isEqualTo(6);
+        }
+
+        @Test
+        @DisplayName("rejects a non-positive ratio")
+        void rejectsNonPositiveRatio() {
+            assertThatThrownBy(() -> new WhitespaceTokenizer(0))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("BpeTokenizer")
+    class Bpe {
+
+        @Test
+        @DisplayName("applies merges in rank order")
+        void appliesMergesInRankOrder() throws IOException {
+            BpeTokenizer tokenizer = load("""
+                    # test table
+                    a b
+                    ab c
+                    Ġ ab
+                    """);
+
+            assertThat(tokenizer.countTokens("abc")).isEqualTo(1);
+            assertThat(tokenizer.countTokens("abd")).isEqualTo(2);
+            assertThat(tokenizer.countTokens("abc ab")).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("counts unknown characters as one token each")
+        void countsUnknownCharactersIndividually() throws IOException {
+            BpeTokenizer tokenizer = load("a b\n");
+
+            assertThat(tokenizer.countTokens("xyz")).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("rejects malformed merge lines")
+        void rejectsMalformedMerges() {
+            assertThatThrownBy(() -> load("abc\n"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("rank 0");
+        }
+
+        @Test
+        @DisplayName("bundled table tokenizes common words compactly")
+        void bundledTableTokenizesCommonWords() {
+            Tokenizer tokenizer = Tokenizer.standard();
+
+            assertThat(tokenizer.countTokens("Add 2 apples")).isBetween(3, 5);
+            assertThat(tokenizer.countTokens("{\"actions\": []}")).isBetween(4, 8);
+        }
+
+        @Test
+        @DisplayName("bundled table counts within reach of a provider's tokenizer")
+        void bundledTableTracksReferenceCounts() {
+            Tokenizer tokenizer = Tokenizer.standard();
+
+            // Reference counts for OpenAI's cl100k_base
+            assertThat(tokenizer.countTokens(ShoppingBasketUseCase.DEFAULT_SYSTEM_PROMPT))
+                    .isCloseTo(312, withinPercentage(10));
+            assertThat(tokenizer.countTokens("Add 3 oranges and 2 bananas")).isCloseTo(8, within(2));
+        }
+
+        @Test
+        @DisplayName("bundled table only merges within a piece")
+        void bundledMergesStayWithinPieces() throws IOException {
+            try (InputStream in = BpeTokenizer.class.getResourceAsStream("bpe-merges.txt")) {
+                List<String> merged = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                        .filter(line -> !line.startsWith("#"))
+                        .map(line -> line.replace(" ", "").replace('\u0120', ' ').replace('\u010A', '\n')
+                                .replace('\u0109', '\t').replace('\u010D', '\r'))
+                        .toList();
+
+                assertThat(merged).hasSize(30_000)
+                        .allSatisfy(symbol -> assertThat(BpeTokenizer.pieceEnd(symbol, 0)).isEqualTo(symbol.length()));
+            }
+        }
+
+        private BpeTokenizer load(String table) throws IOException {
+            return BpeTokenizer.load(new ByteArrayInputStream(table.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Nested
+    @DisplayName("CachingTokenizer")
+    class Caching {
+
+        @Test
+        @DisplayName("answers repeated text from the cache")
+        void answersRepeatedTextFromCache() {
+            CachingTokenizer tokenizer = new CachingTokenizer(new WhitespaceTokenizer(), 2);
+
+            int first = tokenizer.countTokens("You are a shopping assistant");
+            int second = tokenizer.countTokens("You are a shopping assistant");
+
+            assertThat(second).isEqualTo(first);
+            assertThat(tokenizer.hitCount()).isEqualTo(1);
+            assertThat(tokenizer.missCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("evicts the least recently used text when full")
+        void evictsLeastRecentlyUsed() {
+            CachingTokenizer tokenizer = new CachingTokenizer(new WhitespaceTokenizer(), 1);
+
+            tokenizer.countTokens("first prompt");
+            tokenizer.countTokens("second prompt");
+            tokenizer.countTokens("first prompt");
+
+            assertThat(tokenizer.missCount()).isEqualTo(3);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.javai.punit.examples.app.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TransportFaultInjector")
+class TransportFaultInjectorTest {
+
+    @Test
+    @DisplayName("injects nothing for the fault-free profile")
+    void injectsNothingForNone() throws ChatLlmException {
+        TransportFaultInjector injector = new TransportFaultInjector(TransportFaultProfile.none(), 42L);
+
+        for (int i = 0; i < 1000; i++) {
+            injector.beforeCall();
+        }
+
+        assertThat(injector.injectedCounts()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("fails the last calls of every outage cycle")
+    void failsOutageWindow() {
+        TransportFaultInjector injector = new TransportFaultInjector(
+                TransportFaultProfile.builder().outages(10, 3).build(), 42L);
+
+        int failures = 0;
+        for (int call = 0; call < 20; call++) {
+            try {
+                injector.beforeCall();
+                assertThat(call % 10).isLessThan(7);
+            } catch (ChatLlmException e) {
+                assertThat(call % 10).isGreaterThanOrEqualTo(7);
+                assertThat(e).hasMessageContaining("HTTP 503");
+                failures++;
+            }
+        }
+
+        assertThat(failures).isEqualTo(6);
+        assertThat(injector.injectedCounts()).containsEntry(TransportFaultProfile.Fault.OUTAGE, 6L);
+    }
+
+    @Test
+    @DisplayName("rate limits every call at rate 1.0")
+    void rateLimitsAtFullRate() {
+        TransportFaultInjector injector = new TransportFaultInjector(
+                TransportFaultProfile.builder().rateLimitRate(1.0).build(), 42L);
+
+        assertThatThrownBy(injector::beforeCall)
+                .isInstanceOf(ChatLlmException.class)
+                .hasMessageContaining("HTTP 429");
+    }
+
+    @Test
+    @DisplayName("blocks for the timeout delay before failing")
+    void blocksBeforeTimingOut() {
+        TransportFaultInjector injector = new TransportFaultInjector(
+                TransportFaultProfile.builder().timeouts(1.0, Duration.ofMillis(20)).build(), 42L);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(injector::beforeCall).hasMessageContaining("timed out after 20 ms");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+    }
+
+    @Test
+    @DisplayName("a timing-out call does not hold up other callers")
+    void timeoutDoesNotBlockOtherCallers() throws Exception {
+        TransportFaultInjector injector = new TransportFaultInjector(
+                TransportFaultProfile.builder().timeouts(1.0, Duration.ofMillis(500)).build(), 42L);
+        Thread sleeper = Thread.ofVirtual().start(() -> assertThatThrownBy(injector::beforeCall));
+        while (injector.injectedCounts().isEmpty()) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(injector::beforeCall).hasMessageContaining("timed out");
+        Duration second = Duration.ofNanos(System.nanoTime() - start);
+        sleeper.join();
+
+        // Serialised behind the first call, the second would wait close to 1 s
+        assertThat(second).isLessThan(Duration.ofMillis(900));
+        assertThat(injector.injectedCounts()).containsEntry(TransportFaultProfile.Fault.TIMEOUT, 2L);
+    }
+
+    @Test
+    @DisplayName("same seed reproduces the same fault sequence")
+    void sameSeedReproducesFaults() {
+        TransportFaultProfile profile = TransportFaultProfile.rateLimitStorm();
+
+        assertThat(faultPattern(new TransportFaultInjector(profile, 7L)))
+                .isEqualTo(faultPattern(new TransportFaultInjector(profile, 7L)));
+    }
+
+    @Test
+    @DisplayName("profile rejects out-of-range rates")
+    void profileRejectsOutOfRangeRates() {
+        assertThatThrownBy(() -> TransportFaultProfile.builder().connectionResetRate(1.5).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("connectionResetRate");
+    }
+
+    private static String faultPattern(TransportFaultInjector injector) {
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            try {
+                injector.beforeCall();
+                pattern.append('.');
+            } catch (ChatLlmException e) {
+                pattern.append('x');
+            }
+        }
+        return pattern.toString();
+    }
+}
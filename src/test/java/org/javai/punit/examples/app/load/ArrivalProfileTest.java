@@ -0,0 +1,68 @@
+package org.javai.punit.examples.app.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ArrivalProfile")
+class ArrivalProfileTest {
+
+    @Test
+    @DisplayName("spaces a constant rate's arrivals evenly")
+    void spacesConstantRate() {
+        ArrivalProfile profile = ArrivalProfile.constant(200, Duration.ofSeconds(2));
+
+        assertThat(profile.arrivals()).isEqualTo(400);
+        assertThat(profile.offsetNanos(1)).isEqualTo(Duration.ofMillis(5).toNanos());
+        assertThat(profile.offsetNanos(400)).isEqualTo(Duration.ofSeconds(2).toNanos());
+        assertThat(profile.offsetNanos(401)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("issues a ramp's arrivals faster as its rate rises")
+    void followsRamp() {
+        ArrivalProfile profile = ArrivalProfile.ramp(0, 100, Duration.ofSeconds(10));
+
+        // The area under a 0-100/s ramp is 500; half of it lies after 7.07s
+        assertThat(profile.arrivals()).isEqualTo(500);
+        assertThat(profile.offsetNanos(250) / 1e9).isCloseTo(Math.sqrt(50), within(1e-6));
+        assertThat(profile.offsetNanos(500) / 1e9).isCloseTo(10, within(1e-6));
+        long firstGap = profile.offsetNanos(2) - profile.offsetNanos(1);
+        long lastGap = profile.offsetNanos(500) - profile.offsetNanos(499);
+        assertThat(lastGap).isLessThan(firstGap);
+    }
+
+    @Test
+    @DisplayName("runs stages one after another")
+    void chainsStages() {
+        ArrivalProfile profile = ArrivalProfile.ramp(0, 200, Duration.ofSeconds(1))
+                .then(ArrivalProfile.constant(200, Duration.ofSeconds(1)));
+
+        assertThat(profile.duration()).isEqualTo(Duration.ofSeconds(2));
+        assertThat(profile.arrivals()).isEqualTo(300);
+        assertThat(profile.meanRate()).isCloseTo(150, within(1e-9));
+        assertThat(profile.offsetNanos(100)).isEqualTo(Duration.ofSeconds(1).toNanos());
+        assertThat(profile.offsetNanos(101)).isEqualTo(Duration.ofMillis(1005).toNanos());
+    }
+
+    @Test
+    @DisplayName("reaches the end of a falling ramp")
+    void followsFallingRamp() {
+        ArrivalProfile profile = ArrivalProfile.ramp(100, 0, Duration.ofSeconds(1));
+
+        assertThat(profile.arrivals()).isEqualTo(50);
+        assertThat(profile.offsetNanos(50) / 1e9).isCloseTo(1, within(1e-6));
+    }
+
+    @Test
+    @DisplayName("rejects negative rates and non-positive durations")
+    void rejectsInvalidProfiles() {
+        assertThatThrownBy(() -> ArrivalProfile.constant(-1, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ArrivalProfile.ramp(0, 10, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
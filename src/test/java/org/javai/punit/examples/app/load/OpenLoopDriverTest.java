@@ -0,0 +1,70 @@
+package org.javai.punit.examples.app.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.javai.punit.examples.app.payment.MockPaymentGateway;
+import org.javai.punit.examples.app.payment.PaymentResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("OpenLoopDriver")
+class OpenLoopDriverTest {
+
+    @Test
+    @DisplayName("keeps to the target rate while charges overlap")
+    void keepsTargetRate() {
+        MockPaymentGateway gateway = MockPaymentGateway.instance();
+        OpenLoopDriver driver = new OpenLoopDriver(ArrivalProfile.constant(200, Duration.ofSeconds(1)));
+
+        LoadReport report = driver.run(n -> gateway.chargeAsync("tok_visa_4242", 1999));
+
+        assertThat(report.issued()).isEqualTo(200);
+        assertThat(report.completed() + report.failed()).isEqualTo(200);
+        assertThat(report.keptPace(0.05)).as("%s", report).isTrue();
+        assertThat(report.latency().count()).isEqualTo(report.completed());
+        assertThat(report.latency().min()).isGreaterThanOrEqualTo(Duration.ofMillis(49));
+    }
+
+    @Test
+    @DisplayName("times requests from when they were due, so a lagging sender shows")
+    void measuresFromIntendedStart() {
+        OpenLoopDriver driver = new OpenLoopDriver(ArrivalProfile.constant(200, Duration.ofMillis(250)));
+
+        // Each request holds the sender for 10ms, twice the 5ms between arrivals
+        LoadReport report = driver.run(n -> {
+            sleep(Duration.ofMillis(10));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        assertThat(report.issued()).isEqualTo(50);
+        assertThat(report.keptPace(0.2)).isFalse();
+        assertThat(report.maxIssueLag()).isGreaterThan(Duration.ofMillis(100));
+        assertThat(report.latency().max()).isGreaterThan(report.serviceTime().max().multipliedBy(5));
+    }
+
+    @Test
+    @DisplayName("counts requests that fail, to issue or to complete")
+    void countsFailures() {
+        OpenLoopDriver driver = new OpenLoopDriver(ArrivalProfile.constant(100, Duration.ofMillis(100)));
+
+        LoadReport report = driver.run(n -> {
+            if (n % 2 == 0) {
+                throw new IllegalStateException("connection refused");
+            }
+            return CompletableFuture.<PaymentResult>failedFuture(new IllegalStateException("timeout"));
+        });
+
+        assertThat(report.issued()).isEqualTo(10);
+        assertThat(report.failed()).isEqualTo(10);
+        assertThat(report.latency().count()).isZero();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
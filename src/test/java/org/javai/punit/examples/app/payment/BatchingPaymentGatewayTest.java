@@ -0,0 +1,89 @@
+package org.javai.punit.examples.app.payment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("BatchingPaymentGateway")
+class BatchingPaymentGatewayTest {
+
+    /** Records each batch it is sent and settles every charge. */
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger settled = new AtomicInteger();
+    private final PaymentGateway recording = new PaymentGateway() {
+        @Override
+        public PaymentResult charge(String cardToken, long amountCents) {
+            throw new AssertionError("Expected a batch");
+        }
+
+        @Override
+        public List<PaymentResult> chargeAll(List<ChargeRequest> charges) {
+            batchSizes.add(charges.size());
+            List<PaymentResult> results = new ArrayList<>();
+            for (ChargeRequest charge : charges) {
+                results.add(PaymentResult.success(charge.cardToken() + "#" + settled.incrementAndGet()));
+            }
+            return results;
+        }
+    };
+
+    @Test
+    @DisplayName("gathers concurrent charges into batches, returning each caller its own result")
+    void gathersConcurrentCharges() throws Exception {
+        BatchingPaymentGateway gateway = new BatchingPaymentGateway(recording, 8, Duration.ofSeconds(1));
+
+        List<Future<PaymentResult>> charges = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 16; i++) {
+                String card = "tok_" + i;
+                charges.add(executor.submit(() -> gateway.charge(card, 1999)));
+            }
+        }
+
+        for (int i = 0; i < 16; i++) {
+            assertThat(charges.get(i).get().transactionId()).startsWith("tok_" + i + "#");
+        }
+        assertThat(batchSizes).containsExactly(8, 8);
+    }
+
+    @Test
+    @DisplayName("sends a partial batch once the linger time is up")
+    void sendsPartialBatch() {
+        BatchingPaymentGateway gateway = new BatchingPaymentGateway(recording, 8, Duration.ofMillis(10));
+
+        PaymentResult result = gateway.charge("tok_visa_4242", 1999);
+
+        assertThat(result.success()).isTrue();
+        assertThat(batchSizes).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("rethrows a failed batch to every caller in it")
+    void rethrowsFailedBatch() {
+        PaymentGateway failing = new PaymentGateway() {
+            @Override
+            public PaymentResult charge(String cardToken, long amountCents) {
+                throw new AssertionError("Expected a batch");
+            }
+
+            @Override
+            public List<PaymentResult> chargeAll(List<ChargeRequest> charges) {
+                throw new IllegalStateException("settlement unavailable");
+            }
+        };
+        BatchingPaymentGateway gateway = new BatchingPaymentGateway(failing, 1, Duration.ZERO);
+
+        assertThatThrownBy(() -> gateway.charge("tok_visa_4242", 1999))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("settlement unavailable");
+    }
+}
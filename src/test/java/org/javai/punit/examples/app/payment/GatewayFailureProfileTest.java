@@ -0,0 +1,53 @@
+package org.javai.punit.examples.app.payment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("GatewayFailureProfile")
+class GatewayFailureProfileTest {
+
+    @Test
+    @DisplayName("uses a card network's own rate, and the base rate for others")
+    void looksUpNetworkRates() {
+        GatewayFailureProfile profile = GatewayFailureProfile.builder()
+                .failureRate(0.001)
+                .networkFailureRate("amex", 0.05)
+                .build();
+
+        assertThat(profile.failureRateFor("tok_amex_3782")).isEqualTo(0.05);
+        assertThat(profile.failureRateFor("tok_visa_4242")).isEqualTo(0.001);
+        assertThat(profile.failureRateFor("opaque-token")).isEqualTo(0.001);
+    }
+
+    @Test
+    @DisplayName("reads the card network from a token")
+    void readsCardNetwork() {
+        assertThat(GatewayFailureProfile.cardNetwork("tok_mastercard_5555")).isEqualTo("mastercard");
+        assertThat(GatewayFailureProfile.cardNetwork("tok_visa")).isEmpty();
+        assertThat(GatewayFailureProfile.cardNetwork("visa")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("has outages only when they can start")
+    void reportsOutages() {
+        assertThat(GatewayFailureProfile.standard().hasOutages()).isFalse();
+        assertThat(GatewayFailureProfile.clusteredOutages().hasOutages()).isTrue();
+    }
+
+    @Test
+    @DisplayName("rejects rates outside [0, 1] and impossible latencies")
+    void rejectsInvalidProfiles() {
+        assertThatThrownBy(() -> GatewayFailureProfile.builder().failureRate(1.5).build())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> GatewayFailureProfile.builder().networkFailureRate("amex", -0.1).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("amex");
+        assertThatThrownBy(() -> GatewayFailureProfile.builder().outages(0.01, 0.1, 0.5, 0.5).build())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> GatewayFailureProfile.builder().latencySpikes(0.1, Duration.ofMillis(100)).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,170 @@
+package org.javai.punit.examples.app.payment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("HttpPaymentGateway")
+class HttpPaymentGatewayTest {
+
+    /** Declines amex cards, settles the rest, and remembers the keys it was sent. */
+    private final Map<String, String> keys = new ConcurrentHashMap<>();
+    private final PaymentGateway backing = new PaymentGateway() {
+        @Override
+        public PaymentResult charge(String cardToken, long amountCents) {
+            return cardToken.startsWith("tok_amex")
+                    ? PaymentResult.failure("DECLINED")
+                    : PaymentResult.success("txn_" + amountCents);
+        }
+
+        @Override
+        public PaymentResult charge(String idempotencyKey, String cardToken, long amountCents) {
+            keys.put(idempotencyKey, cardToken);
+            return charge(cardToken, amountCents);
+        }
+    };
+
+    @Test
+    @DisplayName("charges through the gateway's HTTP API, declines included")
+    void charges() {
+        try (StubPaymentGatewayServer stub = StubPaymentGatewayServer.start(backing);
+                HttpPaymentGateway gateway = HttpPaymentGateway.builder(stub.baseUri()).build()) {
+            assertThat(gateway.charge("tok_visa_4242", 1999)).isEqualTo(PaymentResult.success("txn_1999"));
+            assertThat(gateway.charge("tok_amex_3782", 1999)).isEqualTo(PaymentResult.failure("DECLINED"));
+            assertThat(gateway.chargeAsync("tok_visa_4242", 500).join()).isEqualTo(PaymentResult.success("txn_500"));
+        }
+    }
+
+    @Test
+    @DisplayName("sends a keyed charge's idempotency key, and batches in one request")
+    void keysAndBatches() {
+        try (StubPaymentGatewayServer stub = StubPaymentGatewayServer.start(backing);
+                HttpPaymentGateway gateway = HttpPaymentGateway.builder(stub.baseUri())
+                        .prewarmConnections(0)
+                        .build()) {
+            gateway.charge("order-17", "tok_visa_4242", 1999);
+            List<PaymentResult> results = gateway.chargeAll(List.of(
+                    new ChargeRequest("tok_visa_4242", 100), new ChargeRequest("tok_amex_3782", 200)));
+
+            assertThat(keys).containsExactly(Map.entry("order-17", "tok_visa_4242"));
+            assertThat(results).containsExactly(PaymentResult.success("txn_100"), PaymentResult.failure("DECLINED"));
+            assertThat(stub.requestCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("opens its connections before the first charge, and reuses them")
+    void reusesWarmConnections() {
+        try (StubPaymentGatewayServer stub = StubPaymentGatewayServer.start(backing);
+                HttpPaymentGateway gateway = HttpPaymentGateway.builder(stub.baseUri())
+                        .prewarmConnections(4)
+                        .build()) {
+            assertThat(gateway.isWarm()).isTrue();
+            assertThat(stub.connectionCount()).isBetween(1, 4);
+            int warmed = stub.connectionCount();
+
+            for (int i = 0; i < 50; i++) {
+                gateway.charge("tok_visa_4242", 1999);
+            }
+
+            assertThat(stub.connectionCount()).isEqualTo(warmed);
+        }
+    }
+
+    @Test
+    @DisplayName("overlaps asynchronous charges on the mock's latency")
+    void overlapsAsyncCharges() {
+        try (StubPaymentGatewayServer stub = StubPaymentGatewayServer.start();
+                HttpPaymentGateway gateway = HttpPaymentGateway.builder(stub.baseUri()).build()) {
+            long start = System.nanoTime();
+            List<CompletableFuture<PaymentResult>> charges = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                charges.add(gateway.chargeAsync("tok_visa_4242", 1999));
+            }
+            charges.forEach(CompletableFuture::join);
+
+            // 16 charges of 50ms or more each, one after another, would take 800ms
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(800));
+        }
+    }
+
+    @Test
+    @DisplayName("reports a slow gateway as TIMEOUT and an unreachable one as NETWORK_ERROR")
+    void reportsTransportFailures() throws Exception {
+        PaymentGateway slow = (cardToken, amountCents) -> {
+            try {
+                Thread.sleep(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return PaymentResult.success("txn_late");
+        };
+        try (StubPaymentGatewayServer stub = StubPaymentGatewayServer.start(slow);
+                HttpPaymentGateway gateway = HttpPaymentGateway.builder(stub.baseUri())
+                        .timeout(Duration.ofMillis(100))
+                        .build()) {
+            assertThat(gateway.charge("tok_visa_4242", 1999)).isEqualTo(PaymentResult.failure("TIMEOUT"));
+            assertThat(gateway.chargeAsync("tok_visa_4242", 1999).join()).isEqualTo(PaymentResult.failure("TIMEOUT"));
+        }
+
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        try (HttpPaymentGateway unreachable = HttpPaymentGateway.builder(URI.create("http://127.0.0.1:" + closedPort))
+                .build()) {
+            assertThat(unreachable.isWarm()).isFalse();
+            assertThat(unreachable.charge("tok_visa_4242", 1999)).isEqualTo(PaymentResult.failure("NETWORK_ERROR"));
+            assertThat(unreachable.chargeAll(List.of(new ChargeRequest("tok_visa_4242", 1999))))
+                    .containsExactly(PaymentResult.failure("NETWORK_ERROR"));
+        }
+    }
+
+    @Test
+    @DisplayName("reports a response it cannot read as GATEWAY_ERROR")
+    void reportsGatewayErrors() {
+        PaymentGateway broken = (cardToken, amountCents) -> {
+            throw new IllegalStateException("gateway fault");
+        };
+        try (StubPaymentGatewayServer stub = StubPaymentGatewayServer.start(broken);
+                HttpPaymentGateway gateway = HttpPaymentGateway.builder(stub.baseUri()).build()) {
+            assertThat(gateway.charge("tok_visa_4242", 1999))
+                    .isEqualTo(PaymentResult.failure(HttpPaymentGateway.GATEWAY_ERROR));
+        }
+    }
+
+    @Test
+    @DisplayName("closes the client it built, but not a shared one")
+    void closesOwnClientOnly() {
+        try (StubPaymentGatewayServer stub = StubPaymentGatewayServer.start(backing);
+                HttpClient shared = HttpClient.newHttpClient()) {
+            HttpPaymentGateway owning = HttpPaymentGateway.builder(stub.baseUri()).build();
+            HttpPaymentGateway sharing = HttpPaymentGateway.builder(stub.baseUri()).httpClient(shared).build();
+
+            owning.close();
+            sharing.close();
+
+            assertThat(owning.charge("tok_visa_4242", 1999)).isEqualTo(PaymentResult.failure("NETWORK_ERROR"));
+            assertThat(sharing.charge("tok_visa_4242", 1999)).isEqualTo(PaymentResult.success("txn_1999"));
+        }
+    }
+
+    @Test
+    @DisplayName("rejects a non-positive timeout")
+    void rejectsBadTimeout() {
+        assertThatThrownBy(() -> HttpPaymentGateway.builder(URI.create("http://127.0.0.1:1"))
+                .timeout(Duration.ZERO)
+                .build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,154 @@
+package org.javai.punit.examples.app.payment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("IdempotentPaymentGateway")
+class IdempotentPaymentGatewayTest {
+
+    private final AtomicInteger charges = new AtomicInteger();
+    private final PaymentGateway counting =
+            (cardToken, amountCents) -> PaymentResult.success("txn_" + charges.incrementAndGet());
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("answers a repeated key with the original result")
+    void replaysRepeatedKey() {
+        IdempotentPaymentGateway gateway = gateway(100, Duration.ofMinutes(1));
+
+        PaymentResult first = gateway.charge("key-1", "tok_visa_4242", 1999);
+        PaymentResult retry = gateway.charge("key-1", "tok_visa_4242", 1999);
+
+        assertThat(retry).isSameAs(first);
+        assertThat(charges).hasValue(1);
+        assertThat(gateway.chargeCount()).isEqualTo(1);
+        assertThat(gateway.replayCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("charges distinct keys, and unkeyed charges, separately")
+    void chargesDistinctKeys() {
+        IdempotentPaymentGateway gateway = gateway(100, Duration.ofMinutes(1));
+
+        gateway.charge("key-1", "tok_visa_4242", 1999);
+        gateway.charge("key-2", "tok_visa_4242", 1999);
+        gateway.charge("tok_visa_4242", 1999);
+        gateway.charge("tok_visa_4242", 1999);
+
+        assertThat(charges).hasValue(4);
+        assertThat(gateway.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("rejects a key reused for a different charge")
+    void rejectsReusedKey() {
+        IdempotentPaymentGateway gateway = gateway(100, Duration.ofMinutes(1));
+        gateway.charge("key-1", "tok_visa_4242", 1999);
+
+        PaymentResult reused = gateway.charge("key-1", "tok_visa_4242", 2999);
+
+        assertThat(reused.success()).isFalse();
+        assertThat(reused.errorCode()).isEqualTo(IdempotentPaymentGateway.KEY_REUSED);
+        assertThat(charges).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("forgets a key once its time to live has passed")
+    void expiresKeys() {
+        IdempotentPaymentGateway gateway = gateway(100, Duration.ofMinutes(1));
+        gateway.charge("key-1", "tok_visa_4242", 1999);
+
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        gateway.charge("key-1", "tok_visa_4242", 1999);
+        assertThat(charges).hasValue(1);
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        gateway.charge("key-1", "tok_visa_4242", 1999);
+        assertThat(charges).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("remembers no more than its bound")
+    void boundsKeys() {
+        IdempotentPaymentGateway gateway = gateway(50, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 1_000; i++) {
+            gateway.charge("key-" + i, "tok_visa_4242", 1999);
+        }
+
+        assertThat(gateway.size()).isLessThanOrEqualTo(50);
+        assertThat(charges).hasValue(1_000);
+    }
+
+    @Test
+    @DisplayName("makes one charge for duplicates that arrive while it is in flight")
+    void sharesInFlightCharge() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PaymentGateway slow = (cardToken, amountCents) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return PaymentResult.success("txn_" + charges.incrementAndGet());
+        };
+        IdempotentPaymentGateway gateway = new IdempotentPaymentGateway(slow, 100, Duration.ofMinutes(1));
+
+        List<Future<PaymentResult>> attempts = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                attempts.add(executor.submit(() -> gateway.charge("key-1", "tok_visa_4242", 1999)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+        }
+
+        assertThat(charges).hasValue(1);
+        for (Future<PaymentResult> attempt : attempts) {
+            assertThat(attempt.get().transactionId()).isEqualTo("txn_1");
+        }
+    }
+
+    @Test
+    @DisplayName("releases the key when the charge throws")
+    void releasesKeyOnFailure() {
+        AtomicInteger calls = new AtomicInteger();
+        PaymentGateway flaky = (cardToken, amountCents) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("connection reset");
+            }
+            return PaymentResult.success("txn_ok");
+        };
+        IdempotentPaymentGateway gateway = new IdempotentPaymentGateway(flaky, 100, Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> gateway.charge("key-1", "tok_visa_4242", 1999))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(gateway.charge("key-1", "tok_visa_4242", 1999).transactionId()).isEqualTo("txn_ok");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("rejects a non-positive bound or time to live")
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new IdempotentPaymentGateway(counting, 0, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new IdempotentPaymentGateway(counting, 10, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private IdempotentPaymentGateway gateway(int maxKeys, Duration ttl) {
+        return new IdempotentPaymentGateway(counting, maxKeys, ttl, now::get);
+    }
+}
@@ -0,0 +1,220 @@
+package org.javai.punit.examples.app.payment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("MockPaymentGateway")
+class MockPaymentGatewayTest {
+
+    private final MockPaymentGateway gateway = MockPaymentGateway.instance();
+
+    @AfterEach
+    void restoreDefaults() {
+        gateway.setSimulatedClock(null);
+        gateway.setFailureProfile(GatewayFailureProfile.standard());
+    }
+
+    @Test
+    @DisplayName("completes an async charge after the simulated latency")
+    void completesAsyncCharge() {
+        gateway.setSeed(7);
+        long start = System.nanoTime();
+
+        PaymentResult result = gateway.chargeAsync("tok_visa_4242", 1999).join();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        assertThat(result.success() ? result.transactionId() : result.errorCode()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("overlaps async charges instead of running them in turn")
+    void overlapsAsyncCharges() {
+        gateway.setSeed(7);
+        long start = System.nanoTime();
+
+        List<CompletableFuture<PaymentResult>> pending = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            pending.add(gateway.chargeAsync("tok_visa_4242", 1999));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+
+        // In turn, 200 charges take at least 10 seconds
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(pending).allSatisfy(future -> assertThat(future).isCompleted());
+    }
+
+    @Test
+    @DisplayName("advances a simulated clock by each charge's latency instead of waiting")
+    void advancesSimulatedClock() {
+        SimulatedClock simulated = new SimulatedClock();
+        gateway.setSimulatedClock(simulated);
+        gateway.setSeed(7);
+        LongSupplier clock = gateway.clock();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 268; i++) {
+            long before = clock.getAsLong();
+            gateway.charge("tok_visa_4242", 1999);
+            assertThat(Duration.ofNanos(clock.getAsLong() - before))
+                    .isBetween(Duration.ofMillis(50), Duration.ofMillis(199));
+        }
+        gateway.chargeAsync("tok_visa_4242", 1999).join();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(simulated.elapsed()).isGreaterThanOrEqualTo(Duration.ofMillis(269 * 50));
+    }
+
+    @Test
+    @DisplayName("repeats a seeded run's latencies and outcomes")
+    void repeatsSeededRun() {
+        gateway.setSimulatedClock(new SimulatedClock());
+
+        assertThat(seededRun(42)).isEqualTo(seededRun(42)).isNotEqualTo(seededRun(43));
+    }
+
+    @Test
+    @DisplayName("issues unique, increasing transaction IDs to concurrent callers")
+    void issuesUniqueTransactionIds() throws Exception {
+        gateway.setSimulatedClock(new SimulatedClock());
+        List<Future<List<String>>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                workers.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 5_000; i++) {
+                        PaymentResult result = gateway.charge("tok_visa_4242", 1999);
+                        if (result.success()) {
+                            ids.add(result.transactionId());
+                        }
+                    }
+                    return ids;
+                }));
+            }
+        }
+
+        Set<String> unique = new HashSet<>();
+        int issued = 0;
+        for (Future<List<String>> worker : workers) {
+            List<String> ids = worker.get();
+            assertThat(ids).isSorted().allMatch(id -> id.matches("txn_[0-9a-f]{12}"));
+            unique.addAll(ids);
+            issued += ids.size();
+        }
+        assertThat(unique).hasSize(issued);
+    }
+
+    private List<String> seededRun(long seed) {
+        gateway.setSeed(seed);
+        LongSupplier clock = gateway.clock();
+        List<String> run = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            long before = clock.getAsLong();
+            PaymentResult result = gateway.charge("tok_visa_4242", 1999);
+            run.add((clock.getAsLong() - before) + (result.success() ? "" : result.errorCode()));
+        }
+        return run;
+    }
+
+    @Test
+    @DisplayName("settles a mock batch in one amortised round trip")
+    void mockAmortisesBatchLatency() {
+        SimulatedClock clock = new SimulatedClock();
+        gateway.setSimulatedClock(clock);
+        List<ChargeRequest> batch = Collections.nCopies(100, new ChargeRequest("tok_visa_4242", 1999));
+
+        List<PaymentResult> results = gateway.chargeAll(batch);
+
+        assertThat(results).hasSize(100);
+        // One 50-200ms round trip plus 0.5ms per charge, not 100 round trips
+        assertThat(clock.elapsed()).isBetween(Duration.ofMillis(100), Duration.ofMillis(250));
+    }
+
+    @Test
+    @DisplayName("clusters failures into outages under a Markov outage profile")
+    void clustersOutageFailures() {
+        gateway.setSimulatedClock(new SimulatedClock());
+        gateway.setFailureProfile(GatewayFailureProfile.builder()
+                .outages(0.002, 0.05, 1.0, 1.0)
+                .build());
+        gateway.setSeed(11);
+
+        int failures = 0;
+        int runs = 0;
+        boolean failing = false;
+        for (int i = 0; i < 20_000; i++) {
+            PaymentResult result = gateway.charge("tok_visa_4242", 1999);
+            if (!result.success()) {
+                assertThat(result.errorCode()).isEqualTo("NETWORK_ERROR");
+                failures++;
+                runs += failing ? 0 : 1;
+            }
+            failing = !result.success();
+        }
+
+        // Outages last 20 charges on average; independent failures would rarely run to 2
+        assertThat(runs).isPositive();
+        assertThat((double) failures / runs).isGreaterThan(10);
+    }
+
+    @Test
+    @DisplayName("fails a degraded card network at its own rate")
+    void degradesCardNetwork() {
+        gateway.setSimulatedClock(new SimulatedClock());
+        gateway.setFailureProfile(GatewayFailureProfile.builder()
+                .networkFailureRate("amex", 0.5)
+                .build());
+        gateway.setSeed(11);
+
+        int amexFailures = 0;
+        int visaFailures = 0;
+        for (int i = 0; i < 1_000; i++) {
+            amexFailures += gateway.charge("tok_amex_3782", 3499).success() ? 0 : 1;
+            visaFailures += gateway.charge("tok_visa_4242", 1999).success() ? 0 : 1;
+        }
+
+        assertThat(amexFailures).isBetween(400, 600);
+        assertThat(visaFailures).isZero();
+    }
+
+    @Test
+    @DisplayName("times out charges whose latency spikes past the timeout")
+    void timesOutSpikes() {
+        gateway.setSimulatedClock(new SimulatedClock());
+        gateway.setFailureProfile(GatewayFailureProfile.builder()
+                .latencySpikes(0.2, Duration.ofSeconds(1))
+                .timeoutAfter(Duration.ofMillis(500))
+                .build());
+        gateway.setSeed(11);
+        LongSupplier clock = gateway.clock();
+
+        int timeouts = 0;
+        for (int i = 0; i < 1_000; i++) {
+            long before = clock.getAsLong();
+            PaymentResult result = gateway.charge("tok_visa_4242", 1999);
+            Duration latency = Duration.ofNanos(clock.getAsLong() - before);
+            if (result.success()) {
+                assertThat(latency).isLessThan(Duration.ofMillis(500));
+            } else {
+                assertThat(result.errorCode()).isEqualTo("TIMEOUT");
+                assertThat(latency).isEqualTo(Duration.ofMillis(500));
+                timeouts++;
+            }
+        }
+
+        // A fifth of charges spike, and five-eighths of spikes reach 500ms
+        assertThat(timeouts).isBetween(80, 170);
+    }
+}
@@ -0,0 +1,73 @@
+package org.javai.punit.examples.app.payment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import java.util.List;
+import org.javai.punit.examples.app.latency.LatencyRecorder;
+import org.javai.punit.examples.app.latency.LatencySnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TimedPaymentGateway")
+class TimedPaymentGatewayTest {
+
+    private final SimulatedClock clock = new SimulatedClock();
+
+    @AfterEach
+    void restoreMock() {
+        MockPaymentGateway.instance().setSimulatedClock(null);
+    }
+
+    @Test
+    @DisplayName("records each charge's latency on the given clock")
+    void recordsCharges() {
+        PaymentGateway advancing = (cardToken, amountCents) -> {
+            clock.advance(Duration.ofMillis(amountCents));
+            return PaymentResult.success("txn_" + amountCents);
+        };
+        TimedPaymentGateway gateway = new TimedPaymentGateway(advancing, new LatencyRecorder(), clock);
+
+        gateway.charge("tok_visa_4242", 10);
+        gateway.charge("key-1", "tok_visa_4242", 30);
+
+        LatencySnapshot snapshot = gateway.snapshot();
+        assertThat(snapshot.count()).isEqualTo(2);
+        assertThat(snapshot.min()).isBetween(Duration.ofMillis(9), Duration.ofMillis(10));
+        assertThat(snapshot.max()).isBetween(Duration.ofMillis(30), Duration.ofMillis(31));
+    }
+
+    @Test
+    @DisplayName("records the mock's simulated latencies, batch members included")
+    void recordsMockLatencies() {
+        MockPaymentGateway mock = MockPaymentGateway.instance();
+        mock.setSimulatedClock(clock);
+        TimedPaymentGateway gateway = new TimedPaymentGateway(mock, new LatencyRecorder(), clock);
+
+        for (int i = 0; i < 50; i++) {
+            gateway.charge("tok_visa_4242", 1999);
+        }
+        gateway.chargeAll(List.of(
+                new ChargeRequest("tok_visa_4242", 1999),
+                new ChargeRequest("tok_visa_4242", 2999)));
+
+        LatencySnapshot snapshot = gateway.snapshot();
+        assertThat(snapshot.count()).isEqualTo(52);
+        assertThat(snapshot.min()).isGreaterThanOrEqualTo(Duration.ofMillis(49));
+        assertThat(snapshot.max()).isLessThanOrEqualTo(Duration.ofMillis(203));
+    }
+
+    @Test
+    @DisplayName("does not record a charge that throws")
+    void skipsFailedCharges() {
+        PaymentGateway failing = (cardToken, amountCents) -> {
+            throw new IllegalStateException("connection reset");
+        };
+        TimedPaymentGateway gateway = new TimedPaymentGateway(failing);
+
+        assertThatThrownBy(() -> gateway.charge("tok_visa_4242", 1999))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(gateway.snapshot().count()).isZero();
+    }
+}
@@ -0,0 +1,223 @@
+package org.javai.punit.examples.app.payment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("TransactionLedger")
+class TransactionLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void detachLedger() {
+        MockPaymentGateway.instance().setLedger(null);
+        MockPaymentGateway.instance().setSimulatedClock(null);
+    }
+
+    @Test
+    @DisplayName("scans records back in the order they were appended")
+    void scansRecords() {
+        try (TransactionLedger ledger = TransactionLedger.open(directory.resolve("ledger"), 10)) {
+            ledger.append("tok_visa_4242", 1999, PaymentResult.success("txn_000000000001"), 120_000_000);
+            ledger.append("tok_amex_3782", 3499, PaymentResult.failure("DECLINED"), 80_000_000);
+
+            List<String> seen = new ArrayList<>();
+            ledger.scan(cursor -> seen.add(cursor.index() + " " + cursor.transactionId() + " "
+                    + cursor.errorCode() + " " + cursor.amountCents() + " " + cursor.latencyNanos()));
+
+            assertThat(seen).containsExactly(
+                    "0 txn_000000000001 null 1999 120000000",
+                    "1 null DECLINED 3499 80000000");
+        }
+    }
+
+    @Test
+    @DisplayName("matches records to a card by its token's hash")
+    void matchesCardHash() {
+        try (TransactionLedger ledger = TransactionLedger.open(directory.resolve("ledger"), 10)) {
+            ledger.append("tok_visa_4242", 1999, PaymentResult.success("txn_1"), 1);
+            ledger.append("tok_amex_3782", 3499, PaymentResult.success("txn_2"), 1);
+
+            long amex = TransactionLedger.hashCardToken("tok_amex_3782");
+            List<String> charged = new ArrayList<>();
+            ledger.scan(cursor -> {
+                if (cursor.cardTokenHash() == amex) {
+                    charged.add(cursor.transactionId());
+                }
+            });
+
+            assertThat(charged).containsExactly("txn_2");
+        }
+    }
+
+    @Test
+    @DisplayName("totals charges and failures by error code")
+    void summarises() {
+        try (TransactionLedger ledger = TransactionLedger.open(directory.resolve("ledger"), 10)) {
+            ledger.append("tok_visa_4242", 1000, PaymentResult.success("txn_1"), 1);
+            ledger.append("tok_visa_4242", 2000, PaymentResult.success("txn_2"), 1);
+            ledger.append("tok_visa_4242", 4000, PaymentResult.failure("TIMEOUT"), 1);
+            ledger.append("tok_visa_4242", 8000, PaymentResult.failure("DECLINED"), 1);
+            ledger.append("tok_visa_4242", 8000, PaymentResult.failure("TIMEOUT"), 1);
+
+            TransactionLedger.Summary summary = ledger.summary();
+
+            assertThat(summary.charges()).isEqualTo(5);
+            assertThat(summary.succeeded()).isEqualTo(2);
+            assertThat(summary.failed()).isEqualTo(3);
+            assertThat(summary.chargedCents()).isEqualTo(3000);
+            assertThat(summary.failuresByCode()).containsExactly(Map.entry("DECLINED", 1L), Map.entry("TIMEOUT", 2L));
+        }
+    }
+
+    @Test
+    @DisplayName("keeps its records, and appends after them, when reopened")
+    void reopens() {
+        Path path = directory.resolve("ledger");
+        try (TransactionLedger ledger = TransactionLedger.open(path, 10)) {
+            ledger.append("tok_visa_4242", 1999, PaymentResult.failure("DECLINED"), 1);
+        }
+
+        try (TransactionLedger ledger = TransactionLedger.open(path, 10)) {
+            ledger.append("tok_visa_4242", 1999, PaymentResult.failure("TIMEOUT"), 1);
+
+            assertThat(ledger.size()).isEqualTo(2);
+            assertThat(ledger.summary().failuresByCode())
+                    .containsExactly(Map.entry("DECLINED", 1L), Map.entry("TIMEOUT", 1L));
+        }
+    }
+
+    @Test
+    @DisplayName("recounts its records when reopened after a run that never closed it")
+    void recoversUnclosed() {
+        Path path = directory.resolve("ledger");
+        // Never closed, as a run that died would leave it
+        TransactionLedger crashed = TransactionLedger.open(path, 10);
+        crashed.append("tok_visa_4242", 1999, PaymentResult.success("txn_1"), 1);
+        crashed.force();
+        crashed.append("tok_visa_4242", 500, PaymentResult.failure("DECLINED"), 1);
+        crashed.append("tok_visa_4242", 700, PaymentResult.success("txn_3"), 1);
+
+        try (TransactionLedger ledger = TransactionLedger.open(path, 10)) {
+            assertThat(ledger.size()).isEqualTo(3);
+            ledger.append("tok_visa_4242", 100, PaymentResult.failure("TIMEOUT"), 1);
+
+            List<String> ids = new ArrayList<>();
+            ledger.scan(cursor -> ids.add(cursor.success() ? cursor.transactionId() : cursor.errorCode()));
+            assertThat(ids).containsExactly("txn_1", "DECLINED", "txn_3", "TIMEOUT");
+        }
+    }
+
+    @Test
+    @DisplayName("appends from many threads without losing a record")
+    void appendsConcurrently() {
+        try (TransactionLedger ledger = TransactionLedger.open(directory.resolve("ledger"), 40_000)) {
+            try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+                for (int t = 0; t < 4; t++) {
+                    executor.submit(() -> {
+                        for (int i = 0; i < 10_000; i++) {
+                            ledger.append("tok_visa_4242", 1, PaymentResult.success("txn_" + i), i);
+                        }
+                    });
+                }
+            }
+
+            assertThat(ledger.summary().chargedCents()).isEqualTo(40_000);
+        }
+    }
+
+    @Test
+    @DisplayName("records every mock charge, however it is made")
+    void recordsMockCharges() {
+        MockPaymentGateway gateway = MockPaymentGateway.instance();
+        gateway.setSimulatedClock(new SimulatedClock());
+        try (TransactionLedger ledger = TransactionLedger.open(directory.resolve("ledger"), 10_000)) {
+            gateway.setLedger(ledger);
+
+            long succeeded = 0;
+            for (int i = 0; i < 5_000; i++) {
+                succeeded += gateway.charge("tok_visa_4242", 1999).success() ? 1 : 0;
+            }
+            succeeded += gateway.chargeAsync("tok_visa_4242", 1999).join().success() ? 1 : 0;
+            for (PaymentResult result : gateway.chargeAll(List.of(
+                    new ChargeRequest("tok_visa_4242", 1999), new ChargeRequest("tok_visa_4242", 1999)))) {
+                succeeded += result.success() ? 1 : 0;
+            }
+
+            TransactionLedger.Summary summary = ledger.summary();
+            assertThat(summary.charges()).isEqualTo(5_003);
+            assertThat(summary.succeeded()).isEqualTo(succeeded);
+            assertThat(summary.chargedCents()).isEqualTo(succeeded * 1999);
+        }
+    }
+
+    @Test
+    @DisplayName("holds a full table of error codes, and refuses one more")
+    void fillsCodeTable() {
+        try (TransactionLedger ledger = TransactionLedger.open(directory.resolve("ledger"), 200)) {
+            for (int i = 0; i < TransactionLedger.MAX_ERROR_CODES; i++) {
+                ledger.append("tok_visa_4242", 1, PaymentResult.failure("CODE_" + i), 1);
+            }
+
+            List<String> codes = new ArrayList<>();
+            ledger.scan(cursor -> codes.add(cursor.errorCode()));
+            assertThat(codes).hasSize(TransactionLedger.MAX_ERROR_CODES)
+                    .endsWith("CODE_" + (TransactionLedger.MAX_ERROR_CODES - 1));
+            assertThat(ledger.summary().failuresByCode())
+                    .hasSize(TransactionLedger.MAX_ERROR_CODES)
+                    .containsEntry("CODE_" + (TransactionLedger.MAX_ERROR_CODES - 1), 1L);
+
+            PaymentResult overflow = PaymentResult.failure("ONE_TOO_MANY");
+            assertThatThrownBy(() -> ledger.append("tok_visa_4242", 1, overflow, 1))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(ledger.tryAppend("tok_visa_4242", 1, overflow, 1)).isFalse();
+            assertThat(ledger.size()).isEqualTo(TransactionLedger.MAX_ERROR_CODES);
+        }
+    }
+
+    @Test
+    @DisplayName("lets mock charges through once full, counting them as dropped")
+    void dropsChargesWhenFull() {
+        MockPaymentGateway gateway = MockPaymentGateway.instance();
+        gateway.setSimulatedClock(new SimulatedClock());
+        try (TransactionLedger ledger = TransactionLedger.open(directory.resolve("ledger"), 10)) {
+            gateway.setLedger(ledger);
+
+            for (int i = 0; i < 15; i++) {
+                gateway.charge("tok_visa_4242", 1999);
+            }
+
+            assertThat(ledger.size()).isEqualTo(10);
+            assertThat(ledger.dropped()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    @DisplayName("refuses to grow past its capacity, or to open a foreign file")
+    void rejectsOverflowAndForeignFiles() throws Exception {
+        try (TransactionLedger ledger = TransactionLedger.open(directory.resolve("ledger"), 1)) {
+            ledger.append("tok_visa_4242", 1999, PaymentResult.success("txn_1"), 1);
+
+            assertThatThrownBy(() -> ledger.append("tok_visa_4242", 1999, PaymentResult.success("txn_2"), 1))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(ledger.size()).isEqualTo(1);
+        }
+
+        Path foreign = Files.writeString(directory.resolve("notes.txt"), "not a ledger");
+        assertThatThrownBy(() -> TransactionLedger.open(foreign, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(Files.readString(foreign)).isEqualTo("not a ledger");
+    }
+}
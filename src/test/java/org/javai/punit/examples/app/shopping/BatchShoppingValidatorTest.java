@@ -0,0 +1,89 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.javai.punit.examples.app.shopping.BatchShoppingValidator.Report;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("BatchShoppingValidator")
+class BatchShoppingValidatorTest {
+
+    private static final String VALID = """
+            {"actions": [{"context": "SHOP", "name": "add", "parameters": [
+                {"name": "item", "value": "apples"}, {"name": "quantity", "value": "2"}]}]}""";
+    private static final String NON_INTEGER = """
+            {"actions": [{"context": "SHOP", "name": "add", "parameters": [
+                {"name": "item", "value": "apples"}, {"name": "quantity", "value": "a few"}]}]}""";
+    private static final String NON_POSITIVE = """
+            {"actions": [{"context": "SHOP", "name": "remove", "parameters": [
+                {"name": "item", "value": "milk"}, {"name": "quantity", "value": "0"}]}]}""";
+    private static final String INVALID_JSON = "Sure! Here you go.";
+
+    @Test
+    @DisplayName("counts failures per clause across a parallel run")
+    void countsFailuresPerClause() {
+        List<String> corpus = new ArrayList<>();
+        corpus.addAll(Collections.nCopies(700, VALID));
+        corpus.addAll(Collections.nCopies(100, NON_INTEGER));
+        corpus.addAll(Collections.nCopies(50, NON_POSITIVE));
+        corpus.addAll(Collections.nCopies(30, INVALID_JSON));
+        corpus.addAll(Collections.nCopies(20, " "));
+        Collections.shuffle(corpus, new java.util.Random(1));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Report report = new BatchShoppingValidator(pool).validate(corpus);
+
+            assertThat(report.samples()).isEqualTo(900);
+            assertThat(report.passed()).isEqualTo(700);
+            assertThat(report.passRate()).isEqualTo(700 / 900.0);
+            assertThat(report.failuresByClause()).containsExactly(
+                    Map.entry(ShoppingContract.RESPONSE_NOT_EMPTY, 20L),
+                    Map.entry(ShoppingContract.VALID_JSON, 50L),
+                    Map.entry(ShoppingContract.ACTIONS_VALID_FOR_CONTEXT, 0L),
+                    Map.entry(ShoppingContract.QUANTITIES_ARE_POSITIVE_INTEGERS, 150L));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("reads responses from a JSON Lines file")
+    void readsJsonLinesFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("responses.jsonl");
+        Files.writeString(file, """
+                "%s"
+
+                "%s"
+                """.formatted(escape(VALID), escape(NON_POSITIVE)));
+
+        Report report = new BatchShoppingValidator().validateFile(file);
+
+        assertThat(report.samples()).isEqualTo(2);
+        assertThat(report.failuresByClause()).containsEntry(ShoppingContract.QUANTITIES_ARE_POSITIVE_INTEGERS, 1L);
+    }
+
+    @Test
+    @DisplayName("rejects a line that is not a JSON string")
+    void rejectsMalformedLine(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("responses.jsonl");
+        Files.writeString(file, "not json\n");
+
+        assertThatThrownBy(() -> new BatchShoppingValidator().validateFile(file))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static String escape(String text) {
+        return text.replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
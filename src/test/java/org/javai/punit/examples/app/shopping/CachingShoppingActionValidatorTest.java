@@ -0,0 +1,70 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CachingShoppingActionValidator")
+class CachingShoppingActionValidatorTest {
+
+    private static final String CLEAR = "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"clear\"}]}";
+    private static final String PURCHASE = "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"purchase\"}]}";
+
+    @Test
+    @DisplayName("answers a repeated response with the shared outcome")
+    void answersRepeatedResponseFromCache() {
+        CachingShoppingActionValidator validator = new CachingShoppingActionValidator();
+
+        Outcome<BasketTranslation> first = validator.parse(CLEAR);
+        Outcome<BasketTranslation> second = validator.parse(new String(CLEAR.toCharArray()));
+
+        assertThat(second).isSameAs(first).isEqualTo(ShoppingActionValidator.parse(CLEAR));
+        assertThat(validator.hitCount()).isEqualTo(1);
+        assertThat(validator.missCount()).isEqualTo(1);
+        assertThat(validator.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("caches failures as well as successes")
+    void cachesFailures() {
+        CachingShoppingActionValidator validator = new CachingShoppingActionValidator();
+
+        Outcome<BasketTranslation> first = validator.parse(PURCHASE);
+
+        assertThat(first).isInstanceOf(Outcome.Fail.class);
+        assertThat(validator.parse(PURCHASE)).isSameAs(first);
+        assertThat(validator.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("evicts the least recently used response when full")
+    void evictsLeastRecentlyUsed() {
+        CachingShoppingActionValidator validator = new CachingShoppingActionValidator(1);
+
+        validator.parse(CLEAR);
+        validator.parse(PURCHASE);
+        validator.parse(CLEAR);
+
+        assertThat(validator.missCount()).isEqualTo(3);
+        assertThat(validator.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("reports a zero hit rate before any lookup and rejects a non-positive size")
+    void edgeCases() {
+        assertThat(new CachingShoppingActionValidator().hitRate()).isZero();
+        assertThatThrownBy(() -> new CachingShoppingActionValidator(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("fingerprints differ for responses differing in one character or in length")
+    void fingerprintsDistinguishNearIdenticalResponses() {
+        assertThat(ResponseFingerprint.of(CLEAR)).isEqualTo(ResponseFingerprint.of(new String(CLEAR.toCharArray())));
+        assertThat(ResponseFingerprint.of(CLEAR)).isNotEqualTo(ResponseFingerprint.of(CLEAR.replace("SHOP", "SHOQ")));
+        assertThat(ResponseFingerprint.of("")).isNotEqualTo(ResponseFingerprint.of("\0"));
+    }
+}
@@ -0,0 +1,143 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingAction.AppContext;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("GoldenAnswers")
+class GoldenAnswersTest {
+
+    private static final String ADD_APPLES = """
+            {"actions":[{"context":"SHOP","name":"add","parameters":[
+              {"name":"item","value":"apples"},{"name":"quantity","value":"2"}]}]}""";
+
+    private static final String FIXTURE = "/fixtures/shopping-instructions.json";
+
+    @Nested
+    @DisplayName("canonical form")
+    class CanonicalForm {
+
+        @Test
+        @DisplayName("ignores parameter order, case, padding and quantity formatting")
+        void normalisesEquivalentTranslations() {
+            CanonicalTranslation expected = canonical(action("add", "item", "apples", "quantity", "2"));
+            CanonicalTranslation actual = canonical(action("ADD", "Quantity", "02", "item", " Apples "));
+
+            assertThat(actual.matches(expected)).isTrue();
+            assertThat(actual).isEqualTo(expected);
+            assertThat(actual.form()).isEqualTo("SHOP.add{\"item\"=\"apples\",\"quantity\"=\"2\"};");
+            assertThat(canonical(action("add", "quantity", "2.0", "item", "apples")).matches(expected)).isTrue();
+        }
+
+        @Test
+        @DisplayName("keeps action order significant")
+        void keepsActionOrder() {
+            ShoppingAction add = action("add", "item", "milk", "quantity", "1");
+            ShoppingAction clear = new ShoppingAction(AppContext.SHOP, "clear", List.of());
+
+            assertThat(CanonicalTranslation.of(new BasketTranslation(List.of(add, clear))))
+                    .isNotEqualTo(CanonicalTranslation.of(new BasketTranslation(List.of(clear, add))));
+        }
+
+        @Test
+        @DisplayName("diffs actions and parameters structurally")
+        void diffsStructurally() {
+            CanonicalTranslation expected = canonical(action("add", "item", "apples", "quantity", "2"));
+            CanonicalTranslation actual = CanonicalTranslation.of(new BasketTranslation(List.of(
+                    action("add", "item", "apples", "unit", "kg"),
+                    new ShoppingAction(AppContext.SHOP, "clear", List.of()))));
+
+            assertThat(actual.diff(expected)).containsExactly(
+                    "Expected 1 action(s), got 2",
+                    "Action[0]: missing parameter \"quantity\"=\"2\"",
+                    "Action[0]: unexpected parameter \"unit\"=\"kg\"",
+                    "Action[1]: unexpected SHOP.clear{}");
+            assertThat(expected.diff(expected)).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("passes a matching translation and explains a mismatch")
+    void checksAgainstGoldenAnswer() {
+        GoldenAnswers answers = GoldenAnswers.of(Map.of("Add 2 apples", ADD_APPLES));
+
+        assertThat(answers.check("Add 2 apples", translation(action("add", "item", "Apples", "quantity", "2"))))
+                .isInstanceOf(Outcome.Ok.class);
+        assertThat(failureMessage(answers.check("Add 2 apples",
+                translation(action("remove", "item", "apples", "quantity", "3")))))
+                .isEqualTo("Action[0]: expected SHOP.add, got SHOP.remove; "
+                        + "Action[0]: expected \"quantity\"=\"2\", got \"quantity\"=\"3\"");
+        assertThat(failureMessage(answers.check("Add 3 pears", translation(action("add", "item", "pears", "quantity", "3")))))
+                .contains("No golden answer");
+    }
+
+    @Test
+    @DisplayName("rejects an expected response that is not a valid translation or breaks the contract")
+    void rejectsInvalidExpectedResponse() {
+        assertThatThrownBy(() -> GoldenAnswers.of(Map.of("Add apples", "{\"actions\": []}")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Add apples");
+        assertThatThrownBy(() -> GoldenAnswers.of(Map.of("Add no apples", ADD_APPLES.replace("\"2\"", "\"0\""))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("shopping contract");
+    }
+
+    @Test
+    @DisplayName("loads the instruction fixture, passing each answer's translation and no other")
+    void loadsInstructionFixture() throws Exception {
+        GoldenAnswers answers;
+        try (InputStream in = getClass().getResourceAsStream(FIXTURE)) {
+            answers = GoldenAnswers.load(in);
+        }
+        List<BasketTranslation> translations = new ArrayList<>();
+        try (InputStream in = getClass().getResourceAsStream(FIXTURE)) {
+            for (JsonNode entry : new ObjectMapper().readTree(in)) {
+                Outcome<BasketTranslation> parsed = ShoppingActionValidator.parse(entry.get("expected").asText());
+                translations.add(((Outcome.Ok<BasketTranslation>) parsed).value());
+            }
+        }
+
+        assertThat(answers.instructions()).hasSize(translations.size()).first().isEqualTo("Add some apples");
+        for (int i = 0; i < translations.size(); i++) {
+            String instruction = answers.instructions().get(i);
+            assertThat(answers.check(instruction, translations.get(i))).as(instruction).isInstanceOf(Outcome.Ok.class);
+
+            BasketTranslation other = translations.get((i + 1) % translations.size());
+            if (!CanonicalTranslation.of(other).matches(answers.expected(instruction).orElseThrow())) {
+                assertThat(answers.check(instruction, other)).as(instruction).isInstanceOf(Outcome.Fail.class);
+            }
+        }
+    }
+
+    private static ShoppingAction action(String name, String... parameterPairs) {
+        ShoppingActionParameter[] parameters = new ShoppingActionParameter[parameterPairs.length / 2];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = new ShoppingActionParameter(parameterPairs[2 * i], parameterPairs[2 * i + 1]);
+        }
+        return new ShoppingAction(AppContext.SHOP, name, List.of(parameters));
+    }
+
+    private static BasketTranslation translation(ShoppingAction action) {
+        return new BasketTranslation(List.of(action));
+    }
+
+    private static CanonicalTranslation canonical(ShoppingAction action) {
+        return CanonicalTranslation.of(translation(action));
+    }
+
+    private static String failureMessage(Outcome<Void> outcome) {
+        assertThat(outcome).isInstanceOf(Outcome.Fail.class);
+        return ((Outcome.Fail<Void>) outcome).failure().message();
+    }
+}
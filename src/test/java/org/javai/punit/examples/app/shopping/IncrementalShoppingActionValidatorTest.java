@@ -0,0 +1,133 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.IncrementalShoppingActionValidator.State;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("IncrementalShoppingActionValidator")
+class IncrementalShoppingActionValidatorTest {
+
+    private static final String RESPONSE = """
+            ```json
+            {"actions": [{"context": "SHOP", "name": "add", "parameters": [
+                {"name": "item", "value": "apples"}, {"name": "quantity", "value": "2"}]},
+              {"context": "SHOP", "name": "clear"}]}
+            ```""";
+
+    @Test
+    @DisplayName("agrees with the batch validator however the response is split")
+    void agreesWithBatchValidatorForAnySplit() {
+        Outcome<BasketTranslation> expected = ShoppingActionValidator.parse(RESPONSE);
+
+        for (int size : new int[] {1, 2, 7, RESPONSE.length()}) {
+            assertThat(IncrementalShoppingActionValidator.validate(chunks(RESPONSE, size)))
+                    .as("chunk size %d", size)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("reaches the batch validator's verdict wherever a response is split in two")
+    void agreesWithBatchValidatorAtEveryOffset() {
+        List<String> responses = List.of(
+                RESPONSE,
+                "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"clear\"}],}",
+                "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"clear\"},]}",
+                "{\"note\": {\"tag\": \"a,}\",}, \"actions\": [{\"context\": \"SHOP\", \"name\": \"clear\"}]}",
+                "{\"note\": \"a,\\\",}\", \"actions\": [{\"context\": \"SHOP\", \"name\": \"clear\"}]}");
+
+        for (String response : responses) {
+            boolean expected = ShoppingActionValidator.parse(response) instanceof Outcome.Ok;
+            for (int offset = 0; offset <= response.length(); offset++) {
+                Iterator<String> halves = List.of(response.substring(0, offset), response.substring(offset)).iterator();
+
+                assertThat(IncrementalShoppingActionValidator.validate(halves) instanceof Outcome.Ok)
+                        .as("%s split at %d", response, offset)
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("stays viable on a valid prefix and completes when the root closes")
+    void completesWhenRootCloses() {
+        IncrementalShoppingActionValidator validator = new IncrementalShoppingActionValidator();
+
+        assertThat(validator.feed("{\"actions\": [{\"context\": \"SHOP\", ")).isEqualTo(State.VIABLE);
+        assertThatThrownBy(validator::outcome).isInstanceOf(IllegalStateException.class);
+        assertThat(validator.feed("\"name\": \"clear\"}]}")).isEqualTo(State.COMPLETE);
+        assertThat(validator.feed("trailing prose is ignored")).isEqualTo(State.COMPLETE);
+        assertThat(validator.outcome()).isInstanceOf(Outcome.Ok.class);
+    }
+
+    @Test
+    @DisplayName("rejects an invalid action as soon as it closes")
+    void rejectsInvalidActionEarly() {
+        List<String> consumed = new ArrayList<>();
+        Iterator<String> source = List.of(
+                "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"purchase\"}",
+                ", {\"context\": \"SHOP\", \"name\": \"clear\"}",
+                "]}").iterator();
+
+        Outcome<BasketTranslation> outcome = IncrementalShoppingActionValidator.validate(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public String next() {
+                String chunk = source.next();
+                consumed.add(chunk);
+                return chunk;
+            }
+        });
+
+        assertThat(consumed).hasSize(1);
+        assertThat(reason(outcome)).startsWith("Action[0]: ").contains("Invalid action 'purchase'");
+    }
+
+    @Test
+    @DisplayName("rejects malformed JSON and a non-object root without further input")
+    void rejectsStructuralProblemsEarly() {
+        assertThat(new IncrementalShoppingActionValidator().feed("{\"actions\": [}")).isEqualTo(State.INVALID);
+
+        IncrementalShoppingActionValidator validator = new IncrementalShoppingActionValidator();
+        assertThat(validator.feed("[")).isEqualTo(State.INVALID);
+        assertThat(reason(validator.outcome())).isEqualTo("Expected JSON object with 'actions' array");
+    }
+
+    @Test
+    @DisplayName("settles truncated and blank responses on finish")
+    void settlesOnFinish() {
+        IncrementalShoppingActionValidator truncated = new IncrementalShoppingActionValidator();
+        truncated.feed("{\"actions\": [{\"context\": \"SHOP\"");
+        assertThat(truncated.finish()).isEqualTo(State.INVALID);
+        assertThat(reason(truncated.outcome())).startsWith("Invalid JSON: ");
+
+        IncrementalShoppingActionValidator blank = new IncrementalShoppingActionValidator();
+        blank.feed(" \n ");
+        assertThat(blank.finish()).isEqualTo(State.INVALID);
+        assertThat(reason(blank.outcome())).isEqualTo("Response content is null or blank");
+    }
+
+    private static Iterator<String> chunks(String text, int size) {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += size) {
+            chunks.add(text.substring(i, Math.min(text.length(), i + size)));
+        }
+        return chunks.iterator();
+    }
+
+    private static String reason(Outcome<BasketTranslation> outcome) {
+        assertThat(outcome).isInstanceOf(Outcome.Fail.class);
+        return ((Outcome.Fail<BasketTranslation>) outcome).failure().message();
+    }
+}
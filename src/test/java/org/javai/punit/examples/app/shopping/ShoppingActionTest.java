@@ -0,0 +1,88 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.javai.punit.examples.app.shopping.ShoppingAction.AppContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ShoppingAction")
+class ShoppingActionTest {
+
+    @Nested
+    @DisplayName("action codes")
+    class ActionCodes {
+
+        @Test
+        @DisplayName("number each context's actions in declaration order")
+        void numberActionsInDeclarationOrder() {
+            assertThat(AppContext.SHOP.actionCode("add")).isZero();
+            assertThat(AppContext.SHOP.actionCode("clear")).isEqualTo(2);
+            assertThat(AppContext.RECIPE.actionCode("share")).isEqualTo(3);
+            assertThat(AppContext.RECIPE.actionName(1)).isEqualTo("filter");
+        }
+
+        @Test
+        @DisplayName("resolve names case-insensitively, from strings or char buffers")
+        void resolveCaseInsensitively() {
+            char[] buffer = "{\"name\": \"ReMoVe\"}".toCharArray();
+
+            assertThat(AppContext.SHOP.actionCode("ADD")).isZero();
+            assertThat(AppContext.SHOP.actionCode(buffer, 10, 6)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("reject names outside the context's vocabulary")
+        void rejectUnknownNames() {
+            assertThat(AppContext.SHOP.actionCode("suggest")).isEqualTo(-1);
+            assertThat(AppContext.SHOP.actionCode("ad")).isEqualTo(-1);
+            assertThat(AppContext.SHOP.actionCode("adds")).isEqualTo(-1);
+            assertThat(AppContext.SHOP.actionCode((CharSequence) null)).isEqualTo(-1);
+            assertThat(AppContext.SHOP.isValidActionCode(3)).isFalse();
+        }
+
+        @Test
+        @DisplayName("require a vocabulary of distinct lower-case ASCII names")
+        void requireWellFormedVocabulary() {
+            assertThatThrownBy(() -> new ActionVocabulary("add", "Remove"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new ActionVocabulary("add", "add"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("carries the canonical name alongside its code")
+    void carriesCanonicalNameAndCode() {
+        ShoppingAction action = new ShoppingAction(AppContext.SHOP, "Remove", List.of());
+
+        assertThat(action.name()).isEqualTo("remove");
+        assertThat(action.code()).isEqualTo(1);
+        assertThat(action).isEqualTo(ShoppingAction.of(AppContext.SHOP, 1, List.of()));
+    }
+
+    @Test
+    @DisplayName("rejects an invalid name or code")
+    void rejectsInvalidNameOrCode() {
+        assertThatThrownBy(() -> new ShoppingAction(AppContext.SHOP, "purchase", List.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid action 'purchase' for context SHOP");
+        assertThatThrownBy(() -> ShoppingAction.of(AppContext.SHOP, 7, List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ShoppingAction(AppContext.SHOP, "add", List.of(), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("leaves the code out of its JSON form")
+    void omitsCodeFromJson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper.writeValueAsString(new ShoppingAction(AppContext.SHOP, "clear", List.of()));
+
+        assertThat(json).isEqualTo("{\"context\":\"SHOP\",\"name\":\"clear\",\"parameters\":[]}");
+        assertThat(mapper.readValue(json, ShoppingAction.class).code()).isEqualTo(2);
+    }
+}
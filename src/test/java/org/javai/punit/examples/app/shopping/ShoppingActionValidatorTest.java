@@ -0,0 +1,176 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import java.util.List;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.LenientTranslation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ShoppingActionValidator")
+class ShoppingActionValidatorTest {
+
+    private static final String ADD_APPLES = """
+            {"context": "SHOP", "name": "add", "parameters": [
+                {"name": "item", "value": "apples"}, {"name": "quantity", "value": "2"}]}""";
+
+    @Nested
+    @DisplayName("valid responses")
+    class Valid {
+
+        @Test
+        @DisplayName("parses actions and their parameters")
+        void parsesActions() {
+            BasketTranslation translation = ok("""
+                    {"actions": [%s, {"context": "SHOP", "name": "clear"}]}""".formatted(ADD_APPLES));
+
+            assertThat(translation.actions()).containsExactly(
+                    new ShoppingAction(ShoppingAction.AppContext.SHOP, "add", List.of(
+                            new ShoppingActionParameter("item", "apples"),
+                            new ShoppingActionParameter("quantity", "2"))),
+                    new ShoppingAction(ShoppingAction.AppContext.SHOP, "clear", List.of()));
+        }
+
+        @Test
+        @DisplayName("skips a code fence and fields it does not need")
+        void skipsFenceAndUnusedFields() {
+            BasketTranslation translation = ok("""
+                    ```json
+                    {"reasoning": {"steps": ["read", "plan"]}, "actions": [%s]}
+                    ```""".formatted(ADD_APPLES));
+
+            assertThat(translation.actions()).singleElement()
+                    .extracting(ShoppingAction::name).isEqualTo("add");
+        }
+    }
+
+    @Nested
+    @DisplayName("invalid responses")
+    class Invalid {
+
+        @Test
+        @DisplayName("rejects blank content and malformed JSON")
+        void rejectsBlankAndMalformed() {
+            assertThat(failure("  ")).isEqualTo("Response content is null or blank");
+            assertThat(failure("{\"actions\": [")).startsWith("Invalid JSON: ");
+        }
+
+        @Test
+        @DisplayName("rejects a syntax error inside a field it would otherwise skip")
+        void rejectsSyntaxErrorInSkippedField() {
+            assertThat(failure("{\"notes\": {\"a\": }, \"actions\": [" + ADD_APPLES + "]}"))
+                    .startsWith("Invalid JSON: ");
+        }
+
+        @Test
+        @DisplayName("rejects a root that is not an object with an actions array")
+        void rejectsWrongShape() {
+            assertThat(failure("[]")).isEqualTo("Expected JSON object with 'actions' array");
+            assertThat(failure("{\"operations\": []}")).isEqualTo("Expected JSON object with 'actions' array");
+            assertThat(failure("{\"actions\": {}}")).isEqualTo("Expected 'actions' to be an array");
+            assertThat(failure("{\"actions\": []}")).isEqualTo("Empty actions array");
+        }
+
+        @Test
+        @DisplayName("reports every invalid action by index")
+        void reportsInvalidActionsByIndex() {
+            String message = failure("""
+                    {"actions": [%s, {"context": "SHOP", "name": "purchase"}, {"context": "KITCHEN", "name": "add"}]}"""
+                    .formatted(ADD_APPLES));
+
+            assertThat(message)
+                    .startsWith("Action[1]: ")
+                    .contains("Invalid action 'purchase'", "; Action[2]: ", "KITCHEN")
+                    .doesNotContain("Action[0]");
+        }
+    }
+
+    @Nested
+    @DisplayName("lenient parsing")
+    class Lenient {
+
+        private static final String RESPONSE = "{\"actions\": [" + ADD_APPLES + "]}";
+
+        @Test
+        @DisplayName("passes clean JSON through unrecovered")
+        void passesCleanJsonThrough() {
+            LenientTranslation result = lenient("```json\n" + RESPONSE + "\n```");
+
+            assertThat(result.recovered()).isFalse();
+            assertThat(result.translation()).isEqualTo(ok(RESPONSE));
+        }
+
+        @Test
+        @DisplayName("recovers JSON embedded in prose")
+        void recoversJsonFromProse() {
+            LenientTranslation result = lenient("""
+                    Sure thing! Actions go in {curly braces}. The JSON for your request is:
+
+                    %s
+
+                    Let me know if you need anything else.""".formatted(RESPONSE));
+
+            assertThat(result.recovered()).isTrue();
+            assertThat(result.translation()).isEqualTo(ok(RESPONSE));
+        }
+
+        @Test
+        @DisplayName("ignores braces inside string literals and finds objects after an unclosed brace")
+        void scansStringsAndUnclosedBraces() {
+            String text = "a { b {\"v\": \"}\\\"{\"} c {\"x\": {}}";
+
+            assertThat(EmbeddedJson.objectSpans(text))
+                    .containsExactly(6, 19, 22, 31);
+            assertThat(EmbeddedJson.objectSpans("no json here }")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("returns the strict failure when nothing can be recovered")
+        void returnsStrictFailure() {
+            String response = "I'm sorry, I can't do {that}.";
+
+            Outcome<LenientTranslation> outcome = ShoppingActionValidator.parseLenient(response);
+
+            assertThat(outcome).isInstanceOf(Outcome.Fail.class);
+            assertThat(((Outcome.Fail<LenientTranslation>) outcome).failure().message()).isEqualTo(failure(response));
+        }
+
+        @Test
+        @DisplayName("returns an embedded object's own failure when it is JSON but not a valid translation")
+        void returnsEmbeddedFailure() {
+            String embedded = "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"purchase\"}]}";
+            String response = "Sure thing! Here you go: " + embedded;
+
+            Outcome<LenientTranslation> outcome = ShoppingActionValidator.parseLenient(response);
+
+            assertThat(outcome).isInstanceOf(Outcome.Fail.class);
+            assertThat(((Outcome.Fail<LenientTranslation>) outcome).failure().message())
+                    .isEqualTo(failure(embedded))
+                    .contains("Invalid action 'purchase'");
+        }
+
+        private static LenientTranslation lenient(String response) {
+            return switch (ShoppingActionValidator.parseLenient(response)) {
+                case Outcome.Ok<LenientTranslation> ok -> ok.value();
+                case Outcome.Fail<LenientTranslation> failed -> fail("Expected success but got: " + failed.failure().message());
+            };
+        }
+    }
+
+    private static BasketTranslation ok(String json) {
+        return switch (ShoppingActionValidator.parse(json)) {
+            case Outcome.Ok<BasketTranslation> ok -> ok.value();
+            case Outcome.Fail<BasketTranslation> failed -> fail("Expected success but got: " + failed.failure().message());
+        };
+    }
+
+    private static String failure(String json) {
+        return switch (ShoppingActionValidator.parse(json)) {
+            case Outcome.Ok<BasketTranslation> ok -> fail("Expected failure but got: " + ok.value());
+            case Outcome.Fail<BasketTranslation> failed -> failed.failure().message();
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingAction.AppContext;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ShoppingBasketEngine")
+class ShoppingBasketEngineTest {
+
+    @Test
+    @DisplayName("applies each session's translations in submission order")
+    void appliesInSubmissionOrder() {
+        try (ShoppingBasketEngine engine = new ShoppingBasketEngine(4)) {
+            List<CompletableFuture<Outcome<Void>>> futures = new ArrayList<>();
+            for (int session = 0; session < 50; session++) {
+                for (int i = 0; i < 20; i++) {
+                    futures.add(engine.submit("session-" + session, translation("add", "apples", "1")));
+                }
+                // Valid only because the adds before it have already been applied
+                futures.add(engine.submit("session-" + session, translation("remove", "apples", "15")));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            for (int session = 0; session < 50; session++) {
+                assertThat(engine.contents("session-" + session).join()).isEqualTo(Map.of("apples", 5));
+            }
+            assertThat(engine.appliedCount()).isEqualTo(50 * 21);
+            assertThat(engine.rejectedCount()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("counts rejected translations and leaves their basket unchanged")
+    void countsRejections() {
+        try (ShoppingBasketEngine engine = new ShoppingBasketEngine(2)) {
+            engine.submit("s", translation("add", "milk", "2")).join();
+            Outcome<Void> outcome = engine.submit("s", translation("add", "milk", "lots")).join();
+
+            assertThat(outcome).isInstanceOf(Outcome.Fail.class);
+            assertThat(engine.contents("s").join()).isEqualTo(Map.of("milk", 2));
+            assertThat(engine.rejectedCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("reports an unknown session as empty without creating its basket")
+    void queriesDoNotCreateBaskets() {
+        try (ShoppingBasketEngine engine = new ShoppingBasketEngine(2)) {
+            engine.submit("known", translation("add", "milk", "2")).join();
+
+            assertThat(engine.contents("unknown").join()).isEmpty();
+            assertThat(engine.basketCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("requires at least one lane")
+    void requiresALane() {
+        assertThatThrownBy(() -> new ShoppingBasketEngine(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BasketTranslation translation(String name, String item, String quantity) {
+        return new BasketTranslation(List.of(new ShoppingAction(AppContext.SHOP, name, List.of(
+                new ShoppingActionParameter("item", item),
+                new ShoppingActionParameter("quantity", quantity)))));
+    }
+}
@@ -0,0 +1,129 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingAction.AppContext;
+import org.javai.punit.examples.app.shopping.ShoppingActionValidator.BasketTranslation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ShoppingBasket")
+class ShoppingBasketTest {
+
+    @Nested
+    @DisplayName("applying actions")
+    class ApplyingActions {
+
+        @Test
+        @DisplayName("adds, removes and clears items")
+        void addsRemovesAndClears() {
+            ShoppingBasket basket = new ShoppingBasket();
+
+            basket.apply(add("Apples", "3"));
+            basket.apply(add("apples ", null));
+            basket.apply(add("milk", "2"));
+            basket.apply(remove("apples", "1"));
+
+            assertThat(basket.contents()).containsExactly(Map.entry("apples", 3), Map.entry("milk", 2));
+            assertThat(basket.totalQuantity()).isEqualTo(5);
+
+            basket.apply(remove("milk", null));
+            assertThat(basket.contents()).containsOnlyKeys("apples");
+
+            basket.apply(new ShoppingAction(AppContext.SHOP, "clear", List.of()));
+            assertThat(basket.isEmpty()).isTrue();
+        }
+
+        @Test
+        @DisplayName("never lets a quantity go negative")
+        void neverGoesNegative() {
+            ShoppingBasket basket = new ShoppingBasket();
+
+            basket.apply(add("bread", "1"));
+            basket.apply(remove("bread", "5"));
+            basket.apply(remove("eggs", "2"));
+
+            assertThat(basket.quantity("bread")).isZero();
+            assertThat(basket.itemCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("rejects actions it cannot apply")
+        void rejectsInapplicableActions() {
+            ShoppingBasket basket = new ShoppingBasket();
+
+            assertThat(failureMessage(basket.apply(add("apples", "0")))).contains("not a positive integer");
+            assertThat(failureMessage(basket.apply(add("apples", "two")))).contains("not a positive integer");
+            assertThat(failureMessage(basket.apply(add(" ", "1")))).contains("requires an item");
+            assertThat(failureMessage(basket.apply(new ShoppingAction(AppContext.RECIPE, "save", List.of()))))
+                    .contains("RECIPE actions cannot be applied");
+            assertThat(basket.isEmpty()).isTrue();
+        }
+
+        @Test
+        @DisplayName("applies a translation all-or-nothing")
+        void appliesTranslationAtomically() {
+            ShoppingBasket basket = new ShoppingBasket();
+
+            Outcome<Void> outcome = basket.apply(new BasketTranslation(List.of(
+                    add("apples", "2"), remove("milk", "-1"))));
+
+            assertThat(failureMessage(outcome)).startsWith("Action[1]:");
+            assertThat(basket.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("item map agrees with a HashMap under random churn")
+    void itemMapAgreesWithHashMap() {
+        ItemQuantityMap map = new ItemQuantityMap();
+        Map<String, Integer> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = "item-" + random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(reference.getOrDefault(key, 0));
+                reference.remove(key);
+            } else {
+                int value = random.nextInt(5);
+                map.put(key, value);
+                if (value == 0) {
+                    reference.remove(key);
+                } else {
+                    reference.put(key, value);
+                }
+            }
+        }
+
+        Map<String, Integer> contents = new HashMap<>();
+        map.forEach(contents::put);
+        assertThat(contents).isEqualTo(reference);
+        assertThat(map.size()).isEqualTo(reference.size());
+    }
+
+    private static ShoppingAction add(String item, String quantity) {
+        return action("add", item, quantity);
+    }
+
+    private static ShoppingAction remove(String item, String quantity) {
+        return action("remove", item, quantity);
+    }
+
+    private static ShoppingAction action(String name, String item, String quantity) {
+        List<ShoppingActionParameter> parameters = quantity == null
+                ? List.of(new ShoppingActionParameter("item", item))
+                : List.of(new ShoppingActionParameter("item", item), new ShoppingActionParameter("quantity", quantity));
+        return new ShoppingAction(AppContext.SHOP, name, parameters);
+    }
+
+    private static String failureMessage(Outcome<Void> outcome) {
+        assertThat(outcome).isInstanceOf(Outcome.Fail.class);
+        return ((Outcome.Fail<Void>) outcome).failure().message();
+    }
+}
@@ -0,0 +1,108 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingContract.Verdict;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("ShoppingContract")
+class ShoppingContractTest {
+
+    private static final String VALID = """
+            {"actions": [
+              {"context": "SHOP", "name": "add", "parameters": [
+                {"name": "item", "value": "apples"}, {"name": "quantity", "value": "2"}]},
+              {"context": "SHOP", "name": "clear"}]}""";
+
+    @Test
+    @DisplayName("passes every clause for a valid response")
+    void passesValidResponse() {
+        Verdict verdict = ShoppingContract.evaluate(VALID);
+
+        assertThat(verdict.passed()).isTrue();
+        for (int clause = 0; clause < ShoppingContract.CLAUSES.size(); clause++) {
+            assertThat(verdict.outcome(clause)).isInstanceOf(Outcome.Ok.class);
+        }
+    }
+
+    @Test
+    @DisplayName("reports the first offending quantity, across actions")
+    void reportsFirstOffendingQuantity() {
+        Verdict verdict = ShoppingContract.evaluate("""
+                {"actions": [
+                  {"context": "SHOP", "name": "clear"},
+                  {"context": "SHOP", "name": "add", "parameters": [
+                    {"name": "item", "value": "apples"}, {"name": "quantity", "value": "3"}]},
+                  {"context": "SHOP", "name": "remove", "parameters": [
+                    {"name": "item", "value": "milk"}, {"name": "quantity", "value": "0"}]},
+                  {"context": "SHOP", "name": "add", "parameters": [
+                    {"name": "item", "value": "pears"}, {"name": "quantity", "value": "lots"}]}]}""");
+
+        assertThat(verdict.passed()).isFalse();
+        assertThat(verdict.actionsValidForContext()).isInstanceOf(Outcome.Ok.class);
+        assertThat(message(verdict.quantitiesArePositiveIntegers()))
+                .isEqualTo("Quantity 0 is not a positive integer");
+    }
+
+    @Test
+    @DisplayName("reports a non-integer quantity by its text")
+    void reportsNonIntegerQuantity() {
+        Verdict verdict = ShoppingContract.evaluate(VALID.replace("\"2\"", "\"a few\""));
+
+        assertThat(message(verdict.quantitiesArePositiveIntegers()))
+                .isEqualTo("Quantity 'a few' is not an integer");
+    }
+
+    @Test
+    @DisplayName("skips the derived clauses when the response does not parse")
+    void skipsDerivedClauses() {
+        Verdict verdict = ShoppingContract.evaluate("Sure! Here you go.");
+
+        assertThat(verdict.responseNotEmpty()).isInstanceOf(Outcome.Ok.class);
+        assertThat(verdict.validJson()).isInstanceOf(Outcome.Fail.class);
+        assertThat(verdict.actionsValidForContext()).isNull();
+        assertThat(verdict.quantitiesArePositiveIntegers()).isNull();
+        assertThat(verdict.passed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("fails an empty response")
+    void failsEmptyResponse() {
+        Verdict verdict = ShoppingContract.evaluate("  ");
+
+        assertThat(message(verdict.responseNotEmpty())).isEqualTo("LLM returned no content");
+        assertThat(verdict.passed()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2", "0", "-1", "a few", "2.5", "\\u0032", "99999999999"})
+    @DisplayName("judges a view read in place as one built from parsed records")
+    void agreesWithViewOfParsedTranslation(String quantity) {
+        String response = VALID.replace("\"2\"", "\"" + quantity + "\"");
+        TranslationView inPlace = view(ShoppingActionValidator.view(response));
+        TranslationView fromRecords = TranslationView.of(inPlace.translation());
+
+        assertThat(message(ShoppingContract.checkQuantitiesArePositiveIntegers(inPlace)))
+                .isEqualTo(message(ShoppingContract.checkQuantitiesArePositiveIntegers(fromRecords)));
+        assertThat(message(ShoppingContract.checkActionsValidForContext(inPlace)))
+                .isEqualTo(message(ShoppingContract.checkActionsValidForContext(fromRecords)));
+    }
+
+    private static TranslationView view(Outcome<TranslationView> outcome) {
+        return switch (outcome) {
+            case Outcome.Ok<TranslationView> ok -> ok.value();
+            case Outcome.Fail<TranslationView> f -> fail("Expected a view but got: " + f.failure().message());
+        };
+    }
+
+    private static String message(Outcome<Void> outcome) {
+        return switch (outcome) {
+            case Outcome.Ok<Void> ok -> null;
+            case Outcome.Fail<Void> f -> f.failure().message();
+        };
+    }
+}
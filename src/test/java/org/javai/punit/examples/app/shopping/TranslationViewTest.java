@@ -0,0 +1,118 @@
+package org.javai.punit.examples.app.shopping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+import org.javai.outcome.Outcome;
+import org.javai.punit.examples.app.shopping.ShoppingAction.AppContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("TranslationView")
+class TranslationViewTest {
+
+    private static final String RESPONSE = """
+            ```json
+            {"actions": [
+              {"context": "SHOP", "name": "Add", "parameters": [
+                {"name": "item", "value": "apples"}, {"name": "quantity", "value": "+03"}]},
+              {"context": "SHOP", "name": "remove", "parameters": [
+                {"name": "item", "value": "cr\\u00e8me fra\\u00eeche"}, {"name": "quantity", "value": "two"}]},
+              {"context": "SHOP", "name": "clear"}
+            ]}
+            ```""";
+
+    @Test
+    @DisplayName("reads actions, parameters and decoded quantities in place")
+    void readsInPlace() {
+        TranslationView view = view(RESPONSE);
+
+        assertThat(view.actionCount()).isEqualTo(3);
+        assertThat(view.context(0)).isEqualTo(AppContext.SHOP);
+        assertThat(view.actionName(0)).isEqualTo("add");
+        assertThat(view.actionCode(1)).isEqualTo(AppContext.SHOP.actionCode("remove"));
+        assertThat(view.parameterCount(2)).isZero();
+
+        assertThat(view.parameterName(0, 0)).isEqualTo("item");
+        assertThat(view.parameterValue(0, 0)).isEqualTo("apples");
+        assertThat(view.isQuantity(0, 0)).isFalse();
+        assertThat(view.isIntegerQuantity(0, 1)).isTrue();
+        assertThat(view.quantity(0, 1)).isEqualTo(3);
+
+        assertThat(view.parameterValue(1, 0)).isEqualTo("crème fraîche");
+        assertThat(view.isQuantity(1, 1)).isTrue();
+        assertThat(view.isIntegerQuantity(1, 1)).isFalse();
+        assertThatThrownBy(() -> view.quantity(1, 1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("builds the translation parse() would, once")
+    void buildsTranslationOnce() {
+        TranslationView view = view(RESPONSE);
+
+        assertThat(view.translation()).isEqualTo(translation(ShoppingActionValidator.parse(RESPONSE)));
+        assertThat(view.translation()).isSameAs(view.translation());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"actions\": [{\"name\": \"add\", \"context\": \"SHOP\"}]}",
+            "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"clear\", \"parameters\": null}]}",
+            "{\"actions\": {}, \"actions\": [{\"context\": \"SHOP\", \"name\": \"clear\"}]}",
+            "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"add\", \"parameters\": [{\"value\": \"1\", \"name\": \"quantity\"}]}]}",
+            "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"add\", \"parameters\": [{\"name\": \"quantity\", \"value\": 2}]}]}"
+    })
+    @DisplayName("agrees with parse() on responses outside the common shape")
+    void agreesWithParseOnValidResponses(String response) {
+        TranslationView view = view(response);
+
+        assertThat(view.translation()).isEqualTo(translation(ShoppingActionValidator.parse(response)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "{\"actions\": []}",
+            "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"purchase\"}]}",
+            "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"add\", \"parameters\": [{\"name\": \"quantity\", \"value\": null}]}]}",
+            "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"add\"}], \"actions\": 1}",
+            "{\"actions\": [{\"context\": \"SHOP\", \"name\": \"add\"}"
+    })
+    @DisplayName("fails exactly as parse() does")
+    void failsAsParseDoes(String response) {
+        Outcome<TranslationView> outcome = ShoppingActionValidator.view(response);
+
+        assertThat(outcome).isInstanceOf(Outcome.Fail.class);
+        assertThat(((Outcome.Fail<TranslationView>) outcome).failure().message())
+                .isEqualTo(((Outcome.Fail<?>) ShoppingActionValidator.parse(response)).failure().message());
+    }
+
+    @Test
+    @DisplayName("wraps an existing translation")
+    void wrapsExistingTranslation() {
+        ShoppingActionValidator.BasketTranslation translation = translation(ShoppingActionValidator.parse(RESPONSE));
+        TranslationView view = TranslationView.of(translation);
+
+        assertThat(view.translation()).isSameAs(translation);
+        assertThat(view.quantity(0, 1)).isEqualTo(3);
+        assertThat(view.parameterValue(1, 0)).isEqualTo("crème fraîche");
+    }
+
+    private static TranslationView view(String response) {
+        return switch (ShoppingActionValidator.view(response)) {
+            case Outcome.Ok<TranslationView> ok -> ok.value();
+            case Outcome.Fail<TranslationView> failed -> fail("Expected success but got: " + failed.failure().message());
+        };
+    }
+
+    private static ShoppingActionValidator.BasketTranslation translation(
+            Outcome<ShoppingActionValidator.BasketTranslation> outcome) {
+        return switch (outcome) {
+            case Outcome.Ok<ShoppingActionValidator.BasketTranslation> ok -> ok.value();
+            case Outcome.Fail<ShoppingActionValidator.BasketTranslation> failed ->
+                    fail("Expected success but got: " + failed.failure().message());
+        };
+    }
+}
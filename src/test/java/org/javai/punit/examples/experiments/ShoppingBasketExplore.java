@@ -19,6 +19,10 @@ import org.javai.punit.runtime.PUnit;
  * {@code ChatLlm} provider via {@code OPENAI_API_KEY} and
  * {@code ANTHROPIC_API_KEY} for the models in the grid.
  *
+ * <p>In mock mode each model in the grid maps to its own behaviour
+ * profile (see {@code ModelProfiles}), so the four configurations
+ * produce distinguishable pass rates without any API calls.
+ *
  * <h2>Running</h2>
  *
  * <pre>{@code
@@ -0,0 +1,44 @@
+package org.javai.punit.examples.experiments;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.javai.punit.api.Experiment;
+import org.javai.punit.examples.app.shopping.GoldenAnswers;
+import org.javai.punit.examples.usecases.ShoppingBasketUseCase.LlmTuning;
+import org.javai.punit.examples.usecases.ShoppingGoldenAnswerUseCase;
+import org.javai.punit.runtime.PUnit;
+
+/**
+ * MEASURE experiment establishing a semantic-correctness baseline
+ * for {@link ShoppingGoldenAnswerUseCase}. Where
+ * {@link ShoppingBasketMeasure} records how often responses are
+ * well-formed, this records how often they are <em>right</em>:
+ * each instruction in {@code fixtures/shopping-instructions.json}
+ * is sent to the LLM and the translation compared, in canonical
+ * form, with the fixture's expected answer. The failure histogram
+ * separates malformed responses ({@code "Valid JSON"}) from wrong
+ * ones ({@code "Matches golden answer"}).
+ *
+ * <h2>Running</h2>
+ *
+ * <pre>{@code
+ * ./gradlew experiment -Prun=ShoppingBasketGoldenMeasure.measureGoldenBaseline \
+ *     -Dpunit.baseline.dir="$PWD/build/punit/baselines"
+ * }</pre>
+ */
+public class ShoppingBasketGoldenMeasure {
+
+    private static final String FIXTURE = "/fixtures/shopping-instructions.json";
+
+    @Experiment
+    void measureGoldenBaseline() throws IOException {
+        GoldenAnswers answers;
+        try (InputStream in = ShoppingBasketGoldenMeasure.class.getResourceAsStream(FIXTURE)) {
+            answers = GoldenAnswers.load(in);
+        }
+        PUnit.measuring(ShoppingGoldenAnswerUseCase.sampling(answers, 1000), LlmTuning.DEFAULT)
+                .experimentId("golden-v1")
+                .run();
+    }
+}
@@ -4,6 +4,8 @@
  * <ul>
  *   <li>{@link org.javai.punit.examples.experiments.ShoppingBasketMeasure} —
  *       MEASURE: establish a baseline.</li>
+ *   <li>{@link org.javai.punit.examples.experiments.ShoppingBasketGoldenMeasure} —
+ *       MEASURE: establish a semantic-correctness baseline against golden answers.</li>
  *   <li>{@link org.javai.punit.examples.experiments.ShoppingBasketExplore} —
  *       EXPLORE: compare configurations across a grid.</li>
  *   <li>{@link org.javai.punit.examples.experiments.ShoppingBasketOptimizeTemperature} —
@@ -16,6 +18,7 @@
  *
  * <pre>{@code
  * ./gradlew experiment -Prun=ShoppingBasketMeasure
+ * ./gradlew experiment -Prun=ShoppingBasketGoldenMeasure
  * ./gradlew experiment -Prun=ShoppingBasketExplore.compareModels
  * ./gradlew experiment -Prun=ShoppingBasketOptimizeTemperature.optimizeTemperature
  * ./gradlew experiment -Prun=ShoppingBasketOptimizePrompt.optimizeSystemPrompt
@@ -31,6 +31,18 @@ import org.javai.punit.runtime.PUnit;
  * {@link ShoppingBasketUseCase#samplingPaced(Pacing, List, int)
  * samplingPaced} factory threads the pacing through for the
  * demonstrations below.
+ *
+ * <p>To size a pacing configuration offline, install a simulated
+ * provider quota on the mock LLM before the run and read its
+ * counters afterwards: admitted calls against 429 rejections gives
+ * the wasted share of the request volume.
+ *
+ * <pre>{@code
+ * MockChatLlm.instance().setProviderQuota(
+ *         ProviderQuota.requestsPerMinute(100).tokensPerMinute(40_000));
+ * // ... run the paced test ...
+ * QuotaUsage usage = MockChatLlm.instance().getQuotaUsage();
+ * }</pre>
  */
 public class ShoppingBasketPacingTest {
 